@@ -0,0 +1,151 @@
+package com.example.accountservice.config;
+
+import feign.Client;
+import feign.hc5.ApacheHttp5Client;
+import feign.http2client.Http2Client;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * HTTP transport for the Feign clients ({@code FraudServiceFeignApi}), replacing
+ * Feign's default {@code HttpURLConnection} client, whose small, untunable keep-alive
+ * cache makes bursts open and close a connection per request.
+ * <p>
+ * {@code feign.http.transport=pooled} (default): Apache HttpClient 5 over a bounded
+ * pool of keep-alive connections. Publishes {@code httpcomponents_httpclient_pool_*}
+ * (leased, available, pending and max connections) tagged {@code httpclient="feign"},
+ * and {@code feign_http_pool_lease_seconds}, the time spent waiting for a connection.
+ * <p>
+ * {@code feign.http.transport=http2}: the JDK {@link HttpClient}, which multiplexes
+ * requests over one HTTP/2 connection per host when the server accepts h2c
+ * ({@code server.http2.enabled=true}) and falls back to HTTP/1.1 otherwise. It has no
+ * pool to size or measure.
+ * <p>
+ * Connect and read timeouts still come from {@code spring.cloud.openfeign.client.config}.
+ */
+@Configuration
+public class FeignHttpClientConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "feign.http.transport", havingValue = "pooled", matchIfMissing = true)
+    public PoolingHttpClientConnectionManager feignConnectionManager(
+            MeterRegistry meterRegistry,
+            @Value("${feign.http.pool.max-connections:200}") int maxConnections,
+            @Value("${feign.http.pool.max-connections-per-route:50}") int maxConnectionsPerRoute,
+            @Value("${feign.http.pool.time-to-live:5m}") Duration timeToLive
+    ) {
+        PoolingHttpClientConnectionManager connectionManager = new LeaseTimingConnectionManager(meterRegistry);
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setTimeToLive(TimeValue.ofMilliseconds(timeToLive.toMillis()))
+                .build());
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "feign").bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "feign.http.transport", havingValue = "pooled", matchIfMissing = true)
+    public CloseableHttpClient feignHttpClient(
+            PoolingHttpClientConnectionManager feignConnectionManager,
+            @Value("${feign.http.pool.lease-timeout:1s}") Duration leaseTimeout,
+            @Value("${feign.http.pool.idle-timeout:15s}") Duration idleTimeout
+    ) {
+        return HttpClients.custom()
+                .setConnectionManager(feignConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(leaseTimeout.toMillis()))
+                        .build())
+                .evictExpiredConnections()
+                // closed before the server drops them (Tomcat's keep-alive timeout is 20 s)
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleTimeout.toMillis()))
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "feign.http.transport", havingValue = "pooled", matchIfMissing = true)
+    public Client feignClient(CloseableHttpClient feignHttpClient) {
+        return new ApacheHttp5Client(feignHttpClient);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "feign.http.transport", havingValue = "http2")
+    public Client http2FeignClient(
+            @Value("${spring.cloud.openfeign.client.config.default.connectTimeout:2000}") long connectTimeoutMillis
+    ) {
+        return new Http2Client(HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .build());
+    }
+
+    /**
+     * Records how long each request waits for a connection, which grows once the
+     * pool or a route is at its limit.
+     */
+    static final class LeaseTimingConnectionManager extends PoolingHttpClientConnectionManager {
+
+        private final Timer acquired;
+        private final Timer timedOut;
+
+        LeaseTimingConnectionManager(MeterRegistry meterRegistry) {
+            this.acquired = leaseTimer(meterRegistry, "acquired");
+            this.timedOut = leaseTimer(meterRegistry, "timeout");
+        }
+
+        @Override
+        public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+            LeaseRequest lease = super.lease(id, route, requestTimeout, state);
+            return new LeaseRequest() {
+
+                @Override
+                public ConnectionEndpoint get(Timeout timeout)
+                        throws InterruptedException, ExecutionException, TimeoutException {
+                    long start = System.nanoTime();
+                    try {
+                        ConnectionEndpoint endpoint = lease.get(timeout);
+                        acquired.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        return endpoint;
+                    } catch (TimeoutException ex) {
+                        timedOut.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        throw ex;
+                    }
+                }
+
+                @Override
+                public boolean cancel() {
+                    return lease.cancel();
+                }
+            };
+        }
+
+        private static Timer leaseTimer(MeterRegistry meterRegistry, String outcome) {
+            return Timer.builder("feign.http.pool.lease")
+                    .description("Time spent waiting for a pooled connection to a Feign target")
+                    .tag("outcome", outcome)
+                    .publishPercentiles(0.99)
+                    .register(meterRegistry);
+        }
+    }
+}
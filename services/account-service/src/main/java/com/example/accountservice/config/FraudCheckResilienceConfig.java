@@ -0,0 +1,68 @@
+package com.example.accountservice.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker and bulkhead guarding calls to fraud-service. Both publish
+ * {@code resilience4j_circuitbreaker_*} and {@code resilience4j_bulkhead_*} metrics
+ * tagged with {@code name="fraud-service"}, including one state gauge per breaker state.
+ */
+@Configuration
+public class FraudCheckResilienceConfig {
+
+    public static final String FRAUD_SERVICE = "fraud-service";
+
+    @Bean
+    public CircuitBreaker fraudServiceCircuitBreaker(
+            MeterRegistry meterRegistry,
+            @Value("${fraudcheck.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${fraudcheck.circuit-breaker.slow-call-rate-threshold:50}") float slowCallRateThreshold,
+            @Value("${fraudcheck.circuit-breaker.slow-call-threshold:1s}") Duration slowCallThreshold,
+            @Value("${fraudcheck.circuit-breaker.sliding-window-size:50}") int slidingWindowSize,
+            @Value("${fraudcheck.circuit-breaker.wait-in-open-state:10s}") Duration waitInOpenState
+    ) {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .slowCallDurationThreshold(slowCallThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(Math.min(slidingWindowSize, 10))
+                .waitDurationInOpenState(waitInOpenState)
+                .permittedNumberOfCallsInHalfOpenState(5)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                // a full bulkhead is local saturation, not a sign that fraud-service is unhealthy
+                .ignoreExceptions(BulkheadFullException.class)
+                .build();
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry.circuitBreaker(FRAUD_SERVICE);
+    }
+
+    @Bean
+    public Bulkhead fraudServiceBulkhead(
+            MeterRegistry meterRegistry,
+            @Value("${fraudcheck.bulkhead.max-concurrent-calls:50}") int maxConcurrentCalls
+    ) {
+        BulkheadConfig config = BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ZERO)
+                .build();
+        BulkheadRegistry registry = BulkheadRegistry.of(config);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+        return registry.bulkhead(FRAUD_SERVICE);
+    }
+}
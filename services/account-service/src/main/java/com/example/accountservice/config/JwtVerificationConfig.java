@@ -0,0 +1,42 @@
+package com.example.accountservice.config;
+
+import com.example.accountservice.security.JwksKeySet;
+import com.example.accountservice.security.JwtVerificationFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Verifies auth-service tokens locally on {@code url-patterns}, with the keys
+ * published at auth-service's {@code /.well-known/jwks.json}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "security.jwt.verification.enabled", havingValue = "true")
+public class JwtVerificationConfig {
+
+    @Bean
+    public JwksKeySet jwksKeySet(RestTemplateBuilder restTemplateBuilder,
+                                 @Value("${security.jwt.verification.jwks-uri}") String jwksUri,
+                                 @Value("${security.jwt.verification.min-refresh-interval:30s}") Duration minRefreshInterval) {
+        return new JwksKeySet(restTemplateBuilder
+                .setConnectTimeout(Duration.ofSeconds(2))
+                .setReadTimeout(Duration.ofSeconds(3))
+                .build(), jwksUri, minRefreshInterval);
+    }
+
+    @Bean
+    public FilterRegistrationBean<JwtVerificationFilter> jwtVerificationFilter(
+            JwksKeySet jwksKeySet,
+            @Value("${security.jwt.verification.clock-skew:30s}") Duration clockSkew,
+            @Value("${security.jwt.verification.url-patterns:/api/*}") String[] urlPatterns) {
+        FilterRegistrationBean<JwtVerificationFilter> registration =
+                new FilterRegistrationBean<>(new JwtVerificationFilter(jwksKeySet, clockSkew, "account-service"));
+        registration.addUrlPatterns(urlPatterns);
+        return registration;
+    }
+}
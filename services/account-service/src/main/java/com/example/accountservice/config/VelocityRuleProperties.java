@@ -0,0 +1,53 @@
+package com.example.accountservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Fraud rules evaluated in-process, bound from {@code fraudcheck.local.*}.
+ *
+ * @param slot        width of one counter slot; windows are rounded up to whole slots
+ * @param maxAccounts accounts whose counters are kept in memory at once
+ * @param rules       rules checked on every deposit or withdrawal
+ */
+@ConfigurationProperties(prefix = "fraudcheck.local")
+public record VelocityRuleProperties(
+        @DefaultValue("10s") Duration slot,
+        @DefaultValue("100000") long maxAccounts,
+        List<Rule> rules
+) {
+
+    public VelocityRuleProperties {
+        rules = rules != null ? List.copyOf(rules) : List.of();
+    }
+
+    /**
+     * One limit on an operation ({@code deposit} or {@code withdraw}). Unset limits are
+     * not checked; counts and totals include the operation being checked.
+     *
+     * @param maxCount  most operations allowed within {@code window}
+     * @param maxTotal  largest sum of amounts allowed within {@code window}
+     * @param maxAmount largest single amount
+     * @param action    what happens when a limit is exceeded
+     */
+    public record Rule(
+            String operation,
+            @DefaultValue("1h") Duration window,
+            Long maxCount,
+            BigDecimal maxTotal,
+            BigDecimal maxAmount,
+            @DefaultValue("REMOTE") Action action
+    ) {
+    }
+
+    public enum Action {
+        /** reject without asking fraud-service */
+        DENY,
+        /** let fraud-service decide */
+        REMOTE
+    }
+}
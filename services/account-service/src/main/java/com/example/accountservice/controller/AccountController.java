@@ -3,6 +3,8 @@ package com.example.accountservice.controller;
 import com.example.accountservice.dto.AccountRequest;
 import com.example.accountservice.dto.AccountResponse;
 import com.example.accountservice.dto.TransactionRequest;
+import com.example.accountservice.dto.TransferRequest;
+import com.example.accountservice.dto.TransferResponse;
 import com.example.accountservice.service.AccountService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -43,14 +45,27 @@ public class AccountController {
     @Operation(summary = "Depositar valor em uma conta")
     @PostMapping("/{accountNumber}/deposit")
     public ResponseEntity<AccountResponse> deposit(@PathVariable String accountNumber,
-                                                  @Valid @RequestBody TransactionRequest request) {
-        return ResponseEntity.ok(accountService.deposit(accountNumber, request));
+                                                  @Valid @RequestBody TransactionRequest request,
+                                                  @RequestHeader(value = "Idempotency-Key", required = false)
+                                                  String idempotencyKey) {
+        return ResponseEntity.ok(accountService.deposit(accountNumber, request, idempotencyKey));
     }
 
     @Operation(summary = "Sacar valor de uma conta")
     @PostMapping("/{accountNumber}/withdraw")
     public ResponseEntity<AccountResponse> withdraw(@PathVariable String accountNumber,
-                                                   @Valid @RequestBody TransactionRequest request) {
-        return ResponseEntity.ok(accountService.withdraw(accountNumber, request));
+                                                   @Valid @RequestBody TransactionRequest request,
+                                                   @RequestHeader(value = "Idempotency-Key", required = false)
+                                                   String idempotencyKey) {
+        return ResponseEntity.ok(accountService.withdraw(accountNumber, request, idempotencyKey));
+    }
+
+    @Operation(summary = "Transferir valor entre duas contas em uma única transação")
+    @PostMapping("/{accountNumber}/transfer")
+    public ResponseEntity<TransferResponse> transfer(@PathVariable String accountNumber,
+                                                     @Valid @RequestBody TransferRequest request,
+                                                     @RequestHeader(value = "Idempotency-Key", required = false)
+                                                     String idempotencyKey) {
+        return ResponseEntity.ok(accountService.transfer(accountNumber, request, idempotencyKey));
     }
 }
\ No newline at end of file
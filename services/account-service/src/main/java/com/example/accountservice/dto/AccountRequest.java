@@ -1,6 +1,7 @@
 package com.example.accountservice.dto;
 
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -21,6 +22,7 @@ public class AccountRequest {
 
     
     @DecimalMin(value = "0.00", inclusive = true, message = "O saldo inicial não pode ser negativo")
+    @Digits(integer = 16, fraction = 2, message = "O saldo inicial deve ter no máximo 2 casas decimais")
     private BigDecimal initialBalance;
 
     public String getAccountNumber() {
@@ -1,16 +1,17 @@
 package com.example.accountservice.dto;
 
-import java.math.BigDecimal;
+import com.example.accountservice.model.Money;
+
 import java.time.LocalDateTime;
 
 
 public class AccountResponse {
     private String accountNumber;
     private String ownerName;
-    private BigDecimal balance;
+    private Money balance;
     private LocalDateTime createdAt;
 
-    public AccountResponse(String accountNumber, String ownerName, BigDecimal balance, LocalDateTime createdAt) {
+    public AccountResponse(String accountNumber, String ownerName, Money balance, LocalDateTime createdAt) {
         this.accountNumber = accountNumber;
         this.ownerName = ownerName;
         this.balance = balance;
@@ -25,7 +26,7 @@ public class AccountResponse {
         return ownerName;
     }
 
-    public BigDecimal getBalance() {
+    public Money getBalance() {
         return balance;
     }
 
@@ -1,6 +1,7 @@
 package com.example.accountservice.dto;
 
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
 
@@ -8,6 +9,7 @@ import java.math.BigDecimal;
 public class TransactionRequest {
     @NotNull(message = "O valor é obrigatório")
     @DecimalMin(value = "0.01", inclusive = true, message = "O valor deve ser maior que zero")
+    @Digits(integer = 16, fraction = 2, message = "O valor deve ter no máximo 2 casas decimais")
     private BigDecimal amount;
 
     public BigDecimal getAmount() {
@@ -0,0 +1,34 @@
+package com.example.accountservice.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import java.math.BigDecimal;
+
+
+public class TransferRequest {
+    @NotBlank(message = "A conta de destino é obrigatória")
+    private String targetAccountNumber;
+
+    @NotNull(message = "O valor é obrigatório")
+    @DecimalMin(value = "0.01", inclusive = true, message = "O valor deve ser maior que zero")
+    @Digits(integer = 16, fraction = 2, message = "O valor deve ter no máximo 2 casas decimais")
+    private BigDecimal amount;
+
+    public String getTargetAccountNumber() {
+        return targetAccountNumber;
+    }
+
+    public void setTargetAccountNumber(String targetAccountNumber) {
+        this.targetAccountNumber = targetAccountNumber;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.accountservice.dto;
+
+
+public class TransferResponse {
+    private AccountResponse source;
+    private AccountResponse target;
+
+    public TransferResponse(AccountResponse source, AccountResponse target) {
+        this.source = source;
+        this.target = target;
+    }
+
+    public AccountResponse getSource() {
+        return source;
+    }
+
+    public AccountResponse getTarget() {
+        return target;
+    }
+}
@@ -5,7 +5,6 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 
@@ -30,9 +29,17 @@ public class Account {
     @Column(name = "owner_name", nullable = false, length = 120)
     private String ownerName;
 
-    
+    // balance as of checkpointEntryId; the current balance adds the ledger entries after it
     @Column(nullable = false, precision = 19, scale = 2)
-    private BigDecimal balance;
+    private Money balance;
+
+    // last ledger entry folded into balance; null before the first checkpoint
+    @Column(name = "checkpoint_entry_id")
+    private Long checkpointEntryId;
+
+    
+    @Column(name = "checkpoint_at")
+    private LocalDateTime checkpointAt;
 
     
     @Column(name = "created_at", nullable = false)
@@ -47,7 +54,7 @@ public class Account {
     public void prePersist() {
         this.createdAt = LocalDateTime.now();
         if (balance == null) {
-            this.balance = BigDecimal.ZERO;
+            this.balance = Money.ZERO;
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,64 @@
+package com.example.accountservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+
+/**
+ * One balance movement. Rows are only ever inserted; the balance of an account is
+ * its last checkpoint plus the signed amounts of the entries after it.
+ */
+@Entity
+@Table(name = "ledger_entries", indexes = {
+        @Index(name = "idx_ledger_entries_account_id", columnList = "account_id, id"),
+        // per account: both legs of a transfer carry the operation's key
+        @Index(name = "uk_ledger_entries_account_idempotency_key", columnList = "account_id, idempotency_key",
+                unique = true)
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerEntry {
+
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    
+    @Column(name = "account_id", nullable = false, updatable = false)
+    private Long accountId;
+
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false, length = 20)
+    private LedgerEntryType type;
+
+    // positive for credits, negative for debits
+    @Column(nullable = false, updatable = false, precision = 19, scale = 2)
+    private Money amount;
+
+    
+    @Column(name = "counterparty_account_number", updatable = false, length = 50)
+    private String counterpartyAccountNumber;
+
+    
+    // set when the caller sent an Idempotency-Key, so a retried deposit or withdrawal is applied once
+    @Column(name = "idempotency_key", updatable = false, length = 100)
+    private String idempotencyKey;
+
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    
+    @PrePersist
+    public void prePersist() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
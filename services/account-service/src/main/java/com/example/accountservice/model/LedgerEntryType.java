@@ -0,0 +1,10 @@
+package com.example.accountservice.model;
+
+
+public enum LedgerEntryType {
+    OPENING,
+    DEPOSIT,
+    WITHDRAWAL,
+    TRANSFER_IN,
+    TRANSFER_OUT
+}
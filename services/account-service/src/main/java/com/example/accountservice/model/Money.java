@@ -0,0 +1,77 @@
+package com.example.accountservice.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+
+
+/**
+ * An amount in cents, the scale of the {@code numeric(19,2)} money columns.
+ * <p>
+ * Balance arithmetic on the deposit, withdrawal and transfer paths works on the
+ * {@code long} directly instead of allocating a {@link BigDecimal} per operation.
+ * Every operation is overflow-checked and throws {@link ArithmeticException} rather
+ * than wrapping, so amounts are limited to ±92,233,720,368,547,758.07. Conversion
+ * from {@link BigDecimal} is exact: an amount with more than two decimal places is
+ * rejected, never rounded. {@link BigDecimal} remains the representation at the
+ * edges: JSON (see {@link #toBigDecimal()}), the database (see {@link MoneyConverter})
+ * and the fraud service.
+ */
+public record Money(long cents) implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Money of(BigDecimal amount) {
+        try {
+            return new Money(amount.movePointRight(SCALE).longValueExact());
+        } catch (ArithmeticException ex) {
+            throw new IllegalArgumentException(
+                    "Valor deve ter no máximo " + SCALE + " casas decimais e caber em 64 bits: " + amount, ex);
+        }
+    }
+
+    public static Money parse(String amount) {
+        return of(new BigDecimal(amount));
+    }
+
+    public Money plus(Money other) {
+        return new Money(Math.addExact(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(cents, other.cents));
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(cents));
+    }
+
+    public int signum() {
+        return Long.signum(cents);
+    }
+
+    public boolean isLessThan(Money other) {
+        return cents < other.cents;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    /**
+     * Always with two decimal places, as the columns return it.
+     */
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
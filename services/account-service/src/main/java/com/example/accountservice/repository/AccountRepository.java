@@ -1,13 +1,50 @@
 package com.example.accountservice.repository;
 
 import com.example.accountservice.model.Account;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
     Optional<Account> findByAccountNumber(String accountNumber);
-}
\ No newline at end of file
+
+    /**
+     * Carrega a conta com SELECT ... FOR UPDATE, bloqueando a linha até o fim da transação.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.accountNumber = :accountNumber")
+    Optional<Account> findByAccountNumberForUpdate(@Param("accountNumber") String accountNumber);
+
+    /**
+     * Carrega a conta com SELECT ... FOR SHARE. Créditos concorrentes não se bloqueiam entre si,
+     * mas um checkpoint ou débito (FOR UPDATE) espera até que todos sejam confirmados.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select a from Account a where a.accountNumber = :accountNumber")
+    Optional<Account> findByAccountNumberForShare(@Param("accountNumber") String accountNumber);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.id = :id")
+    Optional<Account> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Contas com pelo menos {@code minEntries} lançamentos após o checkpoint. Cada conta
+     * lê no máximo {@code minEntries} linhas do índice (account_id, id), a partir do seu
+     * checkpoint, em vez de agrupar o ledger inteiro.
+     */
+    @Query(value = "select a.id from accounts a "
+            + "where (select count(*) from (select 1 from ledger_entries e "
+            + "where e.account_id = a.id and e.id > coalesce(a.checkpoint_entry_id, 0) "
+            + "limit :minEntries) pending) >= :minEntries "
+            + "order by a.id", nativeQuery = true)
+    List<Long> findAccountsDueForCheckpoint(@Param("minEntries") long minEntries, Pageable pageable);
+}
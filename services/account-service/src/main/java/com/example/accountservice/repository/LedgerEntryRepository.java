@@ -0,0 +1,25 @@
+package com.example.accountservice.repository;
+
+import com.example.accountservice.model.LedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+
+    /**
+     * Sum in cents of the entries after {@code afterId}, computed in the database so
+     * no entry is loaded; see {@link com.example.accountservice.model.Money}.
+     */
+    @Query(value = "select cast(coalesce(sum(amount), 0) * 100 as bigint) from ledger_entries "
+            + "where account_id = :accountId and id > :afterId", nativeQuery = true)
+    long sumCentsAfter(@Param("accountId") Long accountId, @Param("afterId") long afterId);
+
+    boolean existsByIdempotencyKey(String idempotencyKey);
+
+    @Query("select max(e.id) from LedgerEntry e where e.accountId = :accountId and e.id > :afterId")
+    Long findMaxIdAfter(@Param("accountId") Long accountId, @Param("afterId") long afterId);
+}
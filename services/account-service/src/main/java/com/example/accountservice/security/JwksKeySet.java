@@ -0,0 +1,116 @@
+package com.example.accountservice.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory copy of auth-service's JWK Set, so tokens are verified without a
+ * network call per request.
+ * <p>
+ * The set is reloaded in the background every {@code refresh-interval-ms}. A
+ * token signed with a key that is not in the set yet (auth-service rotated its
+ * key) triggers an immediate reload, but at most once per
+ * {@code min-refresh-interval}, so a flood of forged kids cannot turn into a
+ * flood of requests to auth-service. A failed reload keeps the previous keys.
+ * <p>
+ * account-service and transaction-service carry the same copy of this class, apart
+ * from the package; a change to one must be made to the other.
+ */
+public class JwksKeySet {
+
+    private static final Logger log = LoggerFactory.getLogger(JwksKeySet.class);
+
+    private final RestTemplate restTemplate;
+    private final String jwksUri;
+    private final long minRefreshIntervalNanos;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private volatile long lastRefresh;
+
+    public JwksKeySet(RestTemplate restTemplate, String jwksUri, Duration minRefreshInterval) {
+        this.restTemplate = restTemplate;
+        this.jwksUri = jwksUri;
+        this.minRefreshIntervalNanos = minRefreshInterval.toNanos();
+        this.lastRefresh = System.nanoTime() - minRefreshIntervalNanos;
+    }
+
+    /**
+     * Returns the key for {@code kid}, or {@code null} if auth-service does not publish it.
+     */
+    public PublicKey find(String kid) {
+        if (kid == null) {
+            return null;
+        }
+        PublicKey key = keys.get(kid);
+        if (key != null) {
+            return key;
+        }
+        // requests arriving while another one reloads do not wait for it
+        if (System.nanoTime() - lastRefresh >= minRefreshIntervalNanos && refreshLock.tryLock()) {
+            try {
+                if (System.nanoTime() - lastRefresh >= minRefreshIntervalNanos) {
+                    refresh();
+                }
+            } finally {
+                refreshLock.unlock();
+            }
+        }
+        return keys.get(kid);
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.verification.refresh-interval-ms:300000}")
+    public void refresh() {
+        lastRefresh = System.nanoTime();
+        try {
+            JsonNode jwks = restTemplate.getForObject(jwksUri, JsonNode.class);
+            Map<String, PublicKey> loaded = parse(jwks);
+            if (!loaded.keySet().equals(keys.keySet())) {
+                log.info("Token verification keys updated: {}", loaded.keySet());
+            }
+            keys = Map.copyOf(loaded);
+        } catch (RestClientException | IllegalArgumentException ex) {
+            log.warn("Could not load keys from {}: {}", jwksUri, ex.getMessage());
+        }
+    }
+
+    private static Map<String, PublicKey> parse(JsonNode jwks) {
+        if (jwks == null || !jwks.path("keys").isArray()) {
+            throw new IllegalArgumentException("response has no keys field");
+        }
+        Map<String, PublicKey> parsed = new HashMap<>();
+        for (JsonNode jwk : jwks.get("keys")) {
+            // only RSA signing keys; anything else is skipped rather than failing the whole set
+            if (!"RSA".equals(jwk.path("kty").asText()) || !jwk.hasNonNull("kid")
+                    || !"sig".equals(jwk.path("use").asText("sig"))) {
+                continue;
+            }
+            try {
+                RSAPublicKeySpec spec = new RSAPublicKeySpec(unsigned(jwk.path("n").asText()),
+                        unsigned(jwk.path("e").asText()));
+                parsed.put(jwk.get("kid").asText(), KeyFactory.getInstance("RSA").generatePublic(spec));
+            } catch (GeneralSecurityException | IllegalArgumentException ex) {
+                log.warn("Skipping key {}: {}", jwk.get("kid").asText(), ex.getMessage());
+            }
+        }
+        return parsed;
+    }
+
+    private static BigInteger unsigned(String base64Url) {
+        return new BigInteger(1, Base64.getUrlDecoder().decode(base64Url));
+    }
+}
@@ -3,30 +3,67 @@ package com.example.accountservice.service;
 import com.example.accountservice.dto.AccountRequest;
 import com.example.accountservice.dto.AccountResponse;
 import com.example.accountservice.dto.TransactionRequest;
+import com.example.accountservice.dto.TransferRequest;
+import com.example.accountservice.dto.TransferResponse;
 import com.example.accountservice.exception.AccountNotFoundException;
 import com.example.accountservice.exception.InsufficientFundsException;
 import com.example.accountservice.model.Account;
+import com.example.accountservice.model.LedgerEntry;
+import com.example.accountservice.model.LedgerEntryType;
+import com.example.accountservice.model.Money;
 import com.example.accountservice.repository.AccountRepository;
+import com.example.accountservice.repository.LedgerEntryRepository;
 import io.micrometer.core.annotation.Counted;
 import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.math.BigDecimal;
+import java.util.Optional;
 
 
+/**
+ * Balances are kept in the append-only ledger: deposits, withdrawals and transfers
+ * insert {@link LedgerEntry} rows and never update the account. The current balance
+ * is {@link Account#getBalance()} (the last checkpoint, see {@link LedgerCheckpointService})
+ * plus the entries recorded after it.
+ * <p>
+ * Credits hold a shared lock on the account row while inserting, so they never wait
+ * on each other; debits and checkpoints take an exclusive lock, which guarantees they
+ * see every committed entry and no in-flight one.
+ * <p>
+ * Amounts are converted to {@link Money} once on entry, so the balance arithmetic
+ * below does not allocate a {@code BigDecimal} per step.
+ * <p>
+ * A deposit, withdrawal or transfer sent with an idempotency key stores it on its
+ * entries; a repeated call with the same key appends nothing and returns the current
+ * balances, so callers can safely retry one whose outcome they never learned.
+ */
 @Service
 public class AccountService {
 
     private static final Logger log = LoggerFactory.getLogger(AccountService.class);
 
     private final AccountRepository accountRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
     private final FraudCheckClient fraudCheckClient;
+    private final BalanceCache balanceCache;
+    private final TransactionTemplate readOnlyTransaction;
 
-    public AccountService(AccountRepository accountRepository, FraudCheckClient fraudCheckClient) {
+    public AccountService(AccountRepository accountRepository,
+                          LedgerEntryRepository ledgerEntryRepository,
+                          FraudCheckClient fraudCheckClient,
+                          BalanceCache balanceCache,
+                          PlatformTransactionManager transactionManager) {
         this.accountRepository = accountRepository;
+        this.ledgerEntryRepository = ledgerEntryRepository;
         this.fraudCheckClient = fraudCheckClient;
+        this.balanceCache = balanceCache;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
     
@@ -34,66 +71,203 @@ public class AccountService {
     @Counted(value = "account.create.count", description = "Número de contas criadas")
     @Transactional
     public AccountResponse createAccount(AccountRequest request) {
-        BigDecimal initial = request.getInitialBalance() != null ? request.getInitialBalance() : BigDecimal.ZERO;
+        Money initial = request.getInitialBalance() != null ? Money.of(request.getInitialBalance()) : Money.ZERO;
         Account account = Account.builder()
                 .accountNumber(request.getAccountNumber())
                 .ownerName(request.getOwnerName())
-                .balance(initial)
+                .balance(Money.ZERO)
                 .build();
         Account saved = accountRepository.save(account);
-        log.info("Conta {} criada para {} com saldo inicial {}", saved.getAccountNumber(), saved.getOwnerName(), saved.getBalance());
-        return toResponse(saved);
+        if (initial.signum() > 0) {
+            append(saved, LedgerEntryType.OPENING, initial, null);
+        }
+        log.info("Conta {} criada para {} com saldo inicial {}", saved.getAccountNumber(), saved.getOwnerName(), initial);
+        return toResponse(saved, initial);
     }
 
     
     @Timed(value = "account.get.time", description = "Tempo gasto para buscar conta")
     @Counted(value = "account.get.count", description = "Número de buscas de conta")
-    @Transactional(readOnly = true)
     public AccountResponse getAccountByNumber(String accountNumber) {
-        return toResponse(findOrThrow(accountNumber));
+        // a hit is answered without opening a transaction or taking a connection from the pool
+        Optional<AccountResponse> cached = balanceCache.get(accountNumber);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        return readOnlyTransaction.execute(status -> {
+            Account account = findOrThrow(accountNumber);
+            // read the head first: if an entry commits in between, the balance is newer than its version, never older
+            long head = ledgerHead(account);
+            AccountResponse response = toResponse(account, currentBalance(account));
+            balanceCache.put(accountNumber, response, head);
+            return response;
+        });
     }
 
     
     @Timed(value = "account.deposit.time", description = "Tempo gasto para depositar em uma conta")
     @Counted(value = "account.deposit.count", description = "Número de depósitos realizados")
     @Transactional
-    public AccountResponse deposit(String accountNumber, TransactionRequest request) {
-        if (request.getAmount() == null || request.getAmount().signum() <= 0) {
-            throw new IllegalArgumentException("Valor do depósito deve ser maior que zero");
+    public AccountResponse deposit(String accountNumber, TransactionRequest request, String idempotencyKey) {
+        Money amount = positiveAmount(request.getAmount(), "Valor do depósito deve ser maior que zero");
+        if (alreadyApplied(idempotencyKey)) {
+            return replay(findOrThrow(accountNumber), idempotencyKey);
         }
-        Account account = findOrThrow(accountNumber);
-        // call fraud service before processing deposit
-        boolean allowed = fraudCheckClient.validateDeposit(accountNumber, request.getAmount());
+        // call fraud service before processing deposit, and before taking the row lock
+        boolean allowed = fraudCheckClient.validateDeposit(accountNumber, amount);
         if (!allowed) {
             throw new IllegalStateException("Depósito recusado pelo serviço de fraude");
         }
-        account.setBalance(account.getBalance().add(request.getAmount()));
-        // flush to DB so subsequent reads see updated balance
-        accountRepository.save(account);
-        log.info("Depositando {} na conta {}. Novo saldo: {}", request.getAmount(), accountNumber, account.getBalance());
-        return toResponse(account);
+        // a keyed deposit locks exclusively, so a concurrent retry of the same key waits and then sees its entry
+        Account account = idempotencyKey != null ? lockOrThrow(accountNumber) : lockSharedOrThrow(accountNumber);
+        if (alreadyApplied(idempotencyKey)) {
+            return replay(account, idempotencyKey);
+        }
+        append(account, LedgerEntryType.DEPOSIT, amount, null, idempotencyKey);
+        Money balance = currentBalance(account);
+        // concurrent credits do not see each other, so this balance may already be stale for the cache
+        balanceCache.evictAfterCommit(accountNumber);
+        log.info("Depositando {} na conta {}. Novo saldo: {}", amount, accountNumber, balance);
+        return toResponse(account, balance);
     }
 
     
     @Timed(value = "account.withdraw.time", description = "Tempo gasto para sacar de uma conta")
     @Counted(value = "account.withdraw.count", description = "Número de saques realizados")
     @Transactional
-    public AccountResponse withdraw(String accountNumber, TransactionRequest request) {
-        if (request.getAmount() == null || request.getAmount().signum() <= 0) {
-            throw new IllegalArgumentException("Valor do saque deve ser maior que zero");
+    public AccountResponse withdraw(String accountNumber, TransactionRequest request, String idempotencyKey) {
+        Money amount = positiveAmount(request.getAmount(), "Valor do saque deve ser maior que zero");
+        if (alreadyApplied(idempotencyKey)) {
+            return replay(findOrThrow(accountNumber), idempotencyKey);
+        }
+        boolean allowed = fraudCheckClient.validateWithdrawal(accountNumber, amount);
+        if (!allowed) {
+            throw new IllegalStateException("Saque recusado pelo serviço de fraude");
         }
-        Account account = findOrThrow(accountNumber);
-        if (account.getBalance().compareTo(request.getAmount()) < 0) {
+        Account account = lockOrThrow(accountNumber);
+        if (alreadyApplied(idempotencyKey)) {
+            return replay(account, idempotencyKey);
+        }
+        Money balance = currentBalance(account);
+        if (balance.isLessThan(amount)) {
             throw new InsufficientFundsException("Saldo insuficiente para saque");
         }
-        boolean allowed = fraudCheckClient.validateWithdrawal(accountNumber, request.getAmount());
+        LedgerEntry entry = append(account, LedgerEntryType.WITHDRAWAL, amount.negate(), null, idempotencyKey);
+        balance = balance.minus(amount);
+        AccountResponse response = toResponse(account, balance);
+        // exact under the exclusive lock, so the cache can be updated rather than dropped
+        balanceCache.putAfterCommit(accountNumber, response, entry.getId());
+        log.info("Sacando {} da conta {}. Novo saldo: {}", amount, accountNumber, balance);
+        return response;
+    }
+
+    
+    @Timed(value = "account.transfer.time", description = "Tempo gasto para transferir entre contas")
+    @Counted(value = "account.transfer.count", description = "Número de transferências realizadas")
+    @Transactional
+    public TransferResponse transfer(String sourceAccountNumber, TransferRequest request, String idempotencyKey) {
+        Money amount = positiveAmount(request.getAmount(), "Valor da transferência deve ser maior que zero");
+        String targetAccountNumber = request.getTargetAccountNumber();
+        if (targetAccountNumber == null || targetAccountNumber.equals(sourceAccountNumber)) {
+            throw new IllegalArgumentException("Conta de origem e destino devem ser diferentes");
+        }
+        if (alreadyApplied(idempotencyKey)) {
+            return new TransferResponse(replay(findOrThrow(sourceAccountNumber), idempotencyKey),
+                    replay(findOrThrow(targetAccountNumber), idempotencyKey));
+        }
+        // fraud check before taking row locks, so the remote call never runs while they are held
+        boolean allowed = fraudCheckClient.validateWithdrawal(sourceAccountNumber, amount);
         if (!allowed) {
-            throw new IllegalStateException("Saque recusado pelo serviço de fraude");
+            throw new IllegalStateException("Transferência recusada pelo serviço de fraude");
+        }
+        // always lock in account number order: two opposite transfers wait on each other instead of deadlocking
+        boolean sourceFirst = sourceAccountNumber.compareTo(targetAccountNumber) < 0;
+        Account first = lockOrThrow(sourceFirst ? sourceAccountNumber : targetAccountNumber);
+        Account second = lockOrThrow(sourceFirst ? targetAccountNumber : sourceAccountNumber);
+        Account source = sourceFirst ? first : second;
+        Account target = sourceFirst ? second : first;
+        // a concurrent retry of the same key held the locks first
+        if (alreadyApplied(idempotencyKey)) {
+            return new TransferResponse(replay(source, idempotencyKey), replay(target, idempotencyKey));
+        }
+
+        Money sourceBalance = currentBalance(source);
+        if (sourceBalance.isLessThan(amount)) {
+            throw new InsufficientFundsException("Saldo insuficiente para transferência");
+        }
+        LedgerEntry debit = append(source, LedgerEntryType.TRANSFER_OUT, amount.negate(), targetAccountNumber,
+                idempotencyKey);
+        LedgerEntry credit = append(target, LedgerEntryType.TRANSFER_IN, amount, sourceAccountNumber, idempotencyKey);
+        sourceBalance = sourceBalance.minus(amount);
+        Money targetBalance = currentBalance(target);
+        AccountResponse sourceResponse = toResponse(source, sourceBalance);
+        AccountResponse targetResponse = toResponse(target, targetBalance);
+        balanceCache.putAfterCommit(sourceAccountNumber, sourceResponse, debit.getId());
+        balanceCache.putAfterCommit(targetAccountNumber, targetResponse, credit.getId());
+        log.info("Transferindo {} da conta {} para a conta {}. Novos saldos: {} / {}",
+                amount, sourceAccountNumber, targetAccountNumber, sourceBalance, targetBalance);
+        return new TransferResponse(sourceResponse, targetResponse);
+    }
+
+    
+    Money currentBalance(Account account) {
+        long after = account.getCheckpointEntryId() != null ? account.getCheckpointEntryId() : 0L;
+        return account.getBalance().plus(new Money(ledgerEntryRepository.sumCentsAfter(account.getId(), after)));
+    }
+
+    
+    private static Money positiveAmount(BigDecimal amount, String message) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new IllegalArgumentException(message);
         }
-        account.setBalance(account.getBalance().subtract(request.getAmount()));
-        accountRepository.save(account);
-        log.info("Sacando {} da conta {}. Novo saldo: {}", request.getAmount(), accountNumber, account.getBalance());
-        return toResponse(account);
+        return Money.of(amount);
+    }
+
+    
+    private long ledgerHead(Account account) {
+        long after = account.getCheckpointEntryId() != null ? account.getCheckpointEntryId() : 0L;
+        Long head = ledgerEntryRepository.findMaxIdAfter(account.getId(), after);
+        return head != null ? head : after;
+    }
+
+    
+    private boolean alreadyApplied(String idempotencyKey) {
+        return idempotencyKey != null && ledgerEntryRepository.existsByIdempotencyKey(idempotencyKey);
+    }
+
+    
+    private AccountResponse replay(Account account, String idempotencyKey) {
+        log.info("Operação {} já aplicada à conta {}; repetição ignorada", idempotencyKey, account.getAccountNumber());
+        return toResponse(account, currentBalance(account));
+    }
+
+    
+    private LedgerEntry append(Account account, LedgerEntryType type, Money amount, String counterparty) {
+        return append(account, type, amount, counterparty, null);
+    }
+
+    
+    private LedgerEntry append(Account account, LedgerEntryType type, Money amount, String counterparty,
+                               String idempotencyKey) {
+        return ledgerEntryRepository.save(LedgerEntry.builder()
+                .accountId(account.getId())
+                .type(type)
+                .amount(amount)
+                .counterpartyAccountNumber(counterparty)
+                .idempotencyKey(idempotencyKey)
+                .build());
+    }
+
+    
+    private Account lockOrThrow(String accountNumber) {
+        return accountRepository.findByAccountNumberForUpdate(accountNumber)
+                .orElseThrow(() -> new AccountNotFoundException("Conta não encontrada: " + accountNumber));
+    }
+
+    
+    private Account lockSharedOrThrow(String accountNumber) {
+        return accountRepository.findByAccountNumberForShare(accountNumber)
+                .orElseThrow(() -> new AccountNotFoundException("Conta não encontrada: " + accountNumber));
     }
 
     
@@ -103,12 +277,12 @@ public class AccountService {
     }
 
     
-    private AccountResponse toResponse(Account account) {
+    private AccountResponse toResponse(Account account, Money balance) {
         return new AccountResponse(
                 account.getAccountNumber(),
                 account.getOwnerName(),
-                account.getBalance(),
+                balance,
                 account.getCreatedAt()
         );
     }
-}
\ No newline at end of file
+}
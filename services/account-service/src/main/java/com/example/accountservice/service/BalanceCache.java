@@ -0,0 +1,95 @@
+package com.example.accountservice.service;
+
+import com.example.accountservice.dto.AccountResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+
+/**
+ * Bounded local cache of account balances keyed by account number.
+ * <p>
+ * Each value carries the id of the newest ledger entry it reflects, and a write only
+ * replaces a value that is not newer, so late after-commit callbacks or slow reads
+ * never overwrite a fresher balance. Entries expire after {@code max-staleness},
+ * which bounds how long writes made by another instance can go unnoticed.
+ */
+@Component
+public class BalanceCache {
+
+    private final boolean enabled;
+    private final Cache<String, CachedBalance> balances;
+
+    public BalanceCache(MeterRegistry meterRegistry,
+                        @Value("${balance.cache.enabled:true}") boolean enabled,
+                        @Value("${balance.cache.max-size:10000}") long maxSize,
+                        @Value("${balance.cache.max-staleness:5s}") Duration maxStaleness) {
+        this.enabled = enabled;
+        this.balances = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(maxStaleness)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, balances, "account.balance");
+    }
+
+    public Optional<AccountResponse> get(String accountNumber) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        CachedBalance cached = balances.getIfPresent(accountNumber);
+        return cached != null ? Optional.of(cached.response()) : Optional.empty();
+    }
+
+    /**
+     * Stores a balance read from the database, unless a newer one is already cached.
+     */
+    public void put(String accountNumber, AccountResponse response, long ledgerHead) {
+        if (!enabled) {
+            return;
+        }
+        balances.asMap().merge(accountNumber, new CachedBalance(response, ledgerHead),
+                (current, candidate) -> candidate.ledgerHead() >= current.ledgerHead() ? candidate : current);
+    }
+
+    /**
+     * Stores the balance once the surrounding transaction commits; a rollback leaves the cache untouched.
+     */
+    public void putAfterCommit(String accountNumber, AccountResponse response, long ledgerHead) {
+        afterCommit(() -> put(accountNumber, response, ledgerHead));
+    }
+
+    /**
+     * Drops the cached balance once the surrounding transaction commits.
+     */
+    public void evictAfterCommit(String accountNumber) {
+        afterCommit(() -> balances.invalidate(accountNumber));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record CachedBalance(AccountResponse response, long ledgerHead) {
+    }
+}
@@ -1,48 +1,243 @@
 package com.example.accountservice.service;
 
 import com.example.accountservice.client.FraudServiceFeignApi;
-import feign.FeignException;
+import com.example.accountservice.model.Money;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+
+/**
+ * Calls fraud-service through a circuit breaker and a bulkhead, hedging calls that
+ * outlive the observed p95 latency with a second request and taking whichever
+ * answers first.
+ * <p>
+ * Verdicts are cached for a short time per operation, account and amount bucket
+ * (the amount rounded up to {@code fraudcheck.cache.amount-bucket}), so a verdict
+ * may be reused for a slightly different amount in the same bucket. Fallbacks are
+ * never cached.
+ */
 @Component
 public class FeignFraudCheckClient implements FraudCheckClient {
 
     private static final Logger log = LoggerFactory.getLogger(FeignFraudCheckClient.class);
 
     private final FraudServiceFeignApi fraudServiceFeignApi;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
     private final boolean failOpen;
+    private final boolean cacheEnabled;
+    private final long amountBucketCents;
+    private final Duration hedgeMinDelay;
+    private final Cache<VerdictKey, Boolean> verdicts;
+    private final Timer callTimer;
+    private final Counter hedges;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
 
     public FeignFraudCheckClient(
             FraudServiceFeignApi fraudServiceFeignApi,
-            @Value("${fraudcheck.fail-open:false}") boolean failOpen
+            CircuitBreaker fraudServiceCircuitBreaker,
+            Bulkhead fraudServiceBulkhead,
+            MeterRegistry meterRegistry,
+            @Value("${fraudcheck.fail-open:false}") boolean failOpen,
+            @Value("${fraudcheck.cache.enabled:true}") boolean cacheEnabled,
+            @Value("${fraudcheck.cache.ttl:30s}") Duration cacheTtl,
+            @Value("${fraudcheck.cache.amount-bucket:10}") BigDecimal amountBucket,
+            @Value("${fraudcheck.hedge.min-delay:50ms}") Duration hedgeMinDelay
     ) {
         this.fraudServiceFeignApi = fraudServiceFeignApi;
+        this.circuitBreaker = fraudServiceCircuitBreaker;
+        this.bulkhead = fraudServiceBulkhead;
+        this.meterRegistry = meterRegistry;
         this.failOpen = failOpen;
+        this.cacheEnabled = cacheEnabled;
+        this.amountBucketCents = Money.of(amountBucket).cents();
+        this.hedgeMinDelay = hedgeMinDelay;
+
+        this.verdicts = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verdicts, "fraudcheck.verdict");
+        this.callTimer = Timer.builder("fraudcheck.call")
+                .description("Latency of a single request to fraud-service")
+                .publishPercentiles(0.95)
+                .register(meterRegistry);
+        this.hedges = Counter.builder("fraudcheck.hedged")
+                .description("Requests to fraud-service sent because the first one passed the p95 latency")
+                .register(meterRegistry);
     }
 
     @Override
-    public boolean validateDeposit(String accountNumber, BigDecimal amount) {
+    public boolean validateDeposit(String accountNumber, Money amount) {
         return callFraudService("deposit", accountNumber, amount);
     }
 
     @Override
-    public boolean validateWithdrawal(String accountNumber, BigDecimal amount) {
+    public boolean validateWithdrawal(String accountNumber, Money amount) {
         return callFraudService("withdraw", accountNumber, amount);
     }
 
-    private boolean callFraudService(String operation, String accountNumber, BigDecimal amount) {
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private boolean callFraudService(String operation, String accountNumber, Money amount) {
+        VerdictKey key = new VerdictKey(operation, accountNumber,
+                Math.ceilDiv(amount.cents(), amountBucketCents));
+        Boolean cached = cacheEnabled ? verdicts.getIfPresent(key) : null;
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            // taken before the breaker, so local saturation is never recorded as a fraud-service failure
+            bulkhead.acquirePermission();
+        } catch (BulkheadFullException ex) {
+            return fallback(operation, "bulkhead_full", ex, false);
+        }
         try {
-            Boolean allowed = fraudServiceFeignApi.validate(operation, accountNumber, amount);
+            Boolean allowed = circuitBreaker.executeCallable(() -> hedgedCall(operation, accountNumber, amount));
+            boolean verdict = allowed != null && allowed;
             log.debug("Fraud service responded {} for {} {}", allowed, operation, amount);
-            return allowed != null && allowed;
-        } catch (FeignException ex) {
+            if (cacheEnabled) {
+                verdicts.put(key, verdict);
+            }
+            return verdict;
+        } catch (CallNotPermittedException ex) {
+            // hedgedCall never ran, so the permit taken above was not handed to a request
+            bulkhead.onComplete();
+            return fallback(operation, "circuit_open", ex, false);
+        } catch (Exception ex) {
+            return fallback(operation, "error", ex, true);
+        }
+    }
+
+    /**
+     * Sends the request, on the bulkhead permit the caller already holds, and if no
+     * answer arrives within the hedge delay a second identical one. Fails only when
+     * every request sent has failed. Once the verdict is known any request still
+     * running is cancelled and its permit returned, so a slow loser does not hold
+     * bulkhead capacity until the Feign read timeout.
+     */
+    private Boolean hedgedCall(String operation, String accountNumber, Money amount) throws Exception {
+        CompletableFuture<Boolean> verdict = new CompletableFuture<>();
+        AtomicInteger inFlight = new AtomicInteger(1);
+        List<Attempt> attempts = new ArrayList<>(2);
+        attempts.add(send(verdict, inFlight, operation, accountNumber, amount));
+        try {
+            try {
+                return verdict.get(hedgeDelay().toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException slow) {
+                // only hedge with spare capacity, so hedges never crowd out first attempts
+                if (bulkhead.tryAcquirePermission()) {
+                    inFlight.incrementAndGet();
+                    hedges.increment();
+                    attempts.add(send(verdict, inFlight, operation, accountNumber, amount));
+                }
+            }
+            // bounded by the Feign read timeout of the requests in flight
+            return verdict.get();
+        } catch (ExecutionException ex) {
+            throw unwrap(ex);
+        } finally {
+            attempts.forEach(Attempt::cancel);
+        }
+    }
+
+    private Attempt send(CompletableFuture<Boolean> verdict, AtomicInteger inFlight,
+                         String operation, String accountNumber, Money amount) {
+        Attempt attempt = new Attempt();
+        attempt.future = executor.submit(() -> {
+            long start = System.nanoTime();
+            try {
+                verdict.complete(fraudServiceFeignApi.validate(operation, accountNumber, amount.toBigDecimal()));
+                callTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            } catch (RuntimeException ex) {
+                if (inFlight.decrementAndGet() == 0) {
+                    verdict.completeExceptionally(ex);
+                }
+            } finally {
+                attempt.release();
+            }
+        });
+        return attempt;
+    }
+
+    private Duration hedgeDelay() {
+        for (ValueAtPercentile percentile : callTimer.takeSnapshot().percentileValues()) {
+            long p95 = (long) percentile.value(TimeUnit.NANOSECONDS);
+            if (p95 > hedgeMinDelay.toNanos()) {
+                return Duration.ofNanos(p95);
+            }
+        }
+        return hedgeMinDelay;
+    }
+
+    private boolean fallback(String operation, String reason, Exception ex, boolean withStackTrace) {
+        meterRegistry.counter("fraudcheck.fallback", "reason", reason).increment();
+        if (withStackTrace) {
             log.error("Erro ao chamar serviço de fraude via Feign. Política failOpen={}", failOpen, ex);
-            return failOpen;
+        } else {
+            log.warn("Serviço de fraude indisponível ({}) para {}. Política failOpen={}", reason, operation, failOpen);
+        }
+        return failOpen;
+    }
+
+    private static Exception unwrap(ExecutionException ex) {
+        return ex.getCause() instanceof Exception cause ? cause : ex;
+    }
+
+    private record VerdictKey(String operation, String accountNumber, long amountBucket) {
+    }
+
+    /**
+     * One request to fraud-service and the bulkhead permit it holds, returned exactly
+     * once: when the request ends or when it is cancelled, whichever comes first.
+     */
+    private final class Attempt {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile Future<?> future;
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                bulkhead.onComplete();
+            }
+        }
+
+        void cancel() {
+            future.cancel(true);
+            release();
         }
     }
 }
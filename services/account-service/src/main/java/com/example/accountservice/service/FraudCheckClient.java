@@ -1,12 +1,12 @@
 package com.example.accountservice.service;
 
-import java.math.BigDecimal;
+import com.example.accountservice.model.Money;
 
 
 public interface FraudCheckClient {
     
-    boolean validateDeposit(String accountNumber, BigDecimal amount);
+    boolean validateDeposit(String accountNumber, Money amount);
 
     
-    boolean validateWithdrawal(String accountNumber, BigDecimal amount);
+    boolean validateWithdrawal(String accountNumber, Money amount);
 }
\ No newline at end of file
@@ -0,0 +1,91 @@
+package com.example.accountservice.service;
+
+import com.example.accountservice.model.Account;
+import com.example.accountservice.model.Money;
+import com.example.accountservice.repository.AccountRepository;
+import com.example.accountservice.repository.LedgerEntryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+
+/**
+ * Periodically folds ledger entries into {@link Account#getBalance()}, so a balance
+ * read never sums more than roughly {@code min-entries} rows.
+ * <p>
+ * Each account is checkpointed in its own short transaction under an exclusive row
+ * lock. Writers hold at least a shared lock on the same row until they commit, so
+ * once the lock is granted every entry for the account is committed and none can
+ * appear below the new checkpoint later.
+ */
+@Service
+public class LedgerCheckpointService {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerCheckpointService.class);
+
+    private final AccountRepository accountRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long minEntries;
+    private final int batchSize;
+
+    public LedgerCheckpointService(AccountRepository accountRepository,
+                                   LedgerEntryRepository ledgerEntryRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${ledger.checkpoint.min-entries:100}") long minEntries,
+                                   @Value("${ledger.checkpoint.batch-size:500}") int batchSize) {
+        this.accountRepository = accountRepository;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.minEntries = minEntries;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${ledger.checkpoint.interval-ms:60000}")
+    public void checkpointDueAccounts() {
+        List<Long> due = accountRepository.findAccountsDueForCheckpoint(minEntries, PageRequest.ofSize(batchSize));
+        for (Long accountId : due) {
+            try {
+                checkpoint(accountId);
+            } catch (RuntimeException ex) {
+                log.warn("Falha ao consolidar saldo da conta id {}", accountId, ex);
+            }
+        }
+        if (!due.isEmpty()) {
+            log.debug("Checkpoint de saldo concluído para {} contas", due.size());
+        }
+    }
+
+    /**
+     * Folds every entry after the current checkpoint into the account balance.
+     * Returns false when there was nothing to fold.
+     */
+    public boolean checkpoint(Long accountId) {
+        Boolean updated = transactionTemplate.execute(status -> {
+            Account account = accountRepository.findByIdForUpdate(accountId).orElse(null);
+            if (account == null) {
+                return false;
+            }
+            long after = account.getCheckpointEntryId() != null ? account.getCheckpointEntryId() : 0L;
+            Long lastEntryId = ledgerEntryRepository.findMaxIdAfter(accountId, after);
+            if (lastEntryId == null) {
+                return false;
+            }
+            Money delta = new Money(ledgerEntryRepository.sumCentsAfter(accountId, after));
+            account.setBalance(account.getBalance().plus(delta));
+            account.setCheckpointEntryId(lastEntryId);
+            account.setCheckpointAt(LocalDateTime.now());
+            accountRepository.save(account);
+            return true;
+        });
+        return Boolean.TRUE.equals(updated);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.accountservice.service;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+
+/**
+ * Operation count and amount total over a ring of fixed-width time slots.
+ * <p>
+ * Each slot is an immutable value replaced by compare-and-set, so concurrent
+ * updates never block or lose increments, and a slot from an earlier lap of the
+ * ring is reset by the first update that lands in it.
+ */
+final class SlidingWindowCounter {
+
+    private final AtomicReferenceArray<Slot> slots;
+
+    SlidingWindowCounter(int size) {
+        this.slots = new AtomicReferenceArray<>(size);
+    }
+
+    void add(long epoch, long count, long cents) {
+        int index = index(epoch);
+        while (true) {
+            Slot current = slots.get(index);
+            if (current != null && current.epoch() > epoch) {
+                // the ring has already moved past this slot
+                return;
+            }
+            Slot next = current != null && current.epoch() == epoch
+                    ? new Slot(epoch, current.count() + count, current.cents() + cents)
+                    : new Slot(epoch, count, cents);
+            if (slots.compareAndSet(index, current, next)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Takes back an earlier {@link #add}; does nothing once its slot has been reused.
+     */
+    void remove(long epoch, long count, long cents) {
+        int index = index(epoch);
+        while (true) {
+            Slot current = slots.get(index);
+            if (current == null || current.epoch() != epoch) {
+                return;
+            }
+            Slot next = new Slot(epoch, current.count() - count, current.cents() - cents);
+            if (slots.compareAndSet(index, current, next)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sums the {@code width} slots ending at {@code epoch}.
+     */
+    Totals sum(long epoch, int width) {
+        long count = 0;
+        long cents = 0;
+        for (long e = epoch - Math.min(width, slots.length()) + 1; e <= epoch; e++) {
+            Slot slot = slots.get(index(e));
+            if (slot != null && slot.epoch() == e) {
+                count += slot.count();
+                cents += slot.cents();
+            }
+        }
+        return new Totals(count, cents);
+    }
+
+    private int index(long epoch) {
+        return (int) Math.floorMod(epoch, (long) slots.length());
+    }
+
+    record Totals(long count, long cents) {
+    }
+
+    private record Slot(long epoch, long count, long cents) {
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.accountservice.service;
+
+import com.example.accountservice.config.VelocityRuleProperties;
+import com.example.accountservice.config.VelocityRuleProperties.Action;
+import com.example.accountservice.config.VelocityRuleProperties.Rule;
+import com.example.accountservice.model.Money;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Evaluates velocity and amount limits in-process and only asks fraud-service
+ * (through {@link FeignFraudCheckClient}) when a rule with action {@code REMOTE}
+ * is exceeded. Operations that exceed no rule are approved locally.
+ * <p>
+ * Counters are kept per operation and account in memory, so limits apply per
+ * instance. The operation being checked is counted before the rules are
+ * evaluated and taken back if it is rejected, which keeps concurrent checks on
+ * one account from all passing a limit only one of them fits under.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(prefix = "fraudcheck.local", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(VelocityRuleProperties.class)
+public class VelocityRuleFraudCheckClient implements FraudCheckClient {
+
+    private static final Logger log = LoggerFactory.getLogger(VelocityRuleFraudCheckClient.class);
+
+    private final FeignFraudCheckClient remote;
+    private final Clock clock;
+    private final long slotMillis;
+    private final int ringSize;
+    private final List<CompiledRule> rules;
+    private final Cache<CounterKey, SlidingWindowCounter> counters;
+    private final Map<Decision, DistributionSummary> decisionLatency = new EnumMap<>(Decision.class);
+
+    @Autowired
+    public VelocityRuleFraudCheckClient(FeignFraudCheckClient remote, VelocityRuleProperties properties,
+                                        MeterRegistry meterRegistry) {
+        this(remote, properties, meterRegistry, Clock.systemUTC());
+    }
+
+    VelocityRuleFraudCheckClient(FeignFraudCheckClient remote, VelocityRuleProperties properties,
+                                 MeterRegistry meterRegistry, Clock clock) {
+        this.remote = remote;
+        this.clock = clock;
+        this.slotMillis = properties.slot().toMillis();
+        this.rules = properties.rules().stream().map(rule -> compile(rule, slotMillis)).toList();
+        int widest = rules.stream().mapToInt(CompiledRule::windowSlots).max().orElse(1);
+        this.ringSize = widest + 1;
+        this.counters = Caffeine.newBuilder()
+                .maximumSize(properties.maxAccounts())
+                .expireAfterAccess(properties.slot().multipliedBy(ringSize))
+                .build();
+        for (Decision decision : Decision.values()) {
+            decisionLatency.put(decision, DistributionSummary.builder("fraudcheck.local.decision")
+                    .description("Time to evaluate local fraud rules, excluding any call to fraud-service")
+                    .baseUnit("microseconds")
+                    .tag("decision", decision.name().toLowerCase())
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry));
+        }
+        log.info("{} regras locais de fraude carregadas", rules.size());
+    }
+
+    @Override
+    public boolean validateDeposit(String accountNumber, Money amount) {
+        return check("deposit", accountNumber, amount);
+    }
+
+    @Override
+    public boolean validateWithdrawal(String accountNumber, Money amount) {
+        return check("withdraw", accountNumber, amount);
+    }
+
+    private boolean check(String operation, String accountNumber, Money amount) {
+        long start = System.nanoTime();
+        long cents = amount.cents();
+        long epoch = clock.millis() / slotMillis;
+        SlidingWindowCounter counter = counters.get(new CounterKey(operation, accountNumber),
+                key -> new SlidingWindowCounter(ringSize));
+        counter.add(epoch, 1, cents);
+
+        Decision decision = Decision.ALLOW;
+        for (CompiledRule rule : rules) {
+            if (rule.operation().equals(operation) && rule.exceeded(counter, epoch, cents)) {
+                if (rule.action() == Action.DENY) {
+                    decision = Decision.DENY;
+                    break;
+                }
+                decision = Decision.REMOTE;
+            }
+        }
+        decisionLatency.get(decision).record((System.nanoTime() - start) / 1_000.0);
+
+        boolean allowed = switch (decision) {
+            case ALLOW -> true;
+            case DENY -> false;
+            case REMOTE -> "deposit".equals(operation)
+                    ? remote.validateDeposit(accountNumber, amount)
+                    : remote.validateWithdrawal(accountNumber, amount);
+        };
+        if (!allowed) {
+            counter.remove(epoch, 1, cents);
+            log.debug("Operação {} de {} recusada para a conta {} ({})", operation, amount, accountNumber, decision);
+        }
+        return allowed;
+    }
+
+    private static CompiledRule compile(Rule rule, long slotMillis) {
+        if (!"deposit".equals(rule.operation()) && !"withdraw".equals(rule.operation())) {
+            throw new IllegalArgumentException("Operação inválida em fraudcheck.local.rules: " + rule.operation());
+        }
+        int windowSlots = (int) Math.max(1, (rule.window().toMillis() + slotMillis - 1) / slotMillis);
+        return new CompiledRule(rule.operation(), windowSlots,
+                rule.maxCount() != null ? rule.maxCount() : Long.MAX_VALUE,
+                rule.maxTotal() != null ? toCents(rule.maxTotal()) : Long.MAX_VALUE,
+                rule.maxAmount() != null ? toCents(rule.maxAmount()) : Long.MAX_VALUE,
+                rule.action());
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private enum Decision {
+        ALLOW, DENY, REMOTE
+    }
+
+    private record CounterKey(String operation, String accountNumber) {
+    }
+
+    private record CompiledRule(String operation, int windowSlots, long maxCount, long maxTotalCents,
+                                long maxAmountCents, Action action) {
+
+        boolean exceeded(SlidingWindowCounter counter, long epoch, long cents) {
+            if (cents > maxAmountCents) {
+                return true;
+            }
+            if (maxCount == Long.MAX_VALUE && maxTotalCents == Long.MAX_VALUE) {
+                return false;
+            }
+            SlidingWindowCounter.Totals totals = counter.sum(epoch, windowSlots);
+            return totals.count() > maxCount || totals.cents() > maxTotalCents;
+        }
+    }
+}
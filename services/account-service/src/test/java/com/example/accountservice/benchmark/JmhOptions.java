@@ -0,0 +1,31 @@
+package com.example.accountservice.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * Options shared by the JMH benchmarks: the GC profiler, so every score comes
+ * with its allocation rate ({@code gc.alloc.rate.norm} is bytes per operation),
+ * and a JSON result file per benchmark class under {@code jmh.resultDir}
+ * ({@code target/jmh} in the benchmark profile), to be compared between releases.
+ */
+final class JmhOptions {
+
+    private JmhOptions() {
+    }
+
+    static Options forBenchmark(Class<?> benchmark) {
+        File resultDir = new File(System.getProperty("jmh.resultDir", "target/jmh"));
+        resultDir.mkdirs();
+        return new OptionsBuilder()
+                .include(benchmark.getName())
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(new File(resultDir, benchmark.getSimpleName() + ".json").getPath())
+                .build();
+    }
+}
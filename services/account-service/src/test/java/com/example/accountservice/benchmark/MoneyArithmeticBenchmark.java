@@ -0,0 +1,142 @@
+package com.example.accountservice.benchmark;
+
+import com.example.accountservice.model.Money;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * The balance arithmetic of {@code AccountService} with {@link BigDecimal}, as it
+ * was, and with {@link Money}: a withdrawal (checkpoint plus ledger delta, the
+ * sufficient-funds check, the negated ledger amount and the new balance) and a
+ * transfer (the same on both accounts). The database and the fraud check are left
+ * out, so the scores are the arithmetic alone.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test -Dtest=MoneyArithmeticBenchmark}; the GC
+ * profiler reports bytes allocated per operation ({@code gc.alloc.rate.norm}) in
+ * {@code target/jmh/MoneyArithmeticBenchmark.json}.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyArithmeticBenchmark {
+
+    private static final int AMOUNTS = 1024;
+
+    // what the checkpoint column and the ledger sum return, varied so nothing is constant-folded
+    private final BigDecimal[] decimalCheckpoints = new BigDecimal[AMOUNTS];
+    private final BigDecimal[] decimalDeltas = new BigDecimal[AMOUNTS];
+    private final BigDecimal[] decimalAmounts = new BigDecimal[AMOUNTS];
+    private final Money[] moneyCheckpoints = new Money[AMOUNTS];
+    private final long[] centDeltas = new long[AMOUNTS];
+    private final Money[] moneyAmounts = new Money[AMOUNTS];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < AMOUNTS; i++) {
+            long checkpoint = random.nextLong(100_000, 10_000_000);
+            long delta = random.nextLong(-50_000, 50_000);
+            long amount = random.nextLong(1, 50_000);
+            decimalCheckpoints[i] = BigDecimal.valueOf(checkpoint, 2);
+            decimalDeltas[i] = BigDecimal.valueOf(delta, 2);
+            decimalAmounts[i] = BigDecimal.valueOf(amount, 2);
+            moneyCheckpoints[i] = new Money(checkpoint);
+            centDeltas[i] = delta;
+            moneyAmounts[i] = new Money(amount);
+        }
+    }
+
+    @Benchmark
+    public void withdrawBigDecimal(Blackhole blackhole) {
+        int i = nextIndex();
+        BigDecimal amount = decimalAmounts[i];
+        BigDecimal balance = decimalCheckpoints[i].add(decimalDeltas[i]);
+        if (amount.signum() > 0 && balance.compareTo(amount) >= 0) {
+            blackhole.consume(amount.negate());
+            balance = balance.subtract(amount);
+        }
+        blackhole.consume(balance);
+    }
+
+    @Benchmark
+    public void withdrawMoney(Blackhole blackhole) {
+        int i = nextIndex();
+        Money amount = moneyAmounts[i];
+        Money balance = moneyCheckpoints[i].plus(new Money(centDeltas[i]));
+        if (amount.signum() > 0 && !balance.isLessThan(amount)) {
+            blackhole.consume(amount.negate());
+            balance = balance.minus(amount);
+        }
+        blackhole.consume(balance);
+    }
+
+    @Benchmark
+    public void transferBigDecimal(Blackhole blackhole) {
+        int i = nextIndex();
+        int j = (i + 1) & (AMOUNTS - 1);
+        BigDecimal amount = decimalAmounts[i];
+        BigDecimal source = decimalCheckpoints[i].add(decimalDeltas[i]);
+        if (amount.signum() > 0 && source.compareTo(amount) >= 0) {
+            blackhole.consume(amount.negate());
+            source = source.subtract(amount);
+            blackhole.consume(decimalCheckpoints[j].add(decimalDeltas[j]).add(amount));
+        }
+        blackhole.consume(source);
+    }
+
+    @Benchmark
+    public void transferMoney(Blackhole blackhole) {
+        int i = nextIndex();
+        int j = (i + 1) & (AMOUNTS - 1);
+        Money amount = moneyAmounts[i];
+        Money source = moneyCheckpoints[i].plus(new Money(centDeltas[i]));
+        if (amount.signum() > 0 && !source.isLessThan(amount)) {
+            blackhole.consume(amount.negate());
+            source = source.minus(amount);
+            blackhole.consume(moneyCheckpoints[j].plus(new Money(centDeltas[j])).plus(amount));
+        }
+        blackhole.consume(source);
+    }
+
+    /**
+     * The cost paid at the edges: a JSON or column amount converted in and out.
+     */
+    @Benchmark
+    public BigDecimal roundTripConversion() {
+        return Money.of(decimalAmounts[nextIndex()]).toBigDecimal();
+    }
+
+    private int nextIndex() {
+        int i = next;
+        next = (i + 1) & (AMOUNTS - 1);
+        return i;
+    }
+
+    @Test
+    void runBenchmarks() throws RunnerException {
+        new Runner(JmhOptions.forBenchmark(MoneyArithmeticBenchmark.class)).run();
+    }
+}
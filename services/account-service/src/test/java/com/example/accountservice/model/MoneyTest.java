@@ -0,0 +1,51 @@
+package com.example.accountservice.model;
+
+import com.example.accountservice.dto.AccountResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    void of_convertsExactlyAndRejectsFractionsOfACent() {
+        assertThat(Money.of(new BigDecimal("12.3")).cents()).isEqualTo(1230L);
+        assertThat(Money.of(new BigDecimal("-0.01")).cents()).isEqualTo(-1L);
+        assertThat(Money.of(new BigDecimal("1E+2")).cents()).isEqualTo(10000L);
+
+        assertThatThrownBy(() -> Money.of(new BigDecimal("10.005")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Money.of(new BigDecimal("92233720368547758.08")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void arithmetic_throwsOnOverflowInsteadOfWrapping() {
+        Money max = new Money(Long.MAX_VALUE);
+
+        assertThat(Money.parse("10.00").minus(Money.parse("10.01"))).isEqualTo(Money.parse("-0.01"));
+        assertThatThrownBy(() -> max.plus(new Money(1))).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> new Money(Long.MIN_VALUE).negate()).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void toBigDecimal_alwaysHasTwoDecimalPlaces() {
+        assertThat(Money.parse("5").toBigDecimal()).isEqualTo(new BigDecimal("5.00"));
+        assertThat(new MoneyConverter().convertToDatabaseColumn(new Money(-150))).isEqualTo(new BigDecimal("-1.50"));
+    }
+
+    @Test
+    void json_isAPlainNumberWithoutPrecisionLoss() throws Exception {
+        AccountResponse response = new AccountResponse("123", "João", new Money(Long.MAX_VALUE), null);
+
+        assertThat(objectMapper.writeValueAsString(response)).contains("\"balance\":92233720368547758.07");
+        assertThat(objectMapper.readValue("0.10", Money.class)).isEqualTo(new Money(10));
+    }
+}
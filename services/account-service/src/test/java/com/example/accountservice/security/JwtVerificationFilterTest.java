@@ -0,0 +1,152 @@
+package com.example.accountservice.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.ResponseCreator;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class JwtVerificationFilterTest {
+
+    private static final String JWKS_URI = "http://auth-service/.well-known/jwks.json";
+
+    private final RestTemplate restTemplate = new RestTemplate();
+    private final MockRestServiceServer authService = MockRestServiceServer.bindTo(restTemplate).build();
+    private final KeyPair current = generate();
+
+    @Test
+    void passesValidToken_withClaimsAttribute_fetchingKeysOnce() throws Exception {
+        authService.expect(once(), requestTo(JWKS_URI)).andRespond(jwks(current));
+        JwtVerificationFilter filter = filter(Duration.ofMinutes(1));
+        String token = token(current, "kid-1", 60_000);
+
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest request = request(token);
+            MockFilterChain chain = new MockFilterChain();
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+            assertThat(chain.getRequest()).isSameAs(request);
+            assertThat(((Claims) request.getAttribute(JwtVerificationFilter.CLAIMS_ATTRIBUTE)).getSubject())
+                    .isEqualTo("cristian");
+        }
+        authService.verify();
+    }
+
+    @Test
+    void reloadsKeys_whenKidIsUnknown() throws Exception {
+        KeyPair rotated = generate();
+        authService.expect(requestTo(JWKS_URI)).andRespond(jwks(current));
+        authService.expect(requestTo(JWKS_URI)).andRespond(jwks(current, rotated));
+        JwtVerificationFilter filter = filter(Duration.ZERO);
+
+        assertThat(status(filter, token(current, "kid-1", 60_000))).isEqualTo(200);
+        assertThat(status(filter, token(rotated, "kid-2", 60_000))).isEqualTo(200);
+        authService.verify();
+    }
+
+    @Test
+    void reloadsAtMostOncePerInterval_forUnknownKids() throws Exception {
+        authService.expect(once(), requestTo(JWKS_URI)).andRespond(jwks(current));
+        JwtVerificationFilter filter = filter(Duration.ofMinutes(1));
+
+        assertThat(status(filter, token(generate(), "forged-1", 60_000))).isEqualTo(401);
+        assertThat(status(filter, token(generate(), "forged-2", 60_000))).isEqualTo(401);
+        authService.verify();
+    }
+
+    @Test
+    void rejectsMissingExpiredAndHmacTokens() throws Exception {
+        authService.expect(once(), requestTo(JWKS_URI)).andRespond(jwks(current));
+        JwtVerificationFilter filter = filter(Duration.ofMinutes(1));
+        String hmac = Jwts.builder()
+                .setHeaderParam("kid", "kid-1")
+                .setSubject("cristian")
+                .signWith(Keys.hmacShaKeyFor(current.getPublic().getEncoded()), SignatureAlgorithm.HS256)
+                .compact();
+
+        MockHttpServletResponse missing = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/accounts/1"), missing, new MockFilterChain());
+        assertThat(missing.getStatus()).isEqualTo(401);
+        assertThat(missing.getHeader("WWW-Authenticate")).startsWith("Bearer");
+        assertThat(status(filter, token(current, "kid-1", -60_000))).isEqualTo(401);
+        assertThat(status(filter, hmac)).isEqualTo(401);
+    }
+
+    private JwtVerificationFilter filter(Duration minRefreshInterval) {
+        return new JwtVerificationFilter(new JwksKeySet(restTemplate, JWKS_URI, minRefreshInterval), Duration.ZERO,
+                "account-service");
+    }
+
+    private static int status(JwtVerificationFilter filter, String token) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(token), response, new MockFilterChain());
+        return response.getStatus();
+    }
+
+    private static MockHttpServletRequest request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/accounts/1");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+
+    private static String token(KeyPair keyPair, String kid, long expiresInMs) {
+        return Jwts.builder()
+                .setHeaderParam("kid", kid)
+                .setSubject("cristian")
+                .claim("roles", "USER")
+                .setExpiration(new Date(System.currentTimeMillis() + expiresInMs))
+                .signWith(keyPair.getPrivate(), SignatureAlgorithm.RS256)
+                .compact();
+    }
+
+    private static ResponseCreator jwks(KeyPair... keyPairs) {
+        StringBuilder keys = new StringBuilder();
+        for (int i = 0; i < keyPairs.length; i++) {
+            RSAPublicKey key = (RSAPublicKey) keyPairs[i].getPublic();
+            keys.append(i == 0 ? "" : ",")
+                    .append("{\"kty\":\"RSA\",\"use\":\"sig\",\"alg\":\"RS256\",\"kid\":\"kid-").append(i + 1)
+                    .append("\",\"n\":\"").append(encode(key.getModulus()))
+                    .append("\",\"e\":\"").append(encode(key.getPublicExponent())).append("\"}");
+        }
+        return withSuccess("{\"keys\":[" + keys + "]}", MediaType.APPLICATION_JSON);
+    }
+
+    private static String encode(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static KeyPair generate() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return generator.generateKeyPair();
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -3,25 +3,37 @@ package com.example.accountservice.service;
 import com.example.accountservice.dto.AccountRequest;
 import com.example.accountservice.dto.AccountResponse;
 import com.example.accountservice.dto.TransactionRequest;
+import com.example.accountservice.dto.TransferRequest;
+import com.example.accountservice.dto.TransferResponse;
 import com.example.accountservice.exception.AccountNotFoundException;
 import com.example.accountservice.exception.InsufficientFundsException;
 import com.example.accountservice.model.Account;
+import com.example.accountservice.model.LedgerEntry;
+import com.example.accountservice.model.LedgerEntryType;
+import com.example.accountservice.model.Money;
 import com.example.accountservice.repository.AccountRepository;
+import com.example.accountservice.repository.LedgerEntryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 
@@ -31,27 +43,42 @@ class AccountServiceTest {
     @Mock
     private AccountRepository accountRepository;
 
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
     @Mock
     private FraudCheckClient fraudCheckClient;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private BalanceCache balanceCache = new BalanceCache(new SimpleMeterRegistry(), true, 100, Duration.ofMinutes(1));
+
     @InjectMocks
     private AccountService accountService;
 
     private Account existingAccount;
+    private long nextEntryId = 50L;
 
     @BeforeEach
     void setUp() {
+        lenient().when(ledgerEntryRepository.save(any(LedgerEntry.class))).thenAnswer(invocation -> {
+            LedgerEntry entry = invocation.getArgument(0);
+            entry.setId(nextEntryId++);
+            return entry;
+        });
         existingAccount = Account.builder()
                 .id(1L)
                 .accountNumber("123")
                 .ownerName("João")
-                .balance(new BigDecimal("100.00"))
+                .balance(Money.parse("100.00"))
                 .createdAt(LocalDateTime.now())
                 .build();
     }
 
     @Test
-    void createAccount_savesAndReturnsResponse() {
+    void createAccount_savesAndRecordsOpeningEntry() {
         AccountRequest request = new AccountRequest();
         request.setAccountNumber("789");
         request.setOwnerName("Maria");
@@ -60,7 +87,7 @@ class AccountServiceTest {
                 .id(2L)
                 .accountNumber("789")
                 .ownerName("Maria")
-                .balance(new BigDecimal("50.00"))
+                .balance(Money.ZERO)
                 .createdAt(LocalDateTime.now())
                 .build();
         when(accountRepository.save(any(Account.class))).thenReturn(saved);
@@ -68,15 +95,39 @@ class AccountServiceTest {
         AccountResponse response = accountService.createAccount(request);
 
         assertThat(response.getAccountNumber()).isEqualTo("789");
-        assertThat(response.getBalance()).isEqualByComparingTo("50.00");
+        assertThat(response.getBalance()).isEqualTo(Money.parse("50.00"));
         verify(accountRepository).save(any(Account.class));
+        LedgerEntry opening = captureEntry();
+        assertThat(opening.getAccountId()).isEqualTo(2L);
+        assertThat(opening.getType()).isEqualTo(LedgerEntryType.OPENING);
+        assertThat(opening.getAmount()).isEqualTo(Money.parse("50.00"));
     }
 
     @Test
-    void getAccountByNumber_returnsAccountResponse_whenFound() {
+    void getAccountByNumber_returnsCheckpointPlusLaterEntries() {
+        existingAccount.setCheckpointEntryId(40L);
         when(accountRepository.findByAccountNumber("123")).thenReturn(Optional.of(existingAccount));
+        when(ledgerEntryRepository.sumCentsAfter(1L, 40L)).thenReturn(-1500L);
+
         AccountResponse response = accountService.getAccountByNumber("123");
+
         assertThat(response.getOwnerName()).isEqualTo("João");
+        assertThat(response.getBalance()).isEqualTo(Money.parse("85.00"));
+    }
+
+    @Test
+    void getAccountByNumber_servesRepeatedReadsFromCache() {
+        when(accountRepository.findByAccountNumber("123")).thenReturn(Optional.of(existingAccount));
+        when(ledgerEntryRepository.sumCentsAfter(1L, 0L)).thenReturn(0L);
+
+        accountService.getAccountByNumber("123");
+        AccountResponse response = accountService.getAccountByNumber("123");
+
+        assertThat(response.getBalance()).isEqualTo(Money.parse("100.00"));
+        verify(accountRepository, times(1)).findByAccountNumber("123");
+        verify(ledgerEntryRepository, times(1)).sumCentsAfter(1L, 0L);
+        // the cache hit opened no transaction
+        verify(transactionManager, times(1)).getTransaction(any());
     }
 
     @Test
@@ -86,40 +137,256 @@ class AccountServiceTest {
     }
 
     @Test
-    void deposit_addsBalance_whenAllowedByFraudService() {
+    void deposit_appendsEntryWithoutUpdatingAccount_whenAllowedByFraudService() {
+        when(fraudCheckClient.validateDeposit("123", Money.parse("25.00"))).thenReturn(true);
+        when(accountRepository.findByAccountNumberForShare("123")).thenReturn(Optional.of(existingAccount));
+        when(ledgerEntryRepository.sumCentsAfter(1L, 0L)).thenReturn(2500L);
+        TransactionRequest request = new TransactionRequest();
+        request.setAmount(new BigDecimal("25.00"));
+
+        AccountResponse response = accountService.deposit("123", request, null);
+
+        assertThat(response.getBalance()).isEqualTo(Money.parse("125.00"));
+        LedgerEntry entry = captureEntry();
+        assertThat(entry.getType()).isEqualTo(LedgerEntryType.DEPOSIT);
+        assertThat(entry.getAmount()).isEqualTo(Money.parse("25.00"));
+        verify(accountRepository, never()).save(any(Account.class));
+        verify(balanceCache).evictAfterCommit("123");
+    }
+
+    @Test
+    void deposit_recordsIdempotencyKeyUnderExclusiveLock() {
+        when(fraudCheckClient.validateDeposit("123", Money.parse("25.00"))).thenReturn(true);
+        when(accountRepository.findByAccountNumberForUpdate("123")).thenReturn(Optional.of(existingAccount));
+        when(ledgerEntryRepository.existsByIdempotencyKey("op-1")).thenReturn(false);
+        when(ledgerEntryRepository.sumCentsAfter(1L, 0L)).thenReturn(2500L);
+        TransactionRequest request = new TransactionRequest();
+        request.setAmount(new BigDecimal("25.00"));
+
+        accountService.deposit("123", request, "op-1");
+
+        assertThat(captureEntry().getIdempotencyKey()).isEqualTo("op-1");
+        verify(accountRepository, never()).findByAccountNumberForShare(any());
+    }
+
+    @Test
+    void deposit_appendsNothing_whenIdempotencyKeyWasAlreadyApplied() {
         when(accountRepository.findByAccountNumber("123")).thenReturn(Optional.of(existingAccount));
-        when(fraudCheckClient.validateDeposit("123", new BigDecimal("25.00"))).thenReturn(true);
+        when(ledgerEntryRepository.existsByIdempotencyKey("op-1")).thenReturn(true);
+        when(ledgerEntryRepository.sumCentsAfter(1L, 0L)).thenReturn(2500L);
         TransactionRequest request = new TransactionRequest();
         request.setAmount(new BigDecimal("25.00"));
 
-        AccountResponse response = accountService.deposit("123", request);
+        AccountResponse response = accountService.deposit("123", request, "op-1");
 
-        assertThat(response.getBalance()).isEqualByComparingTo("125.00");
+        assertThat(response.getBalance()).isEqualTo(Money.parse("125.00"));
+        verify(ledgerEntryRepository, never()).save(any());
+        verifyNoInteractions(fraudCheckClient);
     }
 
     @Test
     void deposit_throws_whenAmountNegative() {
         TransactionRequest request = new TransactionRequest();
         request.setAmount(new BigDecimal("-5.00"));
-        assertThrows(IllegalArgumentException.class, () -> accountService.deposit("123", request));
+        assertThrows(IllegalArgumentException.class, () -> accountService.deposit("123", request, null));
     }
 
     @Test
-    void withdraw_subtractsBalance_whenSufficientFundsAndAllowed() {
+    void withdraw_appendsNegativeEntry_whenSufficientFundsAndAllowed() {
+        when(fraudCheckClient.validateWithdrawal("123", Money.parse("40.00"))).thenReturn(true);
+        when(accountRepository.findByAccountNumberForUpdate("123")).thenReturn(Optional.of(existingAccount));
+        when(ledgerEntryRepository.sumCentsAfter(1L, 0L)).thenReturn(0L);
+        TransactionRequest request = new TransactionRequest();
+        request.setAmount(new BigDecimal("40.00"));
+
+        AccountResponse response = accountService.withdraw("123", request, null);
+
+        assertThat(response.getBalance()).isEqualTo(Money.parse("60.00"));
+        LedgerEntry entry = captureEntry();
+        assertThat(entry.getType()).isEqualTo(LedgerEntryType.WITHDRAWAL);
+        assertThat(entry.getAmount()).isEqualTo(Money.parse("-40.00"));
+        verify(accountRepository, never()).save(any(Account.class));
+    }
+
+    @Test
+    void withdraw_appendsNothing_whenSameKeyCommittedWhileWaitingForLock() {
+        when(fraudCheckClient.validateWithdrawal("123", Money.parse("40.00"))).thenReturn(true);
+        when(accountRepository.findByAccountNumberForUpdate("123")).thenReturn(Optional.of(existingAccount));
+        // not applied when first checked, applied by a concurrent retry once the lock is held
+        when(ledgerEntryRepository.existsByIdempotencyKey("op-2")).thenReturn(false, true);
+        when(ledgerEntryRepository.sumCentsAfter(1L, 0L)).thenReturn(-4000L);
+        TransactionRequest request = new TransactionRequest();
+        request.setAmount(new BigDecimal("40.00"));
+
+        AccountResponse response = accountService.withdraw("123", request, "op-2");
+
+        assertThat(response.getBalance()).isEqualTo(Money.parse("60.00"));
+        verify(ledgerEntryRepository, never()).save(any());
+    }
+
+    @Test
+    void withdraw_updatesCachedBalance() {
         when(accountRepository.findByAccountNumber("123")).thenReturn(Optional.of(existingAccount));
-        when(fraudCheckClient.validateWithdrawal("123", new BigDecimal("40.00"))).thenReturn(true);
+        when(ledgerEntryRepository.findMaxIdAfter(1L, 0L)).thenReturn(49L);
+        when(ledgerEntryRepository.sumCentsAfter(1L, 0L)).thenReturn(0L);
+        accountService.getAccountByNumber("123");
+        when(fraudCheckClient.validateWithdrawal("123", Money.parse("40.00"))).thenReturn(true);
+        when(accountRepository.findByAccountNumberForUpdate("123")).thenReturn(Optional.of(existingAccount));
         TransactionRequest request = new TransactionRequest();
         request.setAmount(new BigDecimal("40.00"));
 
-        AccountResponse response = accountService.withdraw("123", request);
-        assertThat(response.getBalance()).isEqualByComparingTo("60.00");
+        accountService.withdraw("123", request, null);
+        AccountResponse response = accountService.getAccountByNumber("123");
+
+        assertThat(response.getBalance()).isEqualTo(Money.parse("60.00"));
+        verify(accountRepository, times(1)).findByAccountNumber("123");
     }
 
     @Test
     void withdraw_throws_whenInsufficientFunds() {
-        when(accountRepository.findByAccountNumber("123")).thenReturn(Optional.of(existingAccount));
+        when(fraudCheckClient.validateWithdrawal("123", Money.parse("500.00"))).thenReturn(true);
+        when(accountRepository.findByAccountNumberForUpdate("123")).thenReturn(Optional.of(existingAccount));
+        when(ledgerEntryRepository.sumCentsAfter(1L, 0L)).thenReturn(0L);
         TransactionRequest request = new TransactionRequest();
         request.setAmount(new BigDecimal("500.00"));
-        assertThrows(InsufficientFundsException.class, () -> accountService.withdraw("123", request));
+        assertThrows(InsufficientFundsException.class, () -> accountService.withdraw("123", request, null));
+        verify(ledgerEntryRepository, never()).save(any());
+        verify(balanceCache, never()).putAfterCommit(any(), any(), anyLong());
+    }
+
+    @Test
+    void withdraw_countsEntriesAfterCheckpointTowardsFunds() {
+        when(fraudCheckClient.validateWithdrawal("123", Money.parse("120.00"))).thenReturn(true);
+        when(accountRepository.findByAccountNumberForUpdate("123")).thenReturn(Optional.of(existingAccount));
+        when(ledgerEntryRepository.sumCentsAfter(1L, 0L)).thenReturn(3000L);
+        TransactionRequest request = new TransactionRequest();
+        request.setAmount(new BigDecimal("120.00"));
+
+        AccountResponse response = accountService.withdraw("123", request, null);
+
+        assertThat(response.getBalance()).isEqualTo(Money.parse("10.00"));
+    }
+
+    @Test
+    void transfer_appendsBothLegsAndLocksAccountsInNumberOrder() {
+        Account target = Account.builder()
+                .id(3L)
+                .accountNumber("045")
+                .ownerName("Ana")
+                .balance(Money.parse("10.00"))
+                .createdAt(LocalDateTime.now())
+                .build();
+        when(fraudCheckClient.validateWithdrawal("123", Money.parse("30.00"))).thenReturn(true);
+        when(accountRepository.findByAccountNumberForUpdate("123")).thenReturn(Optional.of(existingAccount));
+        when(accountRepository.findByAccountNumberForUpdate("045")).thenReturn(Optional.of(target));
+        when(ledgerEntryRepository.sumCentsAfter(1L, 0L)).thenReturn(0L);
+        when(ledgerEntryRepository.sumCentsAfter(3L, 0L)).thenReturn(3000L);
+        TransferRequest request = new TransferRequest();
+        request.setTargetAccountNumber("045");
+        request.setAmount(new BigDecimal("30.00"));
+
+        TransferResponse response = accountService.transfer("123", request, null);
+
+        assertThat(response.getSource().getBalance()).isEqualTo(Money.parse("70.00"));
+        assertThat(response.getTarget().getBalance()).isEqualTo(Money.parse("40.00"));
+        InOrder locks = inOrder(accountRepository);
+        locks.verify(accountRepository).findByAccountNumberForUpdate("045");
+        locks.verify(accountRepository).findByAccountNumberForUpdate("123");
+        ArgumentCaptor<LedgerEntry> entries = ArgumentCaptor.forClass(LedgerEntry.class);
+        verify(ledgerEntryRepository, times(2)).save(entries.capture());
+        assertThat(entries.getAllValues().get(0).getType()).isEqualTo(LedgerEntryType.TRANSFER_OUT);
+        assertThat(entries.getAllValues().get(0).getAmount()).isEqualTo(Money.parse("-30.00"));
+        assertThat(entries.getAllValues().get(0).getCounterpartyAccountNumber()).isEqualTo("045");
+        assertThat(entries.getAllValues().get(1).getType()).isEqualTo(LedgerEntryType.TRANSFER_IN);
+        assertThat(entries.getAllValues().get(1).getAccountId()).isEqualTo(3L);
+        verify(accountRepository, never()).save(any(Account.class));
+        assertThat(balanceCache.get("123")).map(AccountResponse::getBalance).hasValue(Money.parse("70.00"));
+        assertThat(balanceCache.get("045")).map(AccountResponse::getBalance).hasValue(Money.parse("40.00"));
+    }
+
+    @Test
+    void transfer_recordsIdempotencyKeyOnBothLegs() {
+        Account target = Account.builder()
+                .id(3L)
+                .accountNumber("456")
+                .ownerName("Ana")
+                .balance(Money.ZERO)
+                .createdAt(LocalDateTime.now())
+                .build();
+        when(fraudCheckClient.validateWithdrawal("123", Money.parse("30.00"))).thenReturn(true);
+        when(accountRepository.findByAccountNumberForUpdate("123")).thenReturn(Optional.of(existingAccount));
+        when(accountRepository.findByAccountNumberForUpdate("456")).thenReturn(Optional.of(target));
+        when(ledgerEntryRepository.sumCentsAfter(anyLong(), anyLong())).thenReturn(0L);
+        TransferRequest request = new TransferRequest();
+        request.setTargetAccountNumber("456");
+        request.setAmount(new BigDecimal("30.00"));
+
+        accountService.transfer("123", request, "op-3");
+
+        ArgumentCaptor<LedgerEntry> entries = ArgumentCaptor.forClass(LedgerEntry.class);
+        verify(ledgerEntryRepository, times(2)).save(entries.capture());
+        assertThat(entries.getAllValues()).extracting(LedgerEntry::getIdempotencyKey).containsExactly("op-3", "op-3");
+    }
+
+    @Test
+    void transfer_appendsNothing_whenIdempotencyKeyWasAlreadyApplied() {
+        Account target = Account.builder()
+                .id(3L)
+                .accountNumber("456")
+                .ownerName("Ana")
+                .balance(Money.ZERO)
+                .createdAt(LocalDateTime.now())
+                .build();
+        when(accountRepository.findByAccountNumber("123")).thenReturn(Optional.of(existingAccount));
+        when(accountRepository.findByAccountNumber("456")).thenReturn(Optional.of(target));
+        when(ledgerEntryRepository.existsByIdempotencyKey("op-3")).thenReturn(true);
+        when(ledgerEntryRepository.sumCentsAfter(1L, 0L)).thenReturn(-3000L);
+        when(ledgerEntryRepository.sumCentsAfter(3L, 0L)).thenReturn(3000L);
+        TransferRequest request = new TransferRequest();
+        request.setTargetAccountNumber("456");
+        request.setAmount(new BigDecimal("30.00"));
+
+        TransferResponse response = accountService.transfer("123", request, "op-3");
+
+        assertThat(response.getSource().getBalance()).isEqualTo(Money.parse("70.00"));
+        assertThat(response.getTarget().getBalance()).isEqualTo(Money.parse("30.00"));
+        verify(ledgerEntryRepository, never()).save(any());
+        verifyNoInteractions(fraudCheckClient);
+    }
+
+    @Test
+    void transfer_throws_whenInsufficientFunds() {
+        Account target = Account.builder()
+                .id(3L)
+                .accountNumber("456")
+                .ownerName("Ana")
+                .balance(Money.ZERO)
+                .createdAt(LocalDateTime.now())
+                .build();
+        when(fraudCheckClient.validateWithdrawal("123", Money.parse("500.00"))).thenReturn(true);
+        when(accountRepository.findByAccountNumberForUpdate("123")).thenReturn(Optional.of(existingAccount));
+        when(accountRepository.findByAccountNumberForUpdate("456")).thenReturn(Optional.of(target));
+        when(ledgerEntryRepository.sumCentsAfter(anyLong(), anyLong())).thenReturn(0L);
+        TransferRequest request = new TransferRequest();
+        request.setTargetAccountNumber("456");
+        request.setAmount(new BigDecimal("500.00"));
+
+        assertThrows(InsufficientFundsException.class, () -> accountService.transfer("123", request, null));
+        verify(ledgerEntryRepository, never()).save(any());
+    }
+
+    @Test
+    void transfer_throws_whenSourceEqualsTarget() {
+        TransferRequest request = new TransferRequest();
+        request.setTargetAccountNumber("123");
+        request.setAmount(BigDecimal.ONE);
+        assertThrows(IllegalArgumentException.class, () -> accountService.transfer("123", request, null));
+        verifyNoInteractions(accountRepository, ledgerEntryRepository);
+    }
+
+    private LedgerEntry captureEntry() {
+        ArgumentCaptor<LedgerEntry> captor = ArgumentCaptor.forClass(LedgerEntry.class);
+        verify(ledgerEntryRepository).save(captor.capture());
+        return captor.getValue();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,56 @@
+package com.example.accountservice.service;
+
+import com.example.accountservice.dto.AccountResponse;
+import com.example.accountservice.model.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class BalanceCacheTest {
+
+    private final BalanceCache cache = new BalanceCache(new SimpleMeterRegistry(), true, 100, Duration.ofMinutes(1));
+
+    @Test
+    void put_replacesValueWithNewerLedgerHead() {
+        cache.put("123", response("100.00"), 10L);
+        cache.put("123", response("60.00"), 11L);
+
+        assertThat(cache.get("123")).map(AccountResponse::getBalance).hasValue(Money.parse("60.00"));
+    }
+
+    @Test
+    void put_ignoresValueOlderThanCached() {
+        cache.put("123", response("60.00"), 11L);
+        // e.g. a read that started before the withdrawal committed
+        cache.put("123", response("100.00"), 10L);
+
+        assertThat(cache.get("123")).map(AccountResponse::getBalance).hasValue(Money.parse("60.00"));
+    }
+
+    @Test
+    void evictAfterCommit_dropsValueWhenNoTransactionIsActive() {
+        cache.put("123", response("100.00"), 10L);
+
+        cache.evictAfterCommit("123");
+
+        assertThat(cache.get("123")).isEmpty();
+    }
+
+    @Test
+    void disabledCache_neverReturnsValues() {
+        BalanceCache disabled = new BalanceCache(new SimpleMeterRegistry(), false, 100, Duration.ofMinutes(1));
+
+        disabled.put("123", response("100.00"), 10L);
+
+        assertThat(disabled.get("123")).isEmpty();
+    }
+
+    private static AccountResponse response(String balance) {
+        return new AccountResponse("123", "João", Money.parse(balance), LocalDateTime.now());
+    }
+}
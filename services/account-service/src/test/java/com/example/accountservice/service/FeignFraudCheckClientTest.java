@@ -0,0 +1,176 @@
+package com.example.accountservice.service;
+
+import com.example.accountservice.client.FraudServiceFeignApi;
+import com.example.accountservice.model.Money;
+import feign.FeignException;
+import feign.Request;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class FeignFraudCheckClientTest {
+
+    private final StubFraudService fraudService = new StubFraudService();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CircuitBreaker circuitBreaker = CircuitBreaker.of("fraud-service", CircuitBreakerConfig.custom()
+            .slidingWindowSize(4)
+            .minimumNumberOfCalls(4)
+            .failureRateThreshold(50)
+            .waitDurationInOpenState(Duration.ofMinutes(1))
+            .build());
+    private Bulkhead bulkhead;
+    private FeignFraudCheckClient client;
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) {
+            client.shutdown();
+        }
+    }
+
+    @Test
+    void hedgesSlowCallAndReturnsFirstAnswer() {
+        client = client(10, false);
+        // first request stalls well past the hedge delay, the hedge answers at once
+        fraudService.latenciesMs = new long[]{2_000, 0};
+
+        long start = System.nanoTime();
+        boolean allowed = client.validateDeposit("123", Money.parse("25.00"));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(allowed).isTrue();
+        assertThat(elapsedMs).isLessThan(1_000);
+        assertThat(fraudService.calls.get()).isEqualTo(2);
+        assertThat(meterRegistry.counter("fraudcheck.hedged").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void returnsHedgeLoserPermitOnceVerdictIsKnown() {
+        client = client(2, false);
+        fraudService.latenciesMs = new long[]{2_000, 0};
+
+        assertThat(client.validateDeposit("123", Money.parse("25.00"))).isTrue();
+
+        assertThat(bulkhead.getMetrics().getAvailableConcurrentCalls()).isEqualTo(2);
+    }
+
+    @Test
+    void doesNotHedgeFastCall() {
+        client = client(10, false);
+
+        assertThat(client.validateWithdrawal("123", Money.parse("25.00"))).isTrue();
+
+        assertThat(fraudService.calls.get()).isEqualTo(1);
+        assertThat(meterRegistry.counter("fraudcheck.hedged").count()).isZero();
+    }
+
+    @Test
+    void reusesVerdictForSameOperationAccountAndAmountBucket() {
+        client = client(10, true);
+
+        client.validateDeposit("123", Money.parse("21.00"));
+        client.validateDeposit("123", Money.parse("29.99"));
+        client.validateWithdrawal("123", Money.parse("29.99"));
+        client.validateDeposit("123", Money.parse("30.01"));
+
+        assertThat(fraudService.calls.get()).isEqualTo(3);
+    }
+
+    @Test
+    void opensCircuitAfterFailuresAndStopsCallingFraudService() {
+        client = client(10, false);
+        fraudService.failing = true;
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(client.validateDeposit("123", Money.parse("1.00"))).isFalse();
+        }
+        int callsWhenOpened = fraudService.calls.get();
+        assertThat(client.validateDeposit("123", Money.parse("1.00"))).isFalse();
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(fraudService.calls.get()).isEqualTo(callsWhenOpened);
+        assertThat(meterRegistry.counter("fraudcheck.fallback", "reason", "circuit_open").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void rejectsWithoutCallingWhenBulkheadIsFull() throws Exception {
+        client = client(1, false);
+        fraudService.latenciesMs = new long[]{500};
+        CountDownLatch started = new CountDownLatch(1);
+        Thread first = Thread.ofVirtual().start(() -> {
+            started.countDown();
+            client.validateDeposit("123", Money.parse("1.00"));
+        });
+        started.await();
+        Thread.sleep(20);
+
+        boolean allowed = client.validateDeposit("456", Money.parse("1.00"));
+        first.join();
+
+        assertThat(allowed).isFalse();
+        assertThat(meterRegistry.counter("fraudcheck.fallback", "reason", "bulkhead_full").count()).isEqualTo(1.0);
+        assertThat(circuitBreaker.getMetrics().getNumberOfFailedCalls()).isZero();
+    }
+
+    private FeignFraudCheckClient client(int maxConcurrentCalls, boolean cacheEnabled) {
+        bulkhead = Bulkhead.of("fraud-service", BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        return new FeignFraudCheckClient(fraudService, circuitBreaker, bulkhead, meterRegistry,
+                false, cacheEnabled, Duration.ofMinutes(1), BigDecimal.TEN, Duration.ofMillis(50));
+    }
+
+    /**
+     * Stands in for fraud-service; request n sleeps {@code latenciesMs[n]} before answering.
+     */
+    private static class StubFraudService implements FraudServiceFeignApi {
+
+        final AtomicInteger calls = new AtomicInteger();
+        volatile long[] latenciesMs = new long[0];
+        volatile boolean failing;
+
+        @Override
+        public Boolean validate(String operation, String accountNumber, BigDecimal amount) {
+            int call = calls.getAndIncrement();
+            long[] latencies = latenciesMs;
+            if (call < latencies.length && latencies[call] > 0) {
+                try {
+                    Thread.sleep(latencies[call]);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (failing) {
+                throw serverError();
+            }
+            return true;
+        }
+
+        private static FeignException serverError() {
+            Request request = Request.create(Request.HttpMethod.GET, "http://fraud-service/api/fraud/deposit",
+                    Map.of(), new byte[0], StandardCharsets.UTF_8, null);
+            return FeignException.errorStatus("FraudServiceFeignApi#validate", feign.Response.builder()
+                    .status(503)
+                    .reason("unavailable")
+                    .request(request)
+                    .headers(Map.of())
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.accountservice.service;
+
+import com.example.accountservice.model.Account;
+import com.example.accountservice.model.Money;
+import com.example.accountservice.repository.AccountRepository;
+import com.example.accountservice.repository.LedgerEntryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+class LedgerCheckpointServiceTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private LedgerCheckpointService checkpointService;
+
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        checkpointService = new LedgerCheckpointService(accountRepository, ledgerEntryRepository,
+                transactionManager, 100, 500);
+        account = Account.builder()
+                .id(1L)
+                .accountNumber("123")
+                .ownerName("João")
+                .balance(Money.parse("100.00"))
+                .checkpointEntryId(10L)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    void checkpoint_foldsEntriesAfterPreviousCheckpoint() {
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(account));
+        when(ledgerEntryRepository.findMaxIdAfter(1L, 10L)).thenReturn(42L);
+        when(ledgerEntryRepository.sumCentsAfter(1L, 10L)).thenReturn(-2000L);
+
+        assertThat(checkpointService.checkpoint(1L)).isTrue();
+
+        assertThat(account.getBalance()).isEqualTo(Money.parse("80.00"));
+        assertThat(account.getCheckpointEntryId()).isEqualTo(42L);
+        assertThat(account.getCheckpointAt()).isNotNull();
+        verify(accountRepository).save(account);
+    }
+
+    @Test
+    void checkpoint_leavesAccountUntouched_whenNoNewEntries() {
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(account));
+        when(ledgerEntryRepository.findMaxIdAfter(1L, 10L)).thenReturn(null);
+
+        assertThat(checkpointService.checkpoint(1L)).isFalse();
+
+        assertThat(account.getBalance()).isEqualTo(Money.parse("100.00"));
+        verify(accountRepository, never()).save(any());
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.accountservice.service;
+
+import com.example.accountservice.config.VelocityRuleProperties;
+import com.example.accountservice.config.VelocityRuleProperties.Action;
+import com.example.accountservice.config.VelocityRuleProperties.Rule;
+import com.example.accountservice.model.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+class VelocityRuleFraudCheckClientTest {
+
+    @Mock
+    private FeignFraudCheckClient remote;
+
+    @Mock
+    private Clock clock;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private VelocityRuleFraudCheckClient client;
+
+    @BeforeEach
+    void setUp() {
+        when(clock.millis()).thenReturn(1_000_000L);
+        VelocityRuleProperties properties = new VelocityRuleProperties(Duration.ofSeconds(10), 1_000, List.of(
+                new Rule("withdraw", Duration.ofMinutes(1), 3L, null, null, Action.DENY),
+                new Rule("withdraw", Duration.ofMinutes(10), null, new BigDecimal("500.00"), null, Action.REMOTE),
+                new Rule("deposit", Duration.ofHours(1), null, null, new BigDecimal("1000.00"), Action.REMOTE)
+        ));
+        client = new VelocityRuleFraudCheckClient(remote, properties, meterRegistry, clock);
+    }
+
+    @Test
+    void approvesLocally_whenNoRuleIsExceeded() {
+        assertThat(client.validateWithdrawal("123", Money.parse("50.00"))).isTrue();
+        assertThat(client.validateDeposit("123", Money.parse("999.99"))).isTrue();
+
+        verifyNoInteractions(remote);
+        assertThat(meterRegistry.summary("fraudcheck.local.decision", "decision", "allow").count()).isEqualTo(2);
+    }
+
+    @Test
+    void deniesLocally_whenCountLimitIsExceeded() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(client.validateWithdrawal("123", Money.parse("1.00"))).isTrue();
+        }
+
+        assertThat(client.validateWithdrawal("123", Money.parse("1.00"))).isFalse();
+        // other accounts and operations keep their own counters
+        assertThat(client.validateWithdrawal("456", Money.parse("1.00"))).isTrue();
+        assertThat(client.validateDeposit("123", Money.parse("1.00"))).isTrue();
+        verifyNoInteractions(remote);
+    }
+
+    @Test
+    void rejectedOperationDoesNotCountTowardsLimit() {
+        for (int i = 0; i < 3; i++) {
+            client.validateWithdrawal("123", Money.parse("1.00"));
+        }
+        assertThat(client.validateWithdrawal("123", Money.parse("1.00"))).isFalse();
+        assertThat(client.validateWithdrawal("123", Money.parse("1.00"))).isFalse();
+
+        // the first three fall out of the one-minute window; the two rejected ones were never counted
+        when(clock.millis()).thenReturn(1_000_000L + 61_000L);
+
+        assertThat(client.validateWithdrawal("123", Money.parse("1.00"))).isTrue();
+    }
+
+    @Test
+    void asksFraudService_whenRemoteRuleIsExceeded() {
+        when(remote.validateWithdrawal("123", Money.parse("300.00"))).thenReturn(false);
+
+        assertThat(client.validateWithdrawal("123", Money.parse("300.00"))).isTrue();
+        assertThat(client.validateWithdrawal("123", Money.parse("300.00"))).isFalse();
+
+        verify(remote, times(1)).validateWithdrawal(any(), any());
+        assertThat(meterRegistry.summary("fraudcheck.local.decision", "decision", "remote").count()).isEqualTo(1);
+    }
+
+    @Test
+    void asksFraudService_forSingleAmountAboveLimit() {
+        when(remote.validateDeposit("123", Money.parse("1000.01"))).thenReturn(true);
+
+        assertThat(client.validateDeposit("123", Money.parse("1000.01"))).isTrue();
+
+        verify(remote).validateDeposit("123", Money.parse("1000.01"));
+    }
+
+    @Test
+    void concurrentChecksNeverAdmitMoreThanTheLimit() {
+        AtomicInteger allowed = new AtomicInteger();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 64; i++) {
+                executor.execute(() -> {
+                    if (client.validateWithdrawal("123", Money.parse("1.00"))) {
+                        allowed.incrementAndGet();
+                    }
+                });
+            }
+        }
+
+        // a check may be rejected by one that is later taken back, so the count can fall short, never over
+        assertThat(allowed.get()).isBetween(1, 3);
+    }
+}
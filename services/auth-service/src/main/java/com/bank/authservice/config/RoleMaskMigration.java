@@ -0,0 +1,62 @@
+package com.bank.authservice.config;
+
+import com.bank.authservice.entity.Role;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * One-off move of roles from the old {@code user_roles} table into
+ * {@code users.role_mask}. Runs after Hibernate has added the column and before
+ * the web server accepts requests; the old table is then renamed to
+ * {@code user_roles_migrated}, so later startups skip it and the data is kept
+ * until it is dropped by hand.
+ */
+@Component
+@ConditionalOnProperty(name = "app.migration.role-mask.enabled", havingValue = "true", matchIfMissing = true)
+public class RoleMaskMigration implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(RoleMaskMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // the EntityManagerFactory parameter only orders this after Hibernate's schema update
+    public RoleMaskMigration(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Boolean pending = jdbcTemplate.queryForObject(
+                "select to_regclass('user_roles') is not null", Boolean.class);
+        if (!Boolean.TRUE.equals(pending)) {
+            return;
+        }
+        // the bits come from Role itself, so the SQL cannot drift from the converter
+        String bitOf = Arrays.stream(Role.values())
+                .map(role -> "when '" + role.name() + "' then " + role.bit())
+                .collect(Collectors.joining(" ", "case r.role ", " else 0 end"));
+        Integer migrated = transactionTemplate.execute(status -> {
+            int updated = jdbcTemplate.update(
+                    "update users u set role_mask = m.mask "
+                            + "from (select r.user_id, bit_or(" + bitOf + ") as mask "
+                            + "from user_roles r group by r.user_id) m "
+                            + "where u.id = m.user_id and u.role_mask = 0");
+            jdbcTemplate.execute("alter table user_roles rename to user_roles_migrated");
+            return updated;
+        });
+        log.info("Migrated roles of {} users from user_roles to users.role_mask", migrated);
+    }
+}
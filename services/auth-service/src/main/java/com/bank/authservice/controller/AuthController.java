@@ -3,11 +3,16 @@ package com.bank.authservice.controller;
 import com.bank.authservice.dto.AuthRequest;
 import com.bank.authservice.dto.AuthResponse;
 import com.bank.authservice.dto.RegisterRequestDto;
+import com.bank.authservice.dto.ServiceTokenRequest;
+import com.bank.authservice.dto.ServiceTokenResponse;
 import com.bank.authservice.dto.UserDto;
+import com.bank.authservice.security.LoginThrottle;
+import com.bank.authservice.security.ServiceTokenIssuer;
 import com.bank.authservice.service.AuthenticationService;
 import com.bank.authservice.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -28,6 +33,8 @@ public class AuthController {
 
     private final AuthenticationService authenticationService;
     private final UserService userService;
+    private final LoginThrottle loginThrottle;
+    private final ServiceTokenIssuer serviceTokenIssuer;
 
     @Operation(summary = "Register new user")
     @PostMapping("/register")
@@ -38,7 +45,10 @@ public class AuthController {
 
     @Operation(summary = "Authenticate a user", description = "Authenticates the user and returns a JWT token")
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody AuthRequest request) {
+    public ResponseEntity<AuthResponse> login(@Valid @RequestBody AuthRequest request,
+                                              HttpServletRequest httpRequest) {
+        // before authenticate(), so throttled attempts never reach the password encoder
+        loginThrottle.acquire(request.getUsername(), httpRequest.getRemoteAddr());
         try {
             String token = authenticationService.authenticate(request.getUsername(), request.getPassword());
             return ResponseEntity.ok(new AuthResponse(token));
@@ -46,4 +56,16 @@ public class AuthController {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
         }
     }
+
+    @Operation(summary = "Issue a service token",
+            description = "Returns a short-lived JWT for a service calling on its own behalf, outside any user request")
+    @PostMapping("/service-token")
+    public ServiceTokenResponse serviceToken(@Valid @RequestBody ServiceTokenRequest request) {
+        try {
+            String token = serviceTokenIssuer.issue(request.getClientId(), request.getClientSecret());
+            return new ServiceTokenResponse(token, serviceTokenIssuer.tokenTtl().toSeconds());
+        } catch (BadCredentialsException ex) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, ex.getMessage());
+        }
+    }
 }
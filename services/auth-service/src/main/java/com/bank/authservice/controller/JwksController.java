@@ -0,0 +1,47 @@
+package com.bank.authservice.controller;
+
+import com.bank.authservice.security.JwtUtil;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@RestController
+@Tag(name = "JWKS API", description = "Public keys for verifying tokens issued by this service")
+public class JwksController {
+
+    private final Map<String, Object> jwks;
+    private final String etag;
+    private final CacheControl cacheControl;
+
+    public JwksController(JwtUtil jwtUtil, @Value("${security.jwt.jwks.max-age:5m}") Duration maxAge) {
+        // the key set only changes on restart, so it is built once and revalidated by kid list
+        this.jwks = jwtUtil.jwks();
+        List<?> keys = (List<?>) jwks.get("keys");
+        this.etag = keys.stream()
+                .map(key -> String.valueOf(((Map<?, ?>) key).get("kid")))
+                .collect(Collectors.joining(",", "\"", "\""));
+        this.cacheControl = CacheControl.maxAge(maxAge).cachePublic();
+    }
+
+    @Operation(summary = "JSON Web Key Set", description = "RS256 verification keys, looked up by the token's kid")
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> jwks(WebRequest request) {
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .eTag(etag)
+                .body(jwks);
+    }
+}
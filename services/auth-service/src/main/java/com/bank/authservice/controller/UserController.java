@@ -1,19 +1,27 @@
 package com.bank.authservice.controller;
 
+import com.bank.authservice.dto.BulkRegisterRequest;
+import com.bank.authservice.dto.BulkRegisterResponse;
 import com.bank.authservice.dto.UserDto;
+import com.bank.authservice.dto.UserPageResponse;
+import com.bank.authservice.service.BulkUserService;
 import com.bank.authservice.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -21,10 +29,14 @@ import java.util.UUID;
 @Tag(name = "User API", description = "Endpoints related to users")
 public class UserController {
 
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final UserService userService;
+    private final BulkUserService bulkUserService;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, BulkUserService bulkUserService) {
         this.userService = userService;
+        this.bulkUserService = bulkUserService;
     }
 
     @Operation(summary = "Get current user", description = "Returns information about the currently authenticated user")
@@ -33,10 +45,23 @@ public class UserController {
         return userService.getCurrentUser(authentication);
     }
 
-    @Operation(summary = "List users", description = "Lists all users in the system. Requires ADMIN role.")
+    @Operation(summary = "List users",
+            description = "Returns a page of users ordered by username. Pass nextCursor as 'after' to fetch the next page. Requires ADMIN role.")
     @GetMapping
-    public List<UserDto> listUsers(Authentication authentication) {
-        return userService.listUsers(authentication);
+    public UserPageResponse listUsers(
+            Authentication authentication,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page")
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", defaultValue = "50") int limit
+    ) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        try {
+            return userService.listUsers(authentication, after, limit);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
     }
 
     @Operation(summary = "Promote a user to ADMIN role", description = "Requires ADMIN role.")
@@ -45,4 +70,15 @@ public class UserController {
     public void promoteToAdmin(@PathVariable UUID userId) {
         userService.promoteToAdmin(userId);
     }
+
+    @Operation(summary = "Register users in bulk",
+            description = "Registers many users with the USER role and returns one result per row in request order. Requires ADMIN role.")
+    @PostMapping("/bulk")
+    public BulkRegisterResponse registerBulk(@Valid @RequestBody BulkRegisterRequest request) {
+        try {
+            return bulkUserService.register(request.getUsers());
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+    }
 }
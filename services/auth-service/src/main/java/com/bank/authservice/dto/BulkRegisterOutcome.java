@@ -0,0 +1,13 @@
+package com.bank.authservice.dto;
+
+/**
+ * Result of a single bulk registration row. CREATED rows were inserted; REJECTED
+ * rows were invalid, duplicated another row or an existing user, or could not be
+ * hashed, and were not inserted. FAILED rows were valid but their chunk could not
+ * be inserted, even after a retry, and can be resubmitted.
+ */
+public enum BulkRegisterOutcome {
+    CREATED,
+    REJECTED,
+    FAILED
+}
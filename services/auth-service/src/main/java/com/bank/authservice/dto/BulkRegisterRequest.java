@@ -0,0 +1,25 @@
+package com.bank.authservice.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Rows are not validated here: {@code BulkUserService} validates each one and
+ * rejects only that row, so an invalid row does not fail the whole batch.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkRegisterRequest {
+    /** Hard ceiling on the body; {@code security.bulk-register.max-items} is the configured limit. */
+    public static final int MAX_USERS = 10_000;
+
+    @NotEmpty
+    @Size(max = MAX_USERS)
+    private List<RegisterRequestDto> users;
+}
@@ -0,0 +1,17 @@
+package com.bank.authservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Per-row results of a bulk registration, in the same order as the request rows.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkRegisterResponse {
+    private List<BulkRegisterResult> results;
+}
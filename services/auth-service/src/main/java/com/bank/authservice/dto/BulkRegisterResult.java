@@ -0,0 +1,15 @@
+package com.bank.authservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkRegisterResult {
+    private String username;
+    private BulkRegisterOutcome outcome;
+    private UserDto user;
+    private String error;
+}
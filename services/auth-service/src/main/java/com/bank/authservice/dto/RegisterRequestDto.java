@@ -15,6 +15,7 @@ public class RegisterRequestDto {
 
     @Email
     @NotBlank
+    @Size(max = 120)
     private String email;
 
     @NotBlank
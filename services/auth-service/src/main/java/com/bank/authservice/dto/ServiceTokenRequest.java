@@ -0,0 +1,23 @@
+package com.bank.authservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ServiceTokenRequest {
+
+    @Schema(description = "Calling service, as configured in security.service-clients.credentials",
+            example = "transaction-service")
+    @NotBlank
+    private String clientId;
+
+    @Schema(description = "The client's secret")
+    @NotBlank
+    private String clientSecret;
+
+}
@@ -0,0 +1,17 @@
+package com.bank.authservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ServiceTokenResponse {
+    @Schema(description = "JWT access token of the calling service")
+    private String token;
+
+    @Schema(description = "Seconds until the token expires", example = "300")
+    private long expiresInSeconds;
+}
@@ -0,0 +1,22 @@
+package com.bank.authservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of users ordered by username. {@code nextCursor} is an opaque token to
+ * pass as {@code after} to fetch the following page; it is null on the last page.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserPageResponse {
+    @Schema(description = "Users on this page, ordered by username")
+    private List<UserDto> items;
+    @Schema(description = "Cursor for the next page, null on the last page")
+    private String nextCursor;
+}
@@ -1,6 +1,17 @@
 package com.bank.authservice.entity;
 
 public enum Role {
-    USER,
-    ADMIN
-}
\ No newline at end of file
+    USER(1),
+    ADMIN(1 << 1);
+
+    // stored in users.role_mask, so a role's bit must never change once assigned
+    private final int bit;
+
+    Role(int bit) {
+        this.bit = bit;
+    }
+
+    public int bit() {
+        return bit;
+    }
+}
@@ -0,0 +1,40 @@
+package com.bank.authservice.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Stores a user's roles as the OR of their {@link Role#bit()} in one integer
+ * column, so loading a user reads a single row instead of joining {@code user_roles}.
+ */
+@Converter
+public class RoleSetConverter implements AttributeConverter<Set<Role>, Integer> {
+
+    @Override
+    public Integer convertToDatabaseColumn(Set<Role> roles) {
+        int mask = 0;
+        if (roles != null) {
+            for (Role role : roles) {
+                mask |= role.bit();
+            }
+        }
+        return mask;
+    }
+
+    @Override
+    public Set<Role> convertToEntityAttribute(Integer mask) {
+        // mutable, since callers add roles in place
+        Set<Role> roles = EnumSet.noneOf(Role.class);
+        if (mask != null) {
+            for (Role role : Role.values()) {
+                if ((mask & role.bit()) != 0) {
+                    roles.add(role);
+                }
+            }
+        }
+        return roles;
+    }
+}
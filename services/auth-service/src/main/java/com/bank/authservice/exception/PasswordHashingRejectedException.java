@@ -0,0 +1,21 @@
+package com.bank.authservice.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Thrown when a password could not be hashed because the hashing executor is
+ * saturated; the client should retry after {@link #getRetryAfterSeconds()}.
+ */
+@Getter
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    private final HttpStatus status;
+    private final long retryAfterSeconds;
+
+    public PasswordHashingRejectedException(HttpStatus status, long retryAfterSeconds, String message) {
+        super(message);
+        this.status = status;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,18 @@
+package com.bank.authservice.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a login is refused by the login throttle before the password is
+ * checked; the client should retry after {@link #getRetryAfterSeconds()}.
+ */
+@Getter
+public class TooManyLoginAttemptsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyLoginAttemptsException(long retryAfterSeconds) {
+        super("Too many login attempts");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
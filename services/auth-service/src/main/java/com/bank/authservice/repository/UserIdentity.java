@@ -0,0 +1,7 @@
+package com.bank.authservice.repository;
+
+/**
+ * The unique columns of {@code users}, used to detect duplicates before inserting.
+ */
+public record UserIdentity(String username, String email) {
+}
@@ -1,9 +1,14 @@
 package com.bank.authservice.repository;
 
 import com.bank.authservice.entity.UserEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -16,4 +21,19 @@ public interface UserRepository extends JpaRepository<UserEntity, UUID> {
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
+
+    @Query("select new com.bank.authservice.repository.UserIdentity(u.username, u.email) "
+            + "from UserEntity u where u.username in :usernames or u.email in :emails")
+    List<UserIdentity> findIdentities(@Param("usernames") Collection<String> usernames,
+                                      @Param("emails") Collection<String> emails);
+
+    // keyset pages over the unique index on username
+
+    @Query("select new com.bank.authservice.repository.UserSummary(u.id, u.username, u.roles) "
+            + "from UserEntity u order by u.username")
+    List<UserSummary> findSummaries(Pageable pageable);
+
+    @Query("select new com.bank.authservice.repository.UserSummary(u.id, u.username, u.roles) "
+            + "from UserEntity u where u.username > :after order by u.username")
+    List<UserSummary> findSummariesAfter(@Param("after") String after, Pageable pageable);
 }
@@ -0,0 +1,12 @@
+package com.bank.authservice.repository;
+
+import com.bank.authservice.entity.Role;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The columns of {@code users} needed for listings, without the password hash.
+ */
+public record UserSummary(UUID id, String username, Set<Role> roles) {
+}
@@ -0,0 +1,102 @@
+package com.bank.authservice.security;
+
+import com.bank.authservice.entity.Role;
+import com.bank.authservice.service.UserStatusCache;
+import com.bank.authservice.service.UserStatusCache.UserStatus;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Authenticates requests carrying a bearer token. The token is verified once, or
+ * not at all while {@link VerifiedTokenCache} still holds it, and its claims
+ * become the details of the resulting {@code Authentication}.
+ * <p>
+ * Authorities are the roles in the token that the user still holds, so a user
+ * who has been disabled or lost a role stops being authorized once
+ * {@link UserStatusCache} sees the change, even with an unexpired token.
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+    private static final String BEARER = "Bearer ";
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final JwtUtil jwtUtil;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final UserStatusCache userStatusCache;
+
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, VerifiedTokenCache verifiedTokenCache,
+                                   UserStatusCache userStatusCache) {
+        this.jwtUtil = jwtUtil;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.userStatusCache = userStatusCache;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith(BEARER)) {
+            try {
+                Claims claims = verifiedTokenCache.get(authHeader.substring(BEARER.length()), jwtUtil::parseClaims);
+                String username = claims.getSubject();
+                Optional<UserStatus> status = username != null ? userStatusCache.get(username) : Optional.empty();
+                if (status.isPresent() && status.get().enabled()) {
+                    var auth = new UsernamePasswordAuthenticationToken(
+                            username, null, authorities(claims, status.get())
+                    );
+                    auth.setDetails(claims);
+                    SecurityContextHolder.getContext().setAuthentication(auth);
+                }
+            } catch (JwtException | IllegalArgumentException ex) {
+                log.debug("Token JWT inválido ou expirado", ex);
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private static List<GrantedAuthority> authorities(Claims claims, UserStatus status) {
+        String roles = claims.get("roles", String.class);
+        if (roles == null || roles.isBlank()) {
+            return List.of();
+        }
+        List<GrantedAuthority> authorities = new ArrayList<>(2);
+        for (String role : roles.split(",")) {
+            if (!role.isBlank() && holds(status, role)) {
+                authorities.add(new SimpleGrantedAuthority(role));
+            }
+        }
+        return authorities;
+    }
+
+    private static boolean holds(UserStatus status, String role) {
+        String name = role.startsWith(ROLE_PREFIX) ? role.substring(ROLE_PREFIX.length()) : role;
+        for (Role held : status.roles()) {
+            if (held.name().equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -3,59 +3,151 @@ package com.bank.authservice.security;
 import com.bank.authservice.entity.UserEntity;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
 import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.KeyPair;
+import java.security.interfaces.RSAPublicKey;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 @Component
 public class JwtUtil {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtUtil.class);
+
     @Value("${security.jwt.secret:ChangeMeToASecureSecretKey}")
     private String secret;
     @Value("${security.jwt.expirationMs:36000000}")
     private long expirationMs;
+    // HS256 signs with the shared secret; RS256 signs with the RSA key and publishes it as a JWKS
+    @Value("${security.jwt.algorithm:HS256}")
+    private String algorithm;
+    @Value("${security.jwt.rsa.private-key:}")
+    private String rsaPrivateKey;
+    @Value("${security.jwt.rsa.retired-public-keys:}")
+    private List<String> rsaRetiredPublicKeys;
 
     private Key signingKey;
+    private SignatureAlgorithm signatureAlgorithm;
+    // null for HS256, where there is no key to publish
+    private String keyId;
+    private Map<String, Object> jwks;
+    // immutable and thread-safe, so one instance serves every request
+    private JwtParser parser;
 
     @PostConstruct
     public void init() {
+        if (SignatureAlgorithm.RS256.name().equalsIgnoreCase(algorithm)) {
+            initRsa();
+            return;
+        }
         this.signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.signatureAlgorithm = SignatureAlgorithm.HS256;
+        this.keyId = null;
+        this.jwks = Map.of("keys", List.of());
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+
+    private void initRsa() {
+        KeyPair keyPair;
+        if (StringUtils.hasText(rsaPrivateKey)) {
+            keyPair = RsaKeys.readKeyPair(rsaPrivateKey);
+        } else {
+            log.warn("security.jwt.rsa.private-key is not set; signing with a generated key, "
+                    + "so tokens are only valid on this instance until it restarts");
+            keyPair = RsaKeys.generate();
+        }
+        RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
+
+        // the current key signs; retired keys only verify tokens issued before a rotation
+        Map<String, RSAPublicKey> verificationKeys = new LinkedHashMap<>();
+        this.keyId = RsaKeys.thumbprint(publicKey);
+        verificationKeys.put(keyId, publicKey);
+        if (rsaRetiredPublicKeys != null) {
+            rsaRetiredPublicKeys.stream()
+                    .filter(StringUtils::hasText)
+                    .map(RsaKeys::readPublicKey)
+                    .forEach(key -> verificationKeys.putIfAbsent(RsaKeys.thumbprint(key), key));
+        }
+
+        this.signingKey = keyPair.getPrivate();
+        this.signatureAlgorithm = SignatureAlgorithm.RS256;
+        this.jwks = Map.of("keys", verificationKeys.entrySet().stream()
+                .map(entry -> RsaKeys.toJwk(entry.getKey(), entry.getValue()))
+                .toList());
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        // tokens without a known kid, HS256 ones included, are never checked against an RSA key
+                        RSAPublicKey key = verificationKeys.get(header.getKeyId());
+                        if (key == null) {
+                            throw new SignatureException("Unknown signing key: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
+        log.info("Signing tokens with RS256, kid {}", keyId);
     }
 
     public String generateToken(UserEntity user) {
         String rolesClaim = user.getRoles().stream()
                 .map(Enum::name)
                 .collect(Collectors.joining(","));
-        return Jwts.builder()
+        return sign(Jwts.builder()
                 .setSubject(user.getUsername())
                 .addClaims(Map.of("roles", rolesClaim))
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + expirationMs))
-                .signWith(signingKey, SignatureAlgorithm.HS256)
-                .compact();
+                .setExpiration(new Date(System.currentTimeMillis() + expirationMs)));
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(signingKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Token of a service calling on its own behalf; the subject is the client id
+     * rather than a user. See {@link ServiceTokenIssuer}.
+     */
+    public String generateServiceToken(String clientId, long expirationMs) {
+        return sign(Jwts.builder()
+                .setSubject(clientId)
+                .addClaims(Map.of("roles", "SERVICE"))
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + expirationMs)));
+    }
+
+    /**
+     * Verifies the signature and expiry of the token and returns its claims.
+     *
+     * @throws JwtException if the token is malformed, tampered with or expired
+     */
+    public Claims parseClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * The public verification keys as a JWK Set (RFC 7517); empty with HS256.
+     */
+    public Map<String, Object> jwks() {
+        return jwks;
     }
 
     public String extractUsername(String token) {
-        return extractAllClaims(token).getSubject();
+        return parseClaims(token).getSubject();
     }
 
     public String extractRoles(String token) {
-        return (String) extractAllClaims(token).get("roles");
+        return (String) parseClaims(token).get("roles");
     }
 
     public boolean validateToken(String token, UserEntity user) {
@@ -70,20 +162,21 @@ public class JwtUtil {
     }
 
     private boolean isTokenExpired(String token) {
-        return extractAllClaims(token).getExpiration().before(new Date());
+        return parseClaims(token).getExpiration().before(new Date());
     }
 
     String generateToken(UserEntity user, long expirationMs) {
-        return Jwts.builder()
+        return sign(Jwts.builder()
                 .setSubject(user.getUsername())
                 .claim("roles", String.join(",", user.getRoles().stream().map(r -> "ROLE_" + r.name()).toList()))
                 .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expirationMs))
-                .signWith(getKey(), SignatureAlgorithm.HS256)
-                .compact();
+                .setExpiration(new Date(System.currentTimeMillis() + expirationMs)));
     }
 
-    private SecretKey getKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    private String sign(JwtBuilder builder) {
+        if (keyId != null) {
+            builder.setHeaderParam(JwsHeader.KEY_ID, keyId);
+        }
+        return builder.signWith(signingKey, signatureAlgorithm).compact();
     }
-}
\ No newline at end of file
+}
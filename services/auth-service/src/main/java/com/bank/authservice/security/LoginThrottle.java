@@ -0,0 +1,140 @@
+package com.bank.authservice.security;
+
+import com.bank.authservice.exception.TooManyLoginAttemptsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Token buckets per username and per client IP, checked before any password is
+ * hashed so credential-stuffing attempts are turned away for the price of a map
+ * lookup instead of a BCrypt verification.
+ * <p>
+ * Buckets live in bounded caches that drop idle entries; a dropped bucket comes
+ * back full, which is also where it would have refilled to by then. Each bucket
+ * is updated by compare-and-set, so concurrent attempts never block each other.
+ */
+@Component
+public class LoginThrottle {
+
+    private static final Logger log = LoggerFactory.getLogger(LoginThrottle.class);
+
+    private final boolean enabled;
+    private final Limit perUser;
+    private final Limit perIp;
+    private final Cache<String, TokenBucket> userBuckets;
+    private final Cache<String, TokenBucket> ipBuckets;
+    private final Counter throttledByUser;
+    private final Counter throttledByIp;
+
+    public LoginThrottle(
+            MeterRegistry meterRegistry,
+            @Value("${security.login-throttle.enabled:true}") boolean enabled,
+            @Value("${security.login-throttle.per-user.capacity:5}") int userCapacity,
+            @Value("${security.login-throttle.per-user.refill-period:1m}") Duration userRefillPeriod,
+            @Value("${security.login-throttle.per-ip.capacity:20}") int ipCapacity,
+            @Value("${security.login-throttle.per-ip.refill-period:1s}") Duration ipRefillPeriod,
+            @Value("${security.login-throttle.max-keys:100000}") long maxKeys
+    ) {
+        this.enabled = enabled;
+        this.perUser = new Limit(userCapacity, userRefillPeriod.toNanos());
+        this.perIp = new Limit(ipCapacity, ipRefillPeriod.toNanos());
+        this.userBuckets = buckets(perUser, maxKeys);
+        this.ipBuckets = buckets(perIp, maxKeys);
+        this.throttledByUser = throttledCounter(meterRegistry, "user");
+        this.throttledByIp = throttledCounter(meterRegistry, "ip");
+    }
+
+    /**
+     * Takes one attempt from the username and client IP buckets.
+     *
+     * @throws TooManyLoginAttemptsException if either bucket is empty
+     */
+    public void acquire(String username, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        long ipWait = ipBuckets.get(clientIp, key -> new TokenBucket(perIp, now)).tryConsume(perIp, now);
+        if (ipWait > 0) {
+            throttledByIp.increment();
+            log.debug("Login throttled for client {}", clientIp);
+            throw new TooManyLoginAttemptsException(toRetryAfterSeconds(ipWait));
+        }
+        if (username == null) {
+            return;
+        }
+        long userWait = userBuckets.get(username, key -> new TokenBucket(perUser, now)).tryConsume(perUser, now);
+        if (userWait > 0) {
+            throttledByUser.increment();
+            log.debug("Login throttled for user '{}'", username);
+            throw new TooManyLoginAttemptsException(toRetryAfterSeconds(userWait));
+        }
+    }
+
+    private static Cache<String, TokenBucket> buckets(Limit limit, long maxKeys) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                // by then the bucket would have refilled completely anyway
+                .expireAfterAccess(Duration.ofNanos(limit.refillNanos() * limit.capacity()))
+                .build();
+    }
+
+    private static Counter throttledCounter(MeterRegistry meterRegistry, String scope) {
+        return Counter.builder("auth.login.throttled")
+                .description("Login attempts rejected before password verification")
+                .tag("scope", scope)
+                .register(meterRegistry);
+    }
+
+    private static long toRetryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    /**
+     * Up to {@code capacity} attempts at once, one more every {@code refillNanos}.
+     */
+    record Limit(int capacity, long refillNanos) {
+    }
+
+    static final class TokenBucket {
+
+        private final AtomicReference<State> state;
+
+        TokenBucket(Limit limit, long now) {
+            this.state = new AtomicReference<>(new State(limit.capacity(), now));
+        }
+
+        /**
+         * Returns 0 if a token was taken, otherwise the nanoseconds until one is available.
+         */
+        long tryConsume(Limit limit, long now) {
+            while (true) {
+                State current = state.get();
+                long elapsed = Math.max(0, now - current.updatedAt());
+                long refilled = Math.min(limit.capacity(), current.tokens() + elapsed / limit.refillNanos());
+                // keep the remainder of a partially refilled token
+                long updatedAt = refilled == limit.capacity() ? now : current.updatedAt()
+                        + (refilled - current.tokens()) * limit.refillNanos();
+                if (refilled == 0) {
+                    return limit.refillNanos() - (now - updatedAt);
+                }
+                if (state.compareAndSet(current, new State(refilled - 1, updatedAt))) {
+                    return 0;
+                }
+            }
+        }
+
+        private record State(long tokens, long updatedAt) {
+        }
+    }
+}
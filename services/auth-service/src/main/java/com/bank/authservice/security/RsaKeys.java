@@ -0,0 +1,108 @@
+package com.bank.authservice.security;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.interfaces.RSAPrivateCrtKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * PEM parsing and JWK (RFC 7517) encoding of RSA keys, without pulling in a JOSE library.
+ */
+final class RsaKeys {
+
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+
+    private RsaKeys() {
+    }
+
+    static KeyPair generate() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Cannot generate RSA key pair", ex);
+        }
+    }
+
+    /**
+     * Reads a PKCS#8 ({@code BEGIN PRIVATE KEY}) RSA key and derives its public half.
+     */
+    static KeyPair readKeyPair(String pem) {
+        try {
+            KeyFactory factory = KeyFactory.getInstance("RSA");
+            RSAPrivateCrtKey privateKey = (RSAPrivateCrtKey) factory.generatePrivate(
+                    new PKCS8EncodedKeySpec(decodePem(pem)));
+            RSAPublicKey publicKey = (RSAPublicKey) factory.generatePublic(
+                    new RSAPublicKeySpec(privateKey.getModulus(), privateKey.getPublicExponent()));
+            return new KeyPair(publicKey, privateKey);
+        } catch (GeneralSecurityException | ClassCastException ex) {
+            throw new IllegalStateException("security.jwt.rsa.private-key is not a PKCS#8 RSA private key", ex);
+        }
+    }
+
+    /**
+     * Reads an X.509 ({@code BEGIN PUBLIC KEY}) RSA key.
+     */
+    static RSAPublicKey readPublicKey(String pem) {
+        try {
+            return (RSAPublicKey) KeyFactory.getInstance("RSA")
+                    .generatePublic(new X509EncodedKeySpec(decodePem(pem)));
+        } catch (GeneralSecurityException | ClassCastException ex) {
+            throw new IllegalStateException("Not an X.509 RSA public key", ex);
+        }
+    }
+
+    /**
+     * RFC 7638 thumbprint, used as the {@code kid}: stable for a key and different for every other key.
+     */
+    static String thumbprint(RSAPublicKey key) {
+        String canonical = "{\"e\":\"" + encode(key.getPublicExponent())
+                + "\",\"kty\":\"RSA\",\"n\":\"" + encode(key.getModulus()) + "\"}";
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return BASE64URL.encodeToString(digest);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    static Map<String, Object> toJwk(String kid, RSAPublicKey key) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kty", "RSA");
+        jwk.put("use", "sig");
+        jwk.put("alg", "RS256");
+        jwk.put("kid", kid);
+        jwk.put("n", encode(key.getModulus()));
+        jwk.put("e", encode(key.getPublicExponent()));
+        return jwk;
+    }
+
+    private static byte[] decodePem(String pem) {
+        String body = pem.replaceAll("-----[A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(body);
+    }
+
+    /**
+     * Unsigned big-endian bytes, as JWK requires; {@link BigInteger#toByteArray()} may add a sign byte.
+     */
+    private static String encode(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return BASE64URL.encodeToString(bytes);
+    }
+}
@@ -1,40 +1,24 @@
 package com.bank.authservice.security;
 
-import com.bank.authservice.service.UserService;
-import jakarta.servlet.FilterChain;
-import jakarta.servlet.ServletException;
-import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpServletResponse;
+import com.bank.authservice.service.UserStatusCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
-import org.springframework.web.filter.OncePerRequestFilter;
-
-import java.io.IOException;
-import java.util.Arrays;
-import java.util.stream.Collectors;
 
 @Configuration
 @EnableMethodSecurity
 @RequiredArgsConstructor
 public class SecurityConfig {
 
-    private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
-
     private final JwtUtil jwtUtil;
-    private final UserService userService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final UserStatusCache userStatusCache;
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
@@ -44,7 +28,9 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(
                                 new AntPathRequestMatcher("/api/auth/login"),
-                                new AntPathRequestMatcher("/api/auth/register")
+                                new AntPathRequestMatcher("/api/auth/register"),
+                                new AntPathRequestMatcher("/api/auth/service-token"),
+                                new AntPathRequestMatcher("/.well-known/jwks.json")
                         ).permitAll()
                         .requestMatchers(
                                 new AntPathRequestMatcher("/v3/api-docs/**"),
@@ -61,39 +47,7 @@ public class SecurityConfig {
     }
 
     @Bean
-    public OncePerRequestFilter jwtAuthenticationFilter() {
-        return new OncePerRequestFilter() {
-            @Override
-            protected void doFilterInternal(
-                    HttpServletRequest request,
-                    HttpServletResponse response,
-                    FilterChain filterChain
-            ) throws ServletException, IOException {
-
-                String authHeader = request.getHeader("Authorization");
-                if (authHeader != null && authHeader.startsWith("Bearer ")) {
-                    String token = authHeader.substring(7);
-                    try {
-                        String username = jwtUtil.extractUsername(token);
-                        var userOpt = userService.findByUsername(username);
-                        if (userOpt.isPresent() && jwtUtil.validateToken(token, userOpt.get())) {
-                            var authorities = Arrays.stream(jwtUtil.extractRoles(token).split(","))
-                                    .filter(s -> !s.isBlank())
-                                    .map(SimpleGrantedAuthority::new)
-                                    .collect(Collectors.toList());
-
-                            Authentication auth = new UsernamePasswordAuthenticationToken(
-                                    username, null, authorities
-                            );
-                            SecurityContextHolder.getContext().setAuthentication(auth);
-                        }
-                    } catch (Exception ex) {
-                        log.debug("Token JWT inválido ou expirado", ex);
-                    }
-                }
-
-                filterChain.doFilter(request, response);
-            }
-        };
+    public JwtAuthenticationFilter jwtAuthenticationFilter() {
+        return new JwtAuthenticationFilter(jwtUtil, verifiedTokenCache, userStatusCache);
     }
 }
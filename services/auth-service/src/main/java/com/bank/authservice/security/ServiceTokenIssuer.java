@@ -0,0 +1,64 @@
+package com.bank.authservice.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Issues short-lived tokens to other services for the calls they make on their own
+ * behalf, outside any user request, such as transaction-service's outbox
+ * dispatcher. Clients are configured as {@code clientId:secret} pairs in
+ * {@code security.service-clients.credentials}; with none configured every
+ * request is refused.
+ */
+@Component
+public class ServiceTokenIssuer {
+
+    private final JwtUtil jwtUtil;
+    private final Map<String, byte[]> secrets = new HashMap<>();
+    private final Duration tokenTtl;
+
+    public ServiceTokenIssuer(
+            JwtUtil jwtUtil,
+            @Value("${security.service-clients.credentials:}") List<String> credentials,
+            @Value("${security.service-clients.token-ttl:5m}") Duration tokenTtl
+    ) {
+        this.jwtUtil = jwtUtil;
+        this.tokenTtl = tokenTtl;
+        for (String credential : credentials) {
+            if (!StringUtils.hasText(credential)) {
+                continue;
+            }
+            int separator = credential.indexOf(':');
+            if (separator <= 0 || separator == credential.length() - 1) {
+                throw new IllegalArgumentException("security.service-clients.credentials entries must be clientId:secret");
+            }
+            secrets.put(credential.substring(0, separator).trim(),
+                    credential.substring(separator + 1).trim().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * @throws BadCredentialsException for an unknown client or a wrong secret
+     */
+    public String issue(String clientId, String clientSecret) {
+        byte[] expected = secrets.get(clientId);
+        // constant-time comparison, so response times do not reveal how much of the secret matched
+        if (expected == null || !MessageDigest.isEqual(expected, clientSecret.getBytes(StandardCharsets.UTF_8))) {
+            throw new BadCredentialsException("Invalid client credentials");
+        }
+        return jwtUtil.generateServiceToken(clientId, tokenTtl.toMillis());
+    }
+
+    public Duration tokenTtl() {
+        return tokenTtl;
+    }
+}
@@ -1,8 +1,11 @@
 package com.bank.authservice.service;
 
 import com.bank.authservice.entity.UserEntity;
+import com.bank.authservice.exception.PasswordHashingRejectedException;
 import com.bank.authservice.security.JwtUtil;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -10,6 +13,9 @@ import org.springframework.stereotype.Service;
 @Service
 @RequiredArgsConstructor
 public class AuthenticationService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthenticationService.class);
+
     private final UserService userService;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
@@ -20,6 +26,24 @@ public class AuthenticationService {
         if (!passwordEncoder.matches(rawPassword, user.getPassword())) {
             throw new BadCredentialsException("Invalid username or password");
         }
+        upgradePasswordHash(user, rawPassword);
         return jwtUtil.generateToken(user);
     }
-}
\ No newline at end of file
+
+    /**
+     * Re-hashes the password with the current BCrypt cost when the stored hash is
+     * weaker. The raw password is only available at login, so this is the one
+     * chance to do it; it is skipped when the hashing executor is saturated.
+     */
+    private void upgradePasswordHash(UserEntity user, String rawPassword) {
+        if (!passwordEncoder.upgradeEncoding(user.getPassword())) {
+            return;
+        }
+        try {
+            userService.updatePasswordHash(user, passwordEncoder.encode(rawPassword));
+            log.info("Password hash upgraded for user '{}'", user.getUsername());
+        } catch (PasswordHashingRejectedException ex) {
+            log.debug("Password hash upgrade for user '{}' postponed: {}", user.getUsername(), ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.bank.authservice.service;
+
+import com.bank.authservice.dto.BulkRegisterOutcome;
+import com.bank.authservice.dto.BulkRegisterResponse;
+import com.bank.authservice.dto.BulkRegisterResult;
+import com.bank.authservice.dto.RegisterRequestDto;
+import com.bank.authservice.dto.UserDto;
+import com.bank.authservice.entity.Role;
+import com.bank.authservice.entity.UserEntity;
+import com.bank.authservice.repository.UserIdentity;
+import com.bank.authservice.repository.UserRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Registers many users in one call, e.g. when onboarding a corporate client.
+ * <p>
+ * Rows are processed in chunks. For each chunk, existing usernames and emails are
+ * found with one set-based query, so passwords of duplicates are never hashed.
+ * The remaining passwords are hashed {@code hash-parallelism} at a time through
+ * the shared {@link PasswordEncoder}, which keeps its own bounded executor, so a
+ * bulk import cannot take every hashing thread away from logins. The new users of
+ * a chunk are inserted in one short transaction using JDBC batching. If a
+ * concurrent registration takes one of the names first, the insert is retried
+ * once against a fresh duplicate check; if that fails too, the chunk's rows are
+ * reported as FAILED and the rest of the batch goes on.
+ */
+@Service
+public class BulkUserService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkUserService.class);
+
+    private static final int SQL_CHUNK_SIZE = 1000;
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxItems;
+    private final int hashParallelism;
+
+    public BulkUserService(
+            UserRepository userRepository,
+            PasswordEncoder passwordEncoder,
+            Validator validator,
+            PlatformTransactionManager transactionManager,
+            @Value("${security.bulk-register.max-items:5000}") int maxItems,
+            // 0 = half the CPUs, leaving the other half of the hashing threads for logins
+            @Value("${security.bulk-register.hash-parallelism:0}") int hashParallelism
+    ) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxItems = maxItems;
+        this.hashParallelism = hashParallelism > 0
+                ? hashParallelism
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public BulkRegisterResponse register(List<RegisterRequestDto> requests) {
+        if (requests.size() > maxItems) {
+            throw new IllegalArgumentException("Batch exceeds the maximum of " + maxItems + " users");
+        }
+        BulkRegisterResult[] results = new BulkRegisterResult[requests.size()];
+        List<Integer> accepted = validate(requests, results);
+
+        for (int from = 0; from < accepted.size(); from += SQL_CHUNK_SIZE) {
+            provision(requests, accepted.subList(from, Math.min(from + SQL_CHUNK_SIZE, accepted.size())), results);
+        }
+
+        long created = Arrays.stream(results).filter(r -> r.getOutcome() == BulkRegisterOutcome.CREATED).count();
+        long failed = Arrays.stream(results).filter(r -> r.getOutcome() == BulkRegisterOutcome.FAILED).count();
+        log.info("Bulk registration of {} users: {} created, {} rejected, {} failed",
+                requests.size(), created, requests.size() - created - failed, failed);
+        return new BulkRegisterResponse(Arrays.asList(results));
+    }
+
+    /**
+     * Rejects rows failing the {@link RegisterRequestDto} constraints and rows
+     * repeating a username or email of an earlier row, and returns the indexes of
+     * the others.
+     */
+    private List<Integer> validate(List<RegisterRequestDto> requests, BulkRegisterResult[] results) {
+        List<Integer> accepted = new ArrayList<>();
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (int i = 0; i < requests.size(); i++) {
+            RegisterRequestDto request = requests.get(i);
+            if (request == null) {
+                results[i] = new BulkRegisterResult(null, BulkRegisterOutcome.REJECTED, null, "Row is empty");
+                continue;
+            }
+            // an invalid row does not claim its username or email
+            String error = violations(request);
+            if (error == null && !usernames.add(request.getUsername())) {
+                error = "Duplicate username in batch";
+            } else if (error == null && !emails.add(request.getEmail())) {
+                error = "Duplicate email in batch";
+            }
+            if (error != null) {
+                results[i] = rejected(request, error);
+            } else {
+                accepted.add(i);
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * The constraint violations of {@code request} as {@code "field: message"}, or
+     * null when it is valid. Messages never include the rejected value, so a
+     * password is not echoed back.
+     */
+    private String violations(RegisterRequestDto request) {
+        Set<ConstraintViolation<RegisterRequestDto>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void provision(List<RegisterRequestDto> requests, List<Integer> chunk, BulkRegisterResult[] results) {
+        Map<Integer, String> hashes = hash(requests, withoutExisting(requests, chunk, results), results);
+        if (hashes.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(requests, hashes, results));
+        } catch (DataIntegrityViolationException ex) {
+            log.warn("Username or email conflict while inserting bulk users, retrying once");
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    List<Integer> remaining = withoutExisting(requests, new ArrayList<>(hashes.keySet()), results);
+                    hashes.keySet().retainAll(remaining);
+                    insert(requests, hashes, results);
+                });
+            } catch (DataIntegrityViolationException retryEx) {
+                log.warn("Bulk insert of {} users failed again, reporting them as failed", hashes.size(), retryEx);
+                for (Integer index : hashes.keySet()) {
+                    results[index] = new BulkRegisterResult(requests.get(index).getUsername(),
+                            BulkRegisterOutcome.FAILED, null, "Could not be inserted, resubmit the row");
+                }
+            }
+        }
+    }
+
+    /**
+     * Rejects rows whose username or email already exists, with one query for the
+     * whole chunk, and returns the indexes of the others.
+     */
+    private List<Integer> withoutExisting(List<RegisterRequestDto> requests, List<Integer> indexes,
+                                          BulkRegisterResult[] results) {
+        if (indexes.isEmpty()) {
+            return indexes;
+        }
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (Integer index : indexes) {
+            usernames.add(requests.get(index).getUsername());
+            emails.add(requests.get(index).getEmail());
+        }
+        Set<String> existingUsernames = new HashSet<>();
+        Set<String> existingEmails = new HashSet<>();
+        for (UserIdentity existing : userRepository.findIdentities(usernames, emails)) {
+            existingUsernames.add(existing.username());
+            existingEmails.add(existing.email());
+        }
+
+        List<Integer> remaining = new ArrayList<>();
+        for (Integer index : indexes) {
+            RegisterRequestDto request = requests.get(index);
+            if (existingUsernames.contains(request.getUsername())) {
+                results[index] = rejected(request, "Username already exists");
+            } else if (existingEmails.contains(request.getEmail())) {
+                results[index] = rejected(request, "Email already exists");
+            } else {
+                remaining.add(index);
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * Hashes the passwords of {@code indexes}, at most {@code hashParallelism} at a
+     * time. A row whose hash is refused, e.g. because logins saturate the hashing
+     * executor, is rejected and can be resubmitted.
+     */
+    private Map<Integer, String> hash(List<RegisterRequestDto> requests, List<Integer> indexes,
+                                      BulkRegisterResult[] results) {
+        Map<Integer, Future<String>> pending = new LinkedHashMap<>();
+        // the threads only wait on the encoder's executor, so virtual threads are enough
+        try (ExecutorService executor = Executors.newFixedThreadPool(hashParallelism,
+                Thread.ofVirtual().name("bulk-register-", 0).factory())) {
+            for (Integer index : indexes) {
+                String password = requests.get(index).getPassword();
+                pending.put(index, executor.submit(() -> passwordEncoder.encode(password)));
+            }
+        }
+
+        Map<Integer, String> hashes = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Future<String>> entry : pending.entrySet()) {
+            try {
+                hashes.put(entry.getKey(), entry.getValue().get());
+            } catch (ExecutionException ex) {
+                results[entry.getKey()] = rejected(requests.get(entry.getKey()),
+                        "Password could not be hashed: " + ex.getCause().getMessage());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while hashing passwords", ex);
+            }
+        }
+        return hashes;
+    }
+
+    private void insert(List<RegisterRequestDto> requests, Map<Integer, String> hashes, BulkRegisterResult[] results) {
+        Map<Integer, UserEntity> users = new LinkedHashMap<>();
+        for (Map.Entry<Integer, String> entry : hashes.entrySet()) {
+            RegisterRequestDto request = requests.get(entry.getKey());
+            // the id is left to Hibernate, so saveAll persists instead of merging with a select per row
+            UserEntity user = new UserEntity();
+            user.setUsername(request.getUsername());
+            user.setEmail(request.getEmail());
+            user.setPassword(entry.getValue());
+            user.setRoles(EnumSet.of(Role.USER));
+            user.setEnabled(true);
+            users.put(entry.getKey(), user);
+        }
+        userRepository.saveAll(users.values());
+        userRepository.flush();
+
+        for (Map.Entry<Integer, UserEntity> entry : users.entrySet()) {
+            UserEntity user = entry.getValue();
+            results[entry.getKey()] = new BulkRegisterResult(user.getUsername(), BulkRegisterOutcome.CREATED,
+                    new UserDto(user.getId().toString(), user.getUsername(), user.getRoles()), null);
+        }
+    }
+
+    private static BulkRegisterResult rejected(RegisterRequestDto request, String error) {
+        return new BulkRegisterResult(request.getUsername(), BulkRegisterOutcome.REJECTED, null, error);
+    }
+}
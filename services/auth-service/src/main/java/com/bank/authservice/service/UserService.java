@@ -3,10 +3,14 @@ package com.bank.authservice.service;
 import com.bank.authservice.entity.Role;
 import com.bank.authservice.dto.RegisterRequestDto;
 import com.bank.authservice.dto.UserDto;
+import com.bank.authservice.dto.UserPageResponse;
 import com.bank.authservice.entity.UserEntity;
 import com.bank.authservice.repository.UserRepository;
+import com.bank.authservice.repository.UserSummary;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -14,6 +18,9 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -26,6 +33,7 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserStatusCache userStatusCache;
 
     public Optional<UserEntity> findByUsername(String username) {
         return userRepository.findByUsername(username);
@@ -50,16 +58,37 @@ public class UserService {
         return new UserDto(user.getId().toString(), user.getUsername(), roles);
     }
 
+    /**
+     * Returns up to {@code limit} users ordered by username, starting after the
+     * {@code after} cursor of the previous page. Only id, username and the role mask
+     * are read from {@code users}, in one index-ordered query, so the cost of a page
+     * does not depend on how many users exist.
+     *
+     * @throws IllegalArgumentException if {@code after} is not a cursor returned by this method
+     */
     @PreAuthorize("hasAuthority('ADMIN')")
-    public List<UserDto> listUsers(Authentication authentication) {
+    public UserPageResponse listUsers(Authentication authentication, String after, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page limit must be positive");
+        }
+        // one extra row tells whether another page follows
+        Pageable page = PageRequest.ofSize(limit + 1);
+        List<UserSummary> rows = after == null
+                ? userRepository.findSummaries(page)
+                : userRepository.findSummariesAfter(decodeCursor(after), page);
+
+        boolean hasMore = rows.size() > limit;
+        List<UserSummary> items = hasMore ? rows.subList(0, limit) : rows;
 
-        return findAll().stream()
+        List<UserDto> dtos = items.stream()
                 .map(user -> new UserDto(
-                        user.getId().toString(),
-                        user.getUsername(),
-                        user.getRoles()
+                        user.id().toString(),
+                        user.username(),
+                        user.roles()
                 ))
                 .toList();
+        String nextCursor = hasMore ? encodeCursor(items.get(limit - 1).username()) : null;
+        return new UserPageResponse(dtos, nextCursor);
     }
 
     @Transactional
@@ -91,6 +120,12 @@ public class UserService {
     }
 
 
+    @Transactional
+    public void updatePasswordHash(UserEntity user, String passwordHash) {
+        user.setPassword(passwordHash);
+        userRepository.save(user);
+    }
+
     @Transactional
     @PreAuthorize("hasAuthority('ADMIN')")
     public void promoteToAdmin(UUID userId) {
@@ -101,7 +136,23 @@ public class UserService {
             return;
         }
 
-        user.getRoles().add(Role.ADMIN);
+        // a new set rather than an in-place add, so the converted role_mask is always seen as dirty
+        Set<Role> roles = EnumSet.of(Role.ADMIN);
+        roles.addAll(user.getRoles());
+        user.setRoles(roles);
         userRepository.save(user);
+        userStatusCache.evict(user.getUsername());
+    }
+
+    private static String encodeCursor(String username) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(username.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid pagination cursor", ex);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.bank.authservice.service;
+
+import com.bank.authservice.entity.Role;
+import com.bank.authservice.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Short-lived cache of whether a user exists, is enabled and which roles it holds,
+ * so authenticating a request does not query the database every time.
+ * <p>
+ * Changes made through {@link UserService} evict the entry right away; anything
+ * else (another instance, a manual update) is picked up within {@code ttl}.
+ */
+@Component
+public class UserStatusCache {
+
+    private final LoadingCache<String, Optional<UserStatus>> statuses;
+
+    public UserStatusCache(
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${security.user-status-cache.ttl:30s}") Duration ttl,
+            @Value("${security.user-status-cache.max-size:10000}") long maxSize
+    ) {
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(username -> userRepository.findByUsername(username)
+                        .map(user -> new UserStatus(user.isEnabled(), Set.copyOf(user.getRoles()))));
+        CaffeineCacheMetrics.monitor(meterRegistry, statuses, "auth.user.status");
+    }
+
+    /**
+     * Status of the user, or empty when no such user exists.
+     */
+    public Optional<UserStatus> get(String username) {
+        return statuses.get(username);
+    }
+
+    public void evict(String username) {
+        statuses.invalidate(username);
+    }
+
+    public record UserStatus(boolean enabled, Set<Role> roles) {
+    }
+}
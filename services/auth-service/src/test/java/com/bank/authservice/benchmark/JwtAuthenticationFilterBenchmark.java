@@ -0,0 +1,189 @@
+package com.bank.authservice.benchmark;
+
+import com.bank.authservice.entity.Role;
+import com.bank.authservice.entity.UserEntity;
+import com.bank.authservice.repository.UserRepository;
+import com.bank.authservice.security.JwtAuthenticationFilter;
+import com.bank.authservice.security.JwtUtil;
+import com.bank.authservice.security.VerifiedTokenCache;
+import com.bank.authservice.service.UserService;
+import com.bank.authservice.service.UserStatusCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.security.Key;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compares the parse-once {@link JwtAuthenticationFilter} against the filter it
+ * replaced, which verified the token four times with a freshly built parser each
+ * time and looked the user up on every request.
+ * <p>
+ * The user lookup is a mock here, so the database round trip the old filter paid
+ * per request is not part of its score; the real difference is larger.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test -Dtest=JwtAuthenticationFilterBenchmark}.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final String SECRET = "ChangeMeToASecureSecretKeyChangeMeToASecureSecretKey";
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private OncePerRequestFilter previousFilter;
+    private JwtAuthenticationFilter parseOnceFilter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        UserEntity user = new UserEntity();
+        user.setId(UUID.randomUUID());
+        user.setUsername("cristian");
+        user.setRoles(new HashSet<>(Set.of(Role.USER, Role.ADMIN)));
+
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expirationMs", 3_600_000L);
+        jwtUtil.init();
+
+        UserService userService = mock(UserService.class);
+        when(userService.findByUsername(anyString())).thenReturn(Optional.of(user));
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(user));
+
+        previousFilter = new PreviousJwtFilter(Keys.hmacShaKeyFor(SECRET.getBytes()), userService);
+        // verified-token cache off: this compares verification work, see TokenReuseBenchmark for the cache
+        parseOnceFilter = new JwtAuthenticationFilter(jwtUtil,
+                new VerifiedTokenCache(new SimpleMeterRegistry(), false, 1, Duration.ofMinutes(1)),
+                new UserStatusCache(userRepository, new SimpleMeterRegistry(), Duration.ofMinutes(1), 100));
+
+        request = new MockHttpServletRequest("GET", "/api/users/me");
+        request.addHeader("Authorization", "Bearer " + jwtUtil.generateToken(user));
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Authentication previousFilter() throws ServletException, IOException {
+        return run(previousFilter);
+    }
+
+    @Benchmark
+    public Authentication parseOnceFilter() throws ServletException, IOException {
+        return run(parseOnceFilter);
+    }
+
+    private Authentication run(OncePerRequestFilter filter) throws ServletException, IOException {
+        try {
+            filter.doFilter(request, response, NO_OP_CHAIN);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Test
+    void runBenchmarks() throws RunnerException {
+        new Runner(JmhOptions.forBenchmark(JwtAuthenticationFilterBenchmark.class)).run();
+    }
+
+    /**
+     * The filter as it was before, including the per-call parser of the old
+     * {@code JwtUtil}: extractUsername, validateToken (extractUsername and
+     * isTokenExpired) and extractRoles each parse and verify the token again.
+     */
+    private static final class PreviousJwtFilter extends OncePerRequestFilter {
+
+        private final Key key;
+        private final UserService userService;
+
+        PreviousJwtFilter(Key key, UserService userService) {
+            this.key = key;
+            this.userService = userService;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                        FilterChain filterChain) throws ServletException, IOException {
+            String authHeader = request.getHeader("Authorization");
+            if (authHeader != null && authHeader.startsWith("Bearer ")) {
+                String token = authHeader.substring(7);
+                try {
+                    String username = parse(token).getSubject();
+                    var userOpt = userService.findByUsername(username);
+                    if (userOpt.isPresent() && validate(token, userOpt.get())) {
+                        var authorities = Arrays.stream(((String) parse(token).get("roles")).split(","))
+                                .filter(s -> !s.isBlank())
+                                .map(SimpleGrantedAuthority::new)
+                                .collect(Collectors.toList());
+                        SecurityContextHolder.getContext().setAuthentication(
+                                new UsernamePasswordAuthenticationToken(username, null, authorities));
+                    }
+                } catch (Exception ex) {
+                    // invalid token: leave the request unauthenticated
+                }
+            }
+            filterChain.doFilter(request, response);
+        }
+
+        private boolean validate(String token, UserEntity user) {
+            return parse(token).getSubject().equals(user.getUsername())
+                    && !parse(token).getExpiration().before(new Date());
+        }
+
+        private Claims parse(String token) {
+            return Jwts.parserBuilder()
+                    .setSigningKey(key)
+                    .build()
+                    .parseClaimsJws(token)
+                    .getBody();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.bank.authservice.benchmark;
+
+import com.bank.authservice.entity.Role;
+import com.bank.authservice.entity.UserEntity;
+import com.bank.authservice.repository.UserRepository;
+import com.bank.authservice.security.JwtAuthenticationFilter;
+import com.bank.authservice.security.JwtUtil;
+import com.bank.authservice.security.VerifiedTokenCache;
+import com.bank.authservice.service.UserStatusCache;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cost of each step of the token path, which runs on every authenticated request
+ * in the system: issuing a token at login, verifying it, the {@code validateToken}
+ * and {@code extractRoles} helpers, and the whole {@link JwtAuthenticationFilter}.
+ * Each is measured with the HS256 secret and with an RS256 key, so the price of
+ * switching {@code security.jwt.algorithm} is visible.
+ * <p>
+ * The filter runs with the verified-token cache off, so every request pays for
+ * verification, and with the user lookup behind {@link UserStatusCache} mocked.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test -Dtest=JwtUtilBenchmark}; scores and
+ * allocation per operation go to {@code target/jmh/JwtUtilBenchmark.json}.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    @Param({"HS256", "RS256"})
+    public String algorithm;
+
+    private JwtUtil jwtUtil;
+    private JwtAuthenticationFilter filter;
+    private UserEntity user;
+    private String token;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        user = new UserEntity();
+        user.setId(UUID.randomUUID());
+        user.setUsername("cristian");
+        user.setRoles(EnumSet.of(Role.USER, Role.ADMIN));
+        user.setEnabled(true);
+
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "ChangeMeToASecureSecretKeyChangeMeToASecureSecretKey");
+        ReflectionTestUtils.setField(jwtUtil, "expirationMs", 3_600_000L);
+        // RS256 without a configured key signs with a generated one, which is all a benchmark needs
+        ReflectionTestUtils.setField(jwtUtil, "algorithm", algorithm);
+        ReflectionTestUtils.setField(jwtUtil, "rsaPrivateKey", "");
+        jwtUtil.init();
+
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(user));
+        filter = new JwtAuthenticationFilter(jwtUtil,
+                new VerifiedTokenCache(new SimpleMeterRegistry(), false, 1, Duration.ofMinutes(1)),
+                new UserStatusCache(userRepository, new SimpleMeterRegistry(), Duration.ofMinutes(1), 100));
+
+        token = jwtUtil.generateToken(user);
+        request = new MockHttpServletRequest("GET", "/api/users/me");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public Claims parseClaims() {
+        return jwtUtil.parseClaims(token);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token, user);
+    }
+
+    @Benchmark
+    public String extractRoles() {
+        return jwtUtil.extractRoles(token);
+    }
+
+    @Benchmark
+    public Authentication filter() throws ServletException, IOException {
+        try {
+            filter.doFilter(request, response, NO_OP_CHAIN);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Test
+    void runBenchmarks() throws RunnerException {
+        new Runner(JmhOptions.forBenchmark(JwtUtilBenchmark.class)).run();
+    }
+}
@@ -0,0 +1,196 @@
+package com.bank.authservice.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compares the old role storage (an EAGER {@code user_roles} collection) with the
+ * {@code users.role_mask} column on a Postgres table shaped like {@code users}:
+ * latency of the SQL {@code UserRepository.findByUsername} issues, and on-disk
+ * size per user including indexes.
+ * <p>
+ * With the collection, Hibernate runs the user query and then a second query for
+ * its roles; with the mask it is one query on one row. Needs a disposable Postgres
+ * database:
+ * <pre>
+ * mvn -Pbenchmark test -Dtest=RoleStorageBenchmark \
+ *     -Dbenchmark.jdbcUrl=jdbc:postgresql://localhost:5432/bench?reWriteBatchedInserts=true \
+ *     -Dbenchmark.users=1000000
+ * </pre>
+ * Skipped when no URL is given.
+ */
+@Tag("benchmark")
+class RoleStorageBenchmark {
+
+    private static final String JDBC_URL = System.getProperty("benchmark.jdbcUrl");
+    private static final String USER = System.getProperty("benchmark.user", "postgres");
+    private static final String PASSWORD = System.getProperty("benchmark.password", "postgres");
+    private static final int USERS = Integer.getInteger("benchmark.users", 500_000);
+    private static final int LOOKUPS = Integer.getInteger("benchmark.lookups", 100_000);
+    private static final int WARMUP = Math.max(LOOKUPS / 10, 1_000);
+    private static final int BATCH_SIZE = 1_000;
+
+    private static final String USER_COLUMNS = "id uuid primary key, username varchar(60) not null unique, "
+            + "email varchar(120) not null unique, password_hash varchar(255) not null, "
+            + "enabled boolean not null, created_at timestamp not null";
+
+    @Test
+    void compareRoleTableAndRoleMask() throws Exception {
+        assumeTrue(JDBC_URL != null, "set -Dbenchmark.jdbcUrl to run");
+        try (Connection connection = DriverManager.getConnection(JDBC_URL, USER, PASSWORD)) {
+            connection.setAutoCommit(false);
+
+            createTables(connection);
+            load(connection);
+
+            Result table = measure(connection, "user_roles table",
+                    new String[]{"bench_users_before", "bench_user_roles"},
+                    "select id, username, email, password_hash, enabled, created_at "
+                            + "from bench_users_before where username = ?",
+                    "select role from bench_user_roles where user_id = ?");
+            Result mask = measure(connection, "role_mask",
+                    new String[]{"bench_users_after"},
+                    "select id, username, email, password_hash, enabled, created_at, role_mask "
+                            + "from bench_users_after where username = ?",
+                    null);
+
+            System.out.printf("%n%,d users, %,d lookups after %,d warm-up%n", USERS, LOOKUPS, WARMUP);
+            System.out.printf("%-18s %10s %10s %10s %14s %12s%n",
+                    "layout", "p50 us", "p99 us", "mean us", "bytes/user", "total MB");
+            table.print();
+            mask.print();
+        }
+    }
+
+    private static void createTables(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists bench_user_roles");
+            statement.execute("drop table if exists bench_users_before");
+            statement.execute("drop table if exists bench_users_after");
+            statement.execute("create table bench_users_before (" + USER_COLUMNS + ")");
+            // what Hibernate generates for the Set<Role> @ElementCollection
+            statement.execute("create table bench_user_roles (user_id uuid not null references bench_users_before, "
+                    + "role varchar(255) not null, primary key (user_id, role))");
+            statement.execute("create table bench_users_after (" + USER_COLUMNS
+                    + ", role_mask integer default 0 not null)");
+        }
+        connection.commit();
+    }
+
+    private static void load(Connection connection) throws SQLException {
+        String userColumns = "(id, username, email, password_hash, enabled, created_at";
+        String hash = "$2a$10$" + "x".repeat(53);
+        try (PreparedStatement before = connection.prepareStatement(
+                "insert into bench_users_before " + userColumns + ") values (?, ?, ?, ?, ?, ?)");
+             PreparedStatement roles = connection.prepareStatement(
+                     "insert into bench_user_roles (user_id, role) values (?, ?)");
+             PreparedStatement after = connection.prepareStatement(
+                     "insert into bench_users_after " + userColumns + ", role_mask) values (?, ?, ?, ?, ?, ?, ?)")) {
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            for (int i = 1; i <= USERS; i++) {
+                UUID id = UUID.randomUUID();
+                // one user in a hundred is also an admin
+                boolean admin = i % 100 == 0;
+                for (PreparedStatement insert : new PreparedStatement[]{before, after}) {
+                    insert.setObject(1, id);
+                    insert.setString(2, "user-" + i);
+                    insert.setString(3, "user-" + i + "@bank.local");
+                    insert.setString(4, hash);
+                    insert.setBoolean(5, true);
+                    insert.setTimestamp(6, now);
+                }
+                after.setInt(7, admin ? 3 : 1);
+                before.addBatch();
+                after.addBatch();
+                roles.setObject(1, id);
+                roles.setString(2, "USER");
+                roles.addBatch();
+                if (admin) {
+                    roles.setObject(1, id);
+                    roles.setString(2, "ADMIN");
+                    roles.addBatch();
+                }
+                if (i % BATCH_SIZE == 0) {
+                    // parent rows first, the role rows reference them
+                    before.executeBatch();
+                    roles.executeBatch();
+                    after.executeBatch();
+                    connection.commit();
+                }
+            }
+            before.executeBatch();
+            roles.executeBatch();
+            after.executeBatch();
+            connection.commit();
+        }
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("vacuum analyze bench_users_before");
+            statement.execute("vacuum analyze bench_user_roles");
+            statement.execute("vacuum analyze bench_users_after");
+        }
+    }
+
+    private static Result measure(Connection connection, String layout, String[] tables, String userSql,
+                                  String rolesSql) throws SQLException {
+        long[] nanos = new long[LOOKUPS];
+        try (PreparedStatement users = connection.prepareStatement(userSql);
+             PreparedStatement roles = rolesSql == null ? null : connection.prepareStatement(rolesSql)) {
+            for (int i = -WARMUP; i < LOOKUPS; i++) {
+                String username = "user-" + (1 + ThreadLocalRandom.current().nextInt(USERS));
+                long start = System.nanoTime();
+                users.setString(1, username);
+                UUID id;
+                try (ResultSet rs = users.executeQuery()) {
+                    rs.next();
+                    id = rs.getObject(1, UUID.class);
+                }
+                if (roles != null) {
+                    roles.setObject(1, id);
+                    try (ResultSet rs = roles.executeQuery()) {
+                        while (rs.next()) {
+                            rs.getString(1);
+                        }
+                    }
+                }
+                if (i >= 0) {
+                    nanos[i] = System.nanoTime() - start;
+                }
+            }
+        }
+
+        long totalBytes = 0;
+        try (Statement statement = connection.createStatement()) {
+            for (String table : tables) {
+                try (ResultSet rs = statement.executeQuery("select pg_total_relation_size('" + table + "')")) {
+                    rs.next();
+                    totalBytes += rs.getLong(1);
+                }
+            }
+        }
+        Arrays.sort(nanos);
+        return new Result(layout, nanos[LOOKUPS / 2], nanos[(int) (LOOKUPS * 0.99)],
+                Arrays.stream(nanos).average().orElse(0), totalBytes);
+    }
+
+    private record Result(String layout, long p50Nanos, long p99Nanos, double meanNanos, long totalBytes) {
+
+        void print() {
+            System.out.printf("%-18s %10.1f %10.1f %10.1f %14.1f %12.1f%n", layout, p50Nanos / 1e3, p99Nanos / 1e3,
+                    meanNanos / 1e3, (double) totalBytes / USERS, totalBytes / (1024.0 * 1024.0));
+        }
+    }
+}
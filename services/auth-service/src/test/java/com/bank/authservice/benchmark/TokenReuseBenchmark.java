@@ -0,0 +1,126 @@
+package com.bank.authservice.benchmark;
+
+import com.bank.authservice.entity.Role;
+import com.bank.authservice.entity.UserEntity;
+import com.bank.authservice.repository.UserRepository;
+import com.bank.authservice.security.JwtAuthenticationFilter;
+import com.bank.authservice.security.JwtUtil;
+import com.bank.authservice.security.VerifiedTokenCache;
+import com.bank.authservice.service.UserStatusCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Time spent in {@link JwtAuthenticationFilter} per request with and without the
+ * {@link VerifiedTokenCache}, when {@code activeTokens} clients each keep reusing
+ * their token, as they do for the whole {@code security.jwt.expirationMs}.
+ * Requests cycle through the tokens, so after the first lap every lookup is a hit
+ * unless {@code activeTokens} exceeds the cache size.
+ * <p>
+ * The benchmark is single-threaded, so the difference between the two scores is
+ * the CPU time saved per request. Run with
+ * {@code mvn -Pbenchmark test -Dtest=TokenReuseBenchmark}.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenReuseBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    @Param({"true", "false"})
+    public boolean cacheEnabled;
+
+    @Param({"10000"})
+    public int activeTokens;
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest[] requests;
+    private MockHttpServletResponse response;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "ChangeMeToASecureSecretKeyChangeMeToASecureSecretKey");
+        ReflectionTestUtils.setField(jwtUtil, "expirationMs", 3_600_000L);
+        jwtUtil.init();
+
+        UserEntity template = user("template");
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(template));
+
+        filter = new JwtAuthenticationFilter(jwtUtil,
+                new VerifiedTokenCache(new SimpleMeterRegistry(), cacheEnabled, 50_000, Duration.ofMinutes(15)),
+                new UserStatusCache(userRepository, new SimpleMeterRegistry(), Duration.ofMinutes(10), 50_000));
+
+        requests = new MockHttpServletRequest[activeTokens];
+        for (int i = 0; i < activeTokens; i++) {
+            requests[i] = new MockHttpServletRequest("GET", "/api/users/me");
+            requests[i].addHeader("Authorization", "Bearer " + jwtUtil.generateToken(user("user-" + i)));
+        }
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Authentication authenticate() throws ServletException, IOException {
+        MockHttpServletRequest request = requests[next];
+        next = next + 1 == requests.length ? 0 : next + 1;
+        try {
+            filter.doFilter(request, response, NO_OP_CHAIN);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Test
+    void runBenchmarks() throws RunnerException {
+        new Runner(JmhOptions.forBenchmark(TokenReuseBenchmark.class)).run();
+    }
+
+    private static UserEntity user(String username) {
+        UserEntity user = new UserEntity();
+        user.setId(UUID.randomUUID());
+        user.setUsername(username);
+        user.setRoles(new HashSet<>(Set.of(Role.USER)));
+        return user;
+    }
+}
@@ -0,0 +1,41 @@
+package com.bank.authservice.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RoleSetConverterTest {
+
+    private final RoleSetConverter converter = new RoleSetConverter();
+
+    @Test
+    void storesEachRoleAsItsBit() {
+        assertThat(converter.convertToDatabaseColumn(Set.of())).isZero();
+        assertThat(converter.convertToDatabaseColumn(Set.of(Role.USER))).isEqualTo(1);
+        assertThat(converter.convertToDatabaseColumn(Set.of(Role.ADMIN))).isEqualTo(2);
+        assertThat(converter.convertToDatabaseColumn(Set.of(Role.USER, Role.ADMIN))).isEqualTo(3);
+        assertThat(converter.convertToDatabaseColumn(null)).isZero();
+    }
+
+    @Test
+    void roundTripsEverySetOfRoles() {
+        int all = 1 << Role.values().length;
+        for (int mask = 0; mask < all; mask++) {
+            Set<Role> roles = converter.convertToEntityAttribute(mask);
+            assertThat(converter.convertToDatabaseColumn(roles)).isEqualTo(mask);
+        }
+    }
+
+    @Test
+    void returnsMutableSet_ignoringUnknownBits() {
+        Set<Role> roles = converter.convertToEntityAttribute(1 | 1 << 20);
+
+        assertThat(roles).containsExactly(Role.USER);
+        roles.add(Role.ADMIN);
+        assertThat(roles).isEqualTo(EnumSet.allOf(Role.class));
+        assertThat(converter.convertToEntityAttribute(null)).isEmpty();
+    }
+}
@@ -0,0 +1,113 @@
+package com.bank.authservice.security;
+
+import com.bank.authservice.exception.PasswordHashingRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch hashing = new CountDownLatch(1);
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.shutdown();
+    }
+
+    @Test
+    void hashesOnExecutorAndRecordsTimings() {
+        encoder = new BoundedPasswordEncoder(new PlainEncoder(false), 1, 1, Duration.ofSeconds(1), meterRegistry);
+
+        assertThat(encoder.encode("secret")).isEqualTo("{plain}secret");
+        assertThat(encoder.matches("secret", "{plain}secret")).isTrue();
+
+        assertThat(meterRegistry.timer("auth.password.hash", "operation", "encode").count()).isEqualTo(1);
+        assertThat(meterRegistry.timer("auth.password.hash", "operation", "matches").count()).isEqualTo(1);
+        assertThat(meterRegistry.timer("auth.password.queue.wait").count()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsWith429AndRetryAfter_whenQueueIsFull() throws Exception {
+        encoder = new BoundedPasswordEncoder(new PlainEncoder(true), 1, 1, Duration.ofSeconds(5), meterRegistry);
+        // one call hashing, one queued behind it
+        Thread.ofVirtual().start(() -> encoder.encode("first"));
+        hashing.await(1, TimeUnit.SECONDS);
+        Thread.ofVirtual().start(() -> encoder.encode("second"));
+        await().until(() -> meterRegistry.get("auth.password.queue.size").gauge().value() == 1.0);
+
+        assertThatThrownBy(() -> encoder.matches("third", "{plain}third"))
+                .isInstanceOfSatisfying(PasswordHashingRejectedException.class, ex -> {
+                    assertThat(ex.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+                    assertThat(ex.getRetryAfterSeconds()).isPositive();
+                });
+        assertThat(meterRegistry.counter("auth.password.rejected", "reason", "queue_full").count()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsWith503OnlyTheCallStillQueued_whenWaitExceedsLimit() throws Exception {
+        encoder = new BoundedPasswordEncoder(new PlainEncoder(true), 1, 4, Duration.ofMillis(50), meterRegistry);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+        hashing.await(1, TimeUnit.SECONDS);
+
+        assertThatThrownBy(() -> encoder.encode("second"))
+                .isInstanceOfSatisfying(PasswordHashingRejectedException.class,
+                        ex -> assertThat(ex.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+
+        // the hash already running outlives maxWait and still completes
+        release.countDown();
+        assertThat(first.get(1, TimeUnit.SECONDS)).isEqualTo("{plain}first");
+        assertThat(meterRegistry.counter("auth.password.rejected", "reason", "timeout").count()).isEqualTo(1);
+        assertThat(meterRegistry.timer("auth.password.hash", "operation", "encode").count()).isEqualTo(1);
+    }
+
+    /**
+     * Stands in for BCrypt; when blocking, the first hash waits until the test releases it.
+     */
+    private class PlainEncoder implements PasswordEncoder {
+
+        private final boolean blocking;
+
+        PlainEncoder(boolean blocking) {
+            this.blocking = blocking;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            block();
+            return "{plain}" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            block();
+            return encodedPassword.equals("{plain}" + rawPassword);
+        }
+
+        private void block() {
+            if (!blocking) {
+                return;
+            }
+            hashing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.bank.authservice.security;
+
+import com.bank.authservice.entity.Role;
+import com.bank.authservice.entity.UserEntity;
+import com.bank.authservice.service.UserStatusCache;
+import com.bank.authservice.service.UserStatusCache.UserStatus;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    @Mock
+    private UserStatusCache userStatusCache;
+
+    private JwtUtil jwtUtil;
+    private JwtAuthenticationFilter filter;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "ChangeMeToASecureSecretKeyChangeMeToASecureSecretKey");
+        ReflectionTestUtils.setField(jwtUtil, "expirationMs", 60_000L);
+        jwtUtil.init();
+        jwtUtil = spy(jwtUtil);
+        VerifiedTokenCache verifiedTokenCache =
+                new VerifiedTokenCache(new SimpleMeterRegistry(), true, 100, Duration.ofMinutes(15));
+        filter = new JwtAuthenticationFilter(jwtUtil, verifiedTokenCache, userStatusCache);
+
+        UserEntity user = new UserEntity();
+        user.setId(UUID.randomUUID());
+        user.setUsername("cristian");
+        user.setRoles(new HashSet<>(Set.of(Role.USER, Role.ADMIN)));
+        token = jwtUtil.generateToken(user);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void authenticatesWithTokenRolesAndCarriesClaims() throws Exception {
+        when(userStatusCache.get("cristian")).thenReturn(Optional.of(new UserStatus(true, Set.of(Role.USER, Role.ADMIN))));
+
+        MockFilterChain chain = doFilter("Bearer " + token);
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(auth.getName()).isEqualTo("cristian");
+        assertThat(auth.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactlyInAnyOrder("USER", "ADMIN");
+        assertThat(auth.getDetails()).isInstanceOf(Claims.class);
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    @Test
+    void dropsRolesTheUserNoLongerHolds() throws Exception {
+        when(userStatusCache.get("cristian")).thenReturn(Optional.of(new UserStatus(true, Set.of(Role.USER))));
+
+        doFilter("Bearer " + token);
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getAuthorities())
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactly("USER");
+    }
+
+    @Test
+    void verifiesRepeatedTokenOnceButChecksUserStatusEveryTime() throws Exception {
+        when(userStatusCache.get("cristian"))
+                .thenReturn(Optional.of(new UserStatus(true, Set.of(Role.USER, Role.ADMIN))))
+                .thenReturn(Optional.of(new UserStatus(false, Set.of(Role.USER, Role.ADMIN))));
+
+        doFilter("Bearer " + token);
+        SecurityContextHolder.clearContext();
+        doFilter("Bearer " + token);
+
+        // the second request hits the verified-token cache, but the user was disabled in between
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verify(jwtUtil, times(1)).parseClaims(token);
+        verify(userStatusCache, times(2)).get("cristian");
+    }
+
+    @Test
+    void doesNotAuthenticateDisabledUser() throws Exception {
+        when(userStatusCache.get("cristian")).thenReturn(Optional.of(new UserStatus(false, Set.of(Role.USER))));
+
+        MockFilterChain chain = doFilter("Bearer " + token);
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    @Test
+    void doesNotAuthenticateUnknownUser() throws Exception {
+        when(userStatusCache.get("cristian")).thenReturn(Optional.empty());
+
+        doFilter("Bearer " + token);
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    void ignoresTamperedTokenWithoutLookingUpUser() throws Exception {
+        MockFilterChain chain = doFilter("Bearer " + token.substring(0, token.length() - 2) + "xx");
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        assertThat(chain.getRequest()).isNotNull();
+        verifyNoInteractions(userStatusCache);
+    }
+
+    private MockFilterChain doFilter(String authorization) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/me");
+        request.addHeader("Authorization", authorization);
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return chain;
+    }
+}
@@ -0,0 +1,74 @@
+package com.bank.authservice.security;
+
+import com.bank.authservice.exception.TooManyLoginAttemptsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginThrottleTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void rejectsUserAfterCapacity_withRetryAfter() {
+        LoginThrottle throttle = throttle(true, 3, Duration.ofMinutes(1), 100, Duration.ofSeconds(1));
+
+        for (int i = 0; i < 3; i++) {
+            throttle.acquire("alice", "10.0.0." + i);
+        }
+
+        assertThatThrownBy(() -> throttle.acquire("alice", "10.0.0.9"))
+                .isInstanceOfSatisfying(TooManyLoginAttemptsException.class,
+                        ex -> assertThat(ex.getRetryAfterSeconds()).isBetween(1L, 60L));
+        assertThat(meterRegistry.counter("auth.login.throttled", "scope", "user").count()).isEqualTo(1);
+        // other users are not affected
+        throttle.acquire("bob", "10.0.0.9");
+    }
+
+    @Test
+    void rejectsIpAfterCapacity_acrossUsernames() {
+        LoginThrottle throttle = throttle(true, 100, Duration.ofMinutes(1), 2, Duration.ofMinutes(1));
+
+        throttle.acquire("alice", "10.0.0.1");
+        throttle.acquire("bob", "10.0.0.1");
+
+        assertThatThrownBy(() -> throttle.acquire("carol", "10.0.0.1"))
+                .isInstanceOf(TooManyLoginAttemptsException.class);
+        assertThat(meterRegistry.counter("auth.login.throttled", "scope", "ip").count()).isEqualTo(1);
+        throttle.acquire("carol", "10.0.0.2");
+    }
+
+    @Test
+    void doesNothing_whenDisabled() {
+        LoginThrottle throttle = throttle(false, 1, Duration.ofMinutes(1), 1, Duration.ofMinutes(1));
+
+        for (int i = 0; i < 10; i++) {
+            throttle.acquire("alice", "10.0.0.1");
+        }
+    }
+
+    @Test
+    void bucketRefillsOneTokenPerPeriod() {
+        LoginThrottle.Limit limit = new LoginThrottle.Limit(2, TimeUnit.SECONDS.toNanos(10));
+        LoginThrottle.TokenBucket bucket = new LoginThrottle.TokenBucket(limit, 0);
+        long second = TimeUnit.SECONDS.toNanos(1);
+
+        assertThat(bucket.tryConsume(limit, 0)).isZero();
+        assertThat(bucket.tryConsume(limit, 0)).isZero();
+        assertThat(bucket.tryConsume(limit, 4 * second)).isEqualTo(6 * second);
+        assertThat(bucket.tryConsume(limit, 10 * second)).isZero();
+        // the partial refill since t=10s carries over
+        assertThat(bucket.tryConsume(limit, 15 * second)).isEqualTo(5 * second);
+        assertThat(bucket.tryConsume(limit, 20 * second)).isZero();
+    }
+
+    private LoginThrottle throttle(boolean enabled, int userCapacity, Duration userRefill,
+                                   int ipCapacity, Duration ipRefill) {
+        return new LoginThrottle(meterRegistry, enabled, userCapacity, userRefill, ipCapacity, ipRefill, 1000);
+    }
+}
@@ -0,0 +1,64 @@
+package com.bank.authservice.security;
+
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ServiceTokenIssuerTest {
+
+    private final JwtUtil jwtUtil = new JwtUtil();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(jwtUtil, "secret", "ChangeMeToASecureSecretKeyChangeMeToASecureSecretKey");
+        ReflectionTestUtils.setField(jwtUtil, "expirationMs", 60_000L);
+        jwtUtil.init();
+    }
+
+    @Test
+    void issuesShortLivedServiceToken_forConfiguredClient() {
+        ServiceTokenIssuer issuer = new ServiceTokenIssuer(jwtUtil,
+                List.of("transaction-service:s3cret", "reporting:other"), Duration.ofMinutes(5));
+
+        Claims claims = jwtUtil.parseClaims(issuer.issue("transaction-service", "s3cret"));
+
+        assertThat(claims.getSubject()).isEqualTo("transaction-service");
+        assertThat(claims.get("roles")).isEqualTo("SERVICE");
+        assertThat(claims.getExpiration().getTime() - claims.getIssuedAt().getTime())
+                .isBetween(299_000L, 301_000L);
+        assertThat(issuer.tokenTtl()).isEqualTo(Duration.ofMinutes(5));
+    }
+
+    @Test
+    void rejectsWrongSecretAndUnknownClient() {
+        ServiceTokenIssuer issuer = new ServiceTokenIssuer(jwtUtil, List.of("transaction-service:s3cret"),
+                Duration.ofMinutes(5));
+
+        assertThatThrownBy(() -> issuer.issue("transaction-service", "guess"))
+                .isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> issuer.issue("reporting", "s3cret"))
+                .isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void refusesEveryone_whenNoClientIsConfigured() {
+        ServiceTokenIssuer issuer = new ServiceTokenIssuer(jwtUtil, List.of(""), Duration.ofMinutes(5));
+
+        assertThatThrownBy(() -> issuer.issue("transaction-service", "s3cret"))
+                .isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void rejectsMalformedCredentials() {
+        assertThatThrownBy(() -> new ServiceTokenIssuer(jwtUtil, List.of("transaction-service"), Duration.ofMinutes(5)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
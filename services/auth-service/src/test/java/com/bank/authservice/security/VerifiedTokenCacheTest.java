@@ -0,0 +1,77 @@
+package com.bank.authservice.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VerifiedTokenCacheTest {
+
+    private final VerifiedTokenCache cache =
+            new VerifiedTokenCache(new SimpleMeterRegistry(), true, 100, Duration.ofMinutes(15));
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    @Test
+    void verifiesEachTokenOnlyOnce() {
+        Function<String, Claims> verifier = expiringIn(Duration.ofHours(1));
+
+        Claims first = cache.get("token-a", verifier);
+        Claims second = cache.get("token-a", verifier);
+        cache.get("token-b", verifier);
+
+        assertThat(second).isSameAs(first);
+        assertThat(verifications.get()).isEqualTo(2);
+    }
+
+    @Test
+    void neverServesTokenPastItsExpiry() {
+        Function<String, Claims> verifier = expiringIn(Duration.ofSeconds(-1));
+
+        cache.get("token-a", verifier);
+        cache.get("token-a", verifier);
+
+        assertThat(verifications.get()).isEqualTo(2);
+    }
+
+    @Test
+    void doesNotCacheRejectedTokens() {
+        Function<String, Claims> rejecting = token -> {
+            verifications.incrementAndGet();
+            throw new MalformedJwtException("bad token");
+        };
+
+        assertThatThrownBy(() -> cache.get("token-a", rejecting)).isInstanceOf(MalformedJwtException.class);
+        assertThatThrownBy(() -> cache.get("token-a", rejecting)).isInstanceOf(MalformedJwtException.class);
+
+        assertThat(verifications.get()).isEqualTo(2);
+    }
+
+    @Test
+    void disabledCacheVerifiesEveryTime() {
+        VerifiedTokenCache disabled = new VerifiedTokenCache(new SimpleMeterRegistry(), false, 100, Duration.ofMinutes(15));
+        Function<String, Claims> verifier = expiringIn(Duration.ofHours(1));
+
+        disabled.get("token-a", verifier);
+        disabled.get("token-a", verifier);
+
+        assertThat(verifications.get()).isEqualTo(2);
+    }
+
+    private Function<String, Claims> expiringIn(Duration ttl) {
+        return token -> {
+            verifications.incrementAndGet();
+            return Jwts.claims()
+                    .setSubject(token)
+                    .setExpiration(new Date(System.currentTimeMillis() + ttl.toMillis()));
+        };
+    }
+}
@@ -1,6 +1,7 @@
 package com.bank.authservice.service;
 
 import com.bank.authservice.entity.UserEntity;
+import com.bank.authservice.exception.PasswordHashingRejectedException;
 import com.bank.authservice.security.JwtUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,6 +10,7 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
@@ -62,9 +64,37 @@ class AuthenticationServiceTest {
         verify(userService).findByUsername("cristian");
         verify(passwordEncoder).matches("123456", user.getPassword());
         verify(jwtUtil).generateToken(user);
+        verify(passwordEncoder).upgradeEncoding(user.getPassword());
         verifyNoMoreInteractions(userService, passwordEncoder, jwtUtil);
     }
 
+    @Test
+    void authenticate_shouldUpgradeWeakerPasswordHash() {
+        when(userService.findByUsername("cristian")).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("123456", "$2a$10$hashed")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("$2a$10$hashed")).thenReturn(true);
+        when(passwordEncoder.encode("123456")).thenReturn("$2a$12$stronger");
+        when(jwtUtil.generateToken(user)).thenReturn("jwt-token");
+
+        String token = authenticationService.authenticate("cristian", "123456");
+
+        assertEquals("jwt-token", token);
+        verify(userService).updatePasswordHash(user, "$2a$12$stronger");
+    }
+
+    @Test
+    void authenticate_shouldStillLogIn_whenHashUpgradeIsShed() {
+        when(userService.findByUsername("cristian")).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("123456", "$2a$10$hashed")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("$2a$10$hashed")).thenReturn(true);
+        when(passwordEncoder.encode("123456"))
+                .thenThrow(new PasswordHashingRejectedException(HttpStatus.TOO_MANY_REQUESTS, 1, "busy"));
+        when(jwtUtil.generateToken(user)).thenReturn("jwt-token");
+
+        assertEquals("jwt-token", authenticationService.authenticate("cristian", "123456"));
+        verify(userService, never()).updatePasswordHash(any(), any());
+    }
+
     @Test
     void authenticate_shouldThrowBadCredentials_whenUserNotFound() {
         when(userService.findByUsername("cristian")).thenReturn(Optional.empty());
@@ -0,0 +1,193 @@
+package com.bank.authservice.service;
+
+import com.bank.authservice.dto.BulkRegisterOutcome;
+import com.bank.authservice.dto.BulkRegisterResponse;
+import com.bank.authservice.dto.BulkRegisterResult;
+import com.bank.authservice.dto.RegisterRequestDto;
+import com.bank.authservice.entity.Role;
+import com.bank.authservice.entity.UserEntity;
+import com.bank.authservice.repository.UserIdentity;
+import com.bank.authservice.repository.UserRepository;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkUserServiceTest {
+
+    private static final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BulkUserService bulkUserService;
+
+    @BeforeEach
+    void setUp() {
+        bulkUserService = new BulkUserService(userRepository, passwordEncoder, validator, transactionManager, 3, 2);
+        lenient().when(passwordEncoder.encode(anyString())).thenAnswer(inv -> "hashed-" + inv.getArgument(0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void register_shouldInsertNewUsersInOneBatchAndRejectTheRest() {
+        when(userRepository.findIdentities(anyCollection(), anyCollection()))
+                .thenReturn(List.of(new UserIdentity("taken", "other@mail.com")));
+        List<UserEntity> inserted = new ArrayList<>();
+        when(userRepository.saveAll(any())).thenAnswer(inv -> {
+            for (UserEntity user : (Collection<UserEntity>) inv.getArgument(0)) {
+                user.setId(UUID.randomUUID());
+                inserted.add(user);
+            }
+            return inserted;
+        });
+
+        BulkRegisterResponse response = bulkUserService.register(List.of(
+                new RegisterRequestDto("alice", "alice@mail.com", "secret1"),
+                new RegisterRequestDto("taken", "taken@mail.com", "secret2"),
+                new RegisterRequestDto("alice", "alice2@mail.com", "secret3")
+        ));
+
+        List<BulkRegisterResult> results = response.getResults();
+        assertEquals(BulkRegisterOutcome.CREATED, results.get(0).getOutcome());
+        assertEquals(Set.of(Role.USER), results.get(0).getUser().getRoles());
+        assertEquals("Username already exists", results.get(1).getError());
+        assertEquals("Duplicate username in batch", results.get(2).getError());
+
+        assertEquals(1, inserted.size());
+        assertEquals("hashed-secret1", inserted.get(0).getPassword());
+        // the password of a rejected row is never hashed
+        verify(passwordEncoder, never()).encode("secret2");
+        verify(userRepository, times(1)).findIdentities(anyCollection(), anyCollection());
+        verify(userRepository).flush();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void register_shouldRejectRowWhosePasswordCannotBeHashed() {
+        when(passwordEncoder.encode("secret2")).thenThrow(new IllegalStateException("hashing queue full"));
+        when(userRepository.saveAll(any())).thenAnswer(inv -> {
+            ((Collection<UserEntity>) inv.getArgument(0)).forEach(user -> user.setId(UUID.randomUUID()));
+            return List.of();
+        });
+
+        BulkRegisterResponse response = bulkUserService.register(List.of(
+                new RegisterRequestDto("alice", "alice@mail.com", "secret1"),
+                new RegisterRequestDto("bob", "bob@mail.com", "secret2")
+        ));
+
+        assertEquals(BulkRegisterOutcome.CREATED, response.getResults().get(0).getOutcome());
+        assertEquals(BulkRegisterOutcome.REJECTED, response.getResults().get(1).getOutcome());
+        assertTrue(response.getResults().get(1).getError().contains("hashing queue full"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void register_shouldRecheckExistingUsersOnceAfterConcurrentInsert() {
+        when(userRepository.findIdentities(anyCollection(), anyCollection()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(new UserIdentity("bob", "bob@mail.com")));
+        List<String> inserted = new ArrayList<>();
+        when(userRepository.saveAll(any()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"))
+                .thenAnswer(inv -> {
+                    for (UserEntity user : (Collection<UserEntity>) inv.getArgument(0)) {
+                        user.setId(UUID.randomUUID());
+                        inserted.add(user.getUsername());
+                    }
+                    return List.of();
+                });
+
+        BulkRegisterResponse response = bulkUserService.register(List.of(
+                new RegisterRequestDto("alice", "alice@mail.com", "secret1"),
+                new RegisterRequestDto("bob", "bob@mail.com", "secret2")
+        ));
+
+        assertEquals(List.of("alice"), inserted);
+        assertEquals(BulkRegisterOutcome.CREATED, response.getResults().get(0).getOutcome());
+        assertEquals("Username already exists", response.getResults().get(1).getError());
+        // hashes are kept for the retry
+        verify(passwordEncoder, times(2)).encode(anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void register_shouldRejectOnlyTheInvalidRows() {
+        when(userRepository.saveAll(any())).thenAnswer(inv -> {
+            ((Collection<UserEntity>) inv.getArgument(0)).forEach(user -> user.setId(UUID.randomUUID()));
+            return List.of();
+        });
+        // a well-formed address one character over the email column
+        String longEmail = "user@" + "a".repeat(50) + "." + "b".repeat(50) + ".abcdefghij.com";
+        BulkUserService service = new BulkUserService(userRepository, passwordEncoder, validator, transactionManager, 10, 2);
+
+        BulkRegisterResponse response = service.register(Arrays.asList(
+                new RegisterRequestDto("alice", longEmail, "secret1"),
+                new RegisterRequestDto("bo", "bob@mail.com", "secret2"),
+                null,
+                new RegisterRequestDto("alice", "alice@mail.com", "secret3")
+        ));
+
+        List<BulkRegisterResult> results = response.getResults();
+        assertEquals(BulkRegisterOutcome.REJECTED, results.get(0).getOutcome());
+        assertTrue(results.get(0).getError().startsWith("email: "));
+        assertTrue(results.get(0).getError().contains("120"));
+        assertTrue(results.get(1).getError().startsWith("username: "));
+        assertEquals(BulkRegisterOutcome.REJECTED, results.get(2).getOutcome());
+        // the invalid first row did not claim the username
+        assertEquals(BulkRegisterOutcome.CREATED, results.get(3).getOutcome());
+        verify(passwordEncoder, times(1)).encode(anyString());
+    }
+
+    @Test
+    void register_shouldReportChunkAsFailed_whenRetryAlsoConflicts() {
+        when(userRepository.findIdentities(anyCollection(), anyCollection())).thenReturn(List.of());
+        when(userRepository.saveAll(any())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        BulkRegisterResponse response = bulkUserService.register(List.of(
+                new RegisterRequestDto("alice", "alice@mail.com", "secret1"),
+                new RegisterRequestDto("bob", "bob@mail.com", "secret2")
+        ));
+
+        assertEquals(List.of(BulkRegisterOutcome.FAILED, BulkRegisterOutcome.FAILED),
+                response.getResults().stream().map(BulkRegisterResult::getOutcome).toList());
+        assertEquals("bob", response.getResults().get(1).getUsername());
+        verify(userRepository, times(2)).saveAll(any());
+    }
+
+    @Test
+    void register_shouldRejectBatchOverTheLimit() {
+        List<RegisterRequestDto> requests = List.of(
+                new RegisterRequestDto("user1", "user1@mail.com", "secret"),
+                new RegisterRequestDto("user2", "user2@mail.com", "secret"),
+                new RegisterRequestDto("user3", "user3@mail.com", "secret"),
+                new RegisterRequestDto("user4", "user4@mail.com", "secret"));
+
+        assertThrows(IllegalArgumentException.class, () -> bulkUserService.register(requests));
+        verifyNoInteractions(userRepository, passwordEncoder);
+    }
+}
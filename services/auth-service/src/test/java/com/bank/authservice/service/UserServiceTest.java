@@ -2,9 +2,11 @@ package com.bank.authservice.service;
 
 import com.bank.authservice.dto.RegisterRequestDto;
 import com.bank.authservice.dto.UserDto;
+import com.bank.authservice.dto.UserPageResponse;
 import com.bank.authservice.entity.Role;
 import com.bank.authservice.entity.UserEntity;
 import com.bank.authservice.repository.UserRepository;
+import com.bank.authservice.repository.UserSummary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,10 +14,12 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -33,6 +37,9 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private UserStatusCache userStatusCache;
+
     @InjectMocks
     private UserService userService;
 
@@ -92,35 +99,56 @@ class UserServiceTest {
     }
 
     @Test
-    void listUsers_shouldMapEntitiesToDtos() {
-        UserEntity u1 = new UserEntity();
-        u1.setId(UUID.randomUUID());
-        u1.setUsername("u1");
-        u1.setRoles(Set.of(Role.USER));
-
-        UserEntity u2 = new UserEntity();
-        u2.setId(UUID.randomUUID());
-        u2.setUsername("u2");
-        u2.setRoles(Set.of(Role.ADMIN));
+    void listUsers_shouldMapProjectionsToDtos() {
+        UserSummary u1 = new UserSummary(UUID.randomUUID(), "u1", Set.of(Role.USER));
+        UserSummary u2 = new UserSummary(UUID.randomUUID(), "u2", Set.of(Role.USER, Role.ADMIN));
+        when(userRepository.findSummaries(PageRequest.ofSize(3))).thenReturn(List.of(u1, u2));
 
-        when(userRepository.findAll()).thenReturn(List.of(u1, u2));
-
-        List<UserDto> dtos = userService.listUsers(mock(Authentication.class));
+        UserPageResponse page = userService.listUsers(mock(Authentication.class), null, 2);
 
+        List<UserDto> dtos = page.getItems();
         assertEquals(2, dtos.size());
+        assertNull(page.getNextCursor());
 
-        assertEquals(u1.getId().toString(), dtos.get(0).getId());
+        assertEquals(u1.id().toString(), dtos.get(0).getId());
         assertEquals("u1", dtos.get(0).getUsername());
         assertEquals(Set.of(Role.USER), dtos.get(0).getRoles());
 
-        assertEquals(u2.getId().toString(), dtos.get(1).getId());
+        assertEquals(u2.id().toString(), dtos.get(1).getId());
         assertEquals("u2", dtos.get(1).getUsername());
-        assertEquals(Set.of(Role.ADMIN), dtos.get(1).getRoles());
+        assertEquals(Set.of(Role.USER, Role.ADMIN), dtos.get(1).getRoles());
 
-        verify(userRepository).findAll();
+        verify(userRepository, never()).findAll();
         verifyNoInteractions(passwordEncoder);
     }
 
+    @Test
+    void listUsers_shouldReturnCursor_thatResumesAfterLastUsername() {
+        UserSummary u1 = new UserSummary(UUID.randomUUID(), "ana", Set.of(Role.USER));
+        UserSummary u2 = new UserSummary(UUID.randomUUID(), "bruno", Set.of(Role.USER));
+        UserSummary u3 = new UserSummary(UUID.randomUUID(), "carla", Set.of(Role.USER));
+        when(userRepository.findSummaries(PageRequest.ofSize(3))).thenReturn(List.of(u1, u2, u3));
+
+        UserPageResponse first = userService.listUsers(mock(Authentication.class), null, 2);
+
+        assertEquals(List.of("ana", "bruno"), first.getItems().stream().map(UserDto::getUsername).toList());
+        assertNotNull(first.getNextCursor());
+
+        when(userRepository.findSummariesAfter("bruno", PageRequest.ofSize(3))).thenReturn(List.of(u3));
+
+        UserPageResponse second = userService.listUsers(mock(Authentication.class), first.getNextCursor(), 2);
+
+        assertEquals(List.of("carla"), second.getItems().stream().map(UserDto::getUsername).toList());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void listUsers_shouldRejectMalformedCursor() {
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.listUsers(mock(Authentication.class), "not a cursor!", 10));
+        verifyNoInteractions(userRepository);
+    }
+
     @Test
     void register_shouldCreateUserAndReturnDto_whenValidRequest() {
         RegisterRequestDto req = mock(RegisterRequestDto.class);
@@ -162,4 +190,16 @@ class UserServiceTest {
 
         verifyNoMoreInteractions(userRepository, passwordEncoder);
     }
-}
\ No newline at end of file
+
+    @Test
+    void promoteToAdmin_shouldAddRoleAndEvictCachedStatus() {
+        user.setRoles(new HashSet<>(Set.of(Role.USER)));
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+
+        userService.promoteToAdmin(user.getId());
+
+        assertTrue(user.getRoles().contains(Role.ADMIN));
+        verify(userRepository).save(user);
+        verify(userStatusCache).evict("cristian");
+    }
+}
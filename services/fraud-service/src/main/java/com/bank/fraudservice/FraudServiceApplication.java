@@ -0,0 +1,14 @@
+package com.bank.fraudservice;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+
+@SpringBootApplication
+@ConfigurationPropertiesScan
+public class FraudServiceApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(FraudServiceApplication.class, args);
+    }
+}
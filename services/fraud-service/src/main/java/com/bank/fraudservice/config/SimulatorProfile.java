@@ -0,0 +1,126 @@
+package com.bank.fraudservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * How the simulator answers, bound from {@code simulator.*} at startup and accepted
+ * as JSON by {@code PUT /api/simulator/profile}. Unset values take the defaults
+ * below in both cases.
+ *
+ * @param errorRate   share of requests answered with {@code errorStatus} after their latency
+ * @param errorStatus status of a simulated failure, 503 by default
+ * @param stall       requests held far beyond any client timeout
+ * @param denyRate    share of requests denied when no rule matches
+ * @param rules       checked in order; the first match decides the verdict
+ */
+@ConfigurationProperties(prefix = "simulator")
+public record SimulatorProfile(
+        Latency latency,
+        double errorRate,
+        int errorStatus,
+        Stall stall,
+        double denyRate,
+        List<Rule> rules
+) {
+
+    public SimulatorProfile {
+        latency = latency != null ? latency : new Latency(null, null, null, null, null);
+        errorStatus = errorStatus != 0 ? errorStatus : 503;
+        stall = stall != null ? stall : new Stall(0, null);
+        rules = rules != null ? List.copyOf(rules) : List.of();
+        requireRate("errorRate", errorRate);
+        requireRate("denyRate", denyRate);
+        if (errorStatus < 400 || errorStatus > 599) {
+            throw new IllegalArgumentException("errorStatus must be a 4xx or 5xx status, got " + errorStatus);
+        }
+    }
+
+    /**
+     * Time spent before answering, drawn per request and kept within {@code [min, max]}.
+     *
+     * @param median {@link Distribution#FIXED} answers always take this long
+     * @param p99    only used by {@link Distribution#LOG_NORMAL}; five times the median by default
+     */
+    public record Latency(Distribution distribution, Duration min, Duration median, Duration p99, Duration max) {
+
+        // standard normal quantile of 0.99
+        private static final double Z_99 = 2.3263478740408408;
+
+        public Latency {
+            distribution = distribution != null ? distribution : Distribution.LOG_NORMAL;
+            min = min != null ? min : Duration.ZERO;
+            median = median != null ? median : Duration.ofMillis(20);
+            p99 = p99 != null ? p99 : median.multipliedBy(5);
+            max = max != null ? max : Duration.ofSeconds(30);
+            if (min.isNegative() || median.compareTo(min) < 0 || p99.compareTo(median) < 0 || max.compareTo(p99) < 0) {
+                throw new IllegalArgumentException("Latency must satisfy 0 <= min <= median <= p99 <= max, got "
+                        + min + ", " + median + ", " + p99 + ", " + max);
+            }
+        }
+
+        public long sampleNanos(RandomGenerator random) {
+            double nanos = switch (distribution) {
+                case FIXED -> median.toNanos();
+                case UNIFORM -> min.toNanos() + random.nextDouble() * (max.toNanos() - min.toNanos());
+                // shifted by min; an exponential's median is its mean times ln 2
+                case EXPONENTIAL -> min.toNanos() + random.nextExponential() * (median.toNanos() - min.toNanos())
+                        / Math.log(2);
+                case LOG_NORMAL -> median.toNanos() * Math.exp(random.nextGaussian()
+                        * Math.log((double) p99.toNanos() / Math.max(median.toNanos(), 1)) / Z_99);
+            };
+            return Math.clamp((long) nanos, min.toNanos(), max.toNanos());
+        }
+    }
+
+    public enum Distribution {
+        FIXED, UNIFORM, EXPONENTIAL,
+        /** long right tail like most real services; shaped by {@code median} and {@code p99} */
+        LOG_NORMAL
+    }
+
+    /**
+     * @param probability share of requests that wait {@code duration} before their normal latency
+     */
+    public record Stall(double probability, Duration duration) {
+
+        public Stall {
+            duration = duration != null ? duration : Duration.ofSeconds(30);
+            requireRate("stall.probability", probability);
+        }
+    }
+
+    /**
+     * Matches when every condition that is set holds.
+     *
+     * @param operation     {@code deposit} or {@code withdraw}; any operation when unset
+     * @param accountPrefix account numbers starting with this
+     * @param minAmount     amounts of at least this
+     */
+    public record Rule(String operation, String accountPrefix, BigDecimal minAmount, Verdict verdict) {
+
+        public Rule {
+            verdict = verdict != null ? verdict : Verdict.DENY;
+        }
+
+        public boolean matches(String operation, String accountNumber, BigDecimal amount) {
+            return (this.operation == null || this.operation.equals(operation))
+                    && (accountPrefix == null || accountNumber.startsWith(accountPrefix))
+                    && (minAmount == null || amount.compareTo(minAmount) >= 0);
+        }
+    }
+
+    public enum Verdict {
+        APPROVE, DENY
+    }
+
+    private static void requireRate(String name, double rate) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException(name + " must be between 0 and 1, got " + rate);
+        }
+    }
+}
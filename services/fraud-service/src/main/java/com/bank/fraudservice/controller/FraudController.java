@@ -0,0 +1,33 @@
+package com.bank.fraudservice.controller;
+
+import com.bank.fraudservice.service.FraudSimulator;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigDecimal;
+
+/**
+ * The endpoint account-service calls through {@code FraudServiceFeignApi}:
+ * {@code true} approves the operation, {@code false} denies it.
+ */
+@RestController
+@RequestMapping("/api/fraud")
+public class FraudController {
+
+    private final FraudSimulator fraudSimulator;
+
+    public FraudController(FraudSimulator fraudSimulator) {
+        this.fraudSimulator = fraudSimulator;
+    }
+
+    @GetMapping("/{operation}")
+    public ResponseEntity<Boolean> validate(@PathVariable("operation") String operation,
+                                            @RequestParam("accountNumber") String accountNumber,
+                                            @RequestParam("amount") BigDecimal amount) {
+        return ResponseEntity.ok(fraudSimulator.check(operation, accountNumber, amount));
+    }
+}
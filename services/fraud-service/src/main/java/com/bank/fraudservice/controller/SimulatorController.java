@@ -0,0 +1,45 @@
+package com.bank.fraudservice.controller;
+
+import com.bank.fraudservice.config.SimulatorProfile;
+import com.bank.fraudservice.service.FraudSimulator;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Changes the simulator's behaviour during a run, e.g. to start stalling halfway
+ * through a load test and watch account-service's circuit breaker open.
+ */
+@RestController
+@RequestMapping("/api/simulator/profile")
+public class SimulatorController {
+
+    private final FraudSimulator fraudSimulator;
+
+    public SimulatorController(FraudSimulator fraudSimulator) {
+        this.fraudSimulator = fraudSimulator;
+    }
+
+    @GetMapping
+    public ResponseEntity<SimulatorProfile> get() {
+        return ResponseEntity.ok(fraudSimulator.profile());
+    }
+
+    /**
+     * Replaces the whole profile; omitted fields take their defaults, not their current values.
+     */
+    @PutMapping
+    public ResponseEntity<SimulatorProfile> replace(@RequestBody SimulatorProfile profile) {
+        fraudSimulator.replaceProfile(profile);
+        return ResponseEntity.ok(profile);
+    }
+
+    @DeleteMapping
+    public ResponseEntity<SimulatorProfile> reset() {
+        return ResponseEntity.ok(fraudSimulator.resetProfile());
+    }
+}
@@ -0,0 +1,94 @@
+package com.bank.fraudservice.service;
+
+import com.bank.fraudservice.config.SimulatorProfile;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Answers fraud checks the way the active {@link SimulatorProfile} describes: an
+ * optional stall, then the sampled latency, then either a simulated failure or a
+ * verdict.
+ * <p>
+ * The profile can be swapped while requests are in flight; each request reads it
+ * once, so it sees either the old or the new profile, never a mix.
+ */
+@Service
+public class FraudSimulator {
+
+    private final SimulatorProfile configured;
+    private final AtomicReference<SimulatorProfile> active;
+    private final MeterRegistry meterRegistry;
+
+    public FraudSimulator(SimulatorProfile configured, MeterRegistry meterRegistry) {
+        this.configured = configured;
+        this.active = new AtomicReference<>(configured);
+        this.meterRegistry = meterRegistry;
+    }
+
+    public boolean check(String operation, String accountNumber, BigDecimal amount) {
+        SimulatorProfile profile = active.get();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        if (profile.stall().probability() > 0 && random.nextDouble() < profile.stall().probability()) {
+            meterRegistry.counter("fraudsim.stalls", "operation", operation).increment();
+            sleep(profile.stall().duration().toNanos());
+        }
+        sleep(profile.latency().sampleNanos(random));
+
+        if (profile.errorRate() > 0 && random.nextDouble() < profile.errorRate()) {
+            count(operation, "error");
+            throw new ResponseStatusException(HttpStatusCode.valueOf(profile.errorStatus()), "Simulated failure");
+        }
+        boolean approved = verdict(profile, operation, accountNumber, amount, random);
+        count(operation, approved ? "approved" : "denied");
+        return approved;
+    }
+
+    public SimulatorProfile profile() {
+        return active.get();
+    }
+
+    public void replaceProfile(SimulatorProfile profile) {
+        active.set(profile);
+    }
+
+    /**
+     * Goes back to the profile bound from {@code simulator.*} at startup.
+     */
+    public SimulatorProfile resetProfile() {
+        active.set(configured);
+        return configured;
+    }
+
+    private static boolean verdict(SimulatorProfile profile, String operation, String accountNumber,
+                                   BigDecimal amount, ThreadLocalRandom random) {
+        for (SimulatorProfile.Rule rule : profile.rules()) {
+            if (rule.matches(operation, accountNumber, amount)) {
+                return rule.verdict() == SimulatorProfile.Verdict.APPROVE;
+            }
+        }
+        return profile.denyRate() == 0 || random.nextDouble() >= profile.denyRate();
+    }
+
+    private void count(String operation, String outcome) {
+        meterRegistry.counter("fraudsim.requests", "operation", operation, "outcome", outcome).increment();
+    }
+
+    private static void sleep(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(Duration.ofNanos(nanos));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
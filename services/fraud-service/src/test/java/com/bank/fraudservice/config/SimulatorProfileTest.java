@@ -0,0 +1,83 @@
+package com.bank.fraudservice.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class SimulatorProfileTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    void fillsDefaultsForUnsetValues() {
+        SimulatorProfile profile = new SimulatorProfile(null, 0, 0, null, 0, null);
+
+        assertThat(profile.latency().distribution()).isEqualTo(SimulatorProfile.Distribution.LOG_NORMAL);
+        assertThat(profile.latency().median()).isEqualTo(Duration.ofMillis(20));
+        assertThat(profile.latency().p99()).isEqualTo(Duration.ofMillis(100));
+        assertThat(profile.errorStatus()).isEqualTo(503);
+        assertThat(profile.stall().duration()).isEqualTo(Duration.ofSeconds(30));
+        assertThat(profile.rules()).isEmpty();
+    }
+
+    @Test
+    void logNormalLatencyHitsConfiguredMedianAndP99() {
+        SimulatorProfile.Latency latency = new SimulatorProfile.Latency(SimulatorProfile.Distribution.LOG_NORMAL,
+                null, Duration.ofMillis(20), Duration.ofMillis(200), null);
+
+        long[] samples = sample(latency);
+
+        assertThat((double) samples[samples.length / 2]).isCloseTo(20 * MS, within((double) MS));
+        assertThat((double) samples[samples.length * 99 / 100]).isCloseTo(200 * MS, within(15.0 * MS));
+    }
+
+    @Test
+    void exponentialLatencyHitsConfiguredMedianAboveMin() {
+        SimulatorProfile.Latency latency = new SimulatorProfile.Latency(SimulatorProfile.Distribution.EXPONENTIAL,
+                Duration.ofMillis(5), Duration.ofMillis(15), null, null);
+
+        long[] samples = sample(latency);
+
+        assertThat(samples[0]).isGreaterThanOrEqualTo(5 * MS);
+        assertThat((double) samples[samples.length / 2]).isCloseTo(15 * MS, within((double) MS));
+    }
+
+    @Test
+    void keepsEverySampleWithinMinAndMax() {
+        SimulatorProfile.Latency latency = new SimulatorProfile.Latency(SimulatorProfile.Distribution.LOG_NORMAL,
+                Duration.ofMillis(10), Duration.ofMillis(20), Duration.ofMillis(500), Duration.ofMillis(600));
+
+        long[] samples = sample(latency);
+
+        assertThat(samples[0]).isEqualTo(10 * MS);
+        assertThat(samples[samples.length - 1]).isEqualTo(600 * MS);
+    }
+
+    @Test
+    void rejectsInconsistentValues() {
+        assertThatThrownBy(() -> new SimulatorProfile.Latency(null, null, Duration.ofMillis(50),
+                Duration.ofMillis(10), null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new SimulatorProfile(null, 1.5, 0, null, 0, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new SimulatorProfile(null, 0, 200, null, 0, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new SimulatorProfile.Stall(-0.1, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static long[] sample(SimulatorProfile.Latency latency) {
+        SplittableRandom random = new SplittableRandom(7);
+        long[] samples = new long[200_000];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = latency.sampleNanos(random);
+        }
+        Arrays.sort(samples);
+        return samples;
+    }
+}
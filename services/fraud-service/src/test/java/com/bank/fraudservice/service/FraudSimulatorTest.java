@@ -0,0 +1,83 @@
+package com.bank.fraudservice.service;
+
+import com.bank.fraudservice.config.SimulatorProfile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FraudSimulatorTest {
+
+    private static final SimulatorProfile.Latency NO_LATENCY = new SimulatorProfile.Latency(
+            SimulatorProfile.Distribution.FIXED, null, Duration.ZERO, null, null);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void firstMatchingRuleDecides_otherwiseApproves() {
+        FraudSimulator simulator = simulator(new SimulatorProfile(NO_LATENCY, 0, 0, null, 0, List.of(
+                new SimulatorProfile.Rule(null, "vip-", null, SimulatorProfile.Verdict.APPROVE),
+                new SimulatorProfile.Rule("withdraw", null, new BigDecimal("1000"), null))));
+
+        assertThat(simulator.check("withdraw", "vip-1", new BigDecimal("5000"))).isTrue();
+        assertThat(simulator.check("withdraw", "acc-1", new BigDecimal("1000.00"))).isFalse();
+        assertThat(simulator.check("withdraw", "acc-1", new BigDecimal("999.99"))).isTrue();
+        assertThat(simulator.check("deposit", "acc-1", new BigDecimal("5000"))).isTrue();
+        assertThat(meterRegistry.counter("fraudsim.requests", "operation", "withdraw", "outcome", "denied").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void denyRateAppliesWhenNoRuleMatches() {
+        FraudSimulator simulator = simulator(new SimulatorProfile(NO_LATENCY, 0, 0, null, 1, List.of(
+                new SimulatorProfile.Rule(null, "vip-", null, SimulatorProfile.Verdict.APPROVE))));
+
+        assertThat(simulator.check("deposit", "acc-1", BigDecimal.TEN)).isFalse();
+        assertThat(simulator.check("deposit", "vip-1", BigDecimal.TEN)).isTrue();
+    }
+
+    @Test
+    void failsWithConfiguredStatusAtErrorRate() {
+        FraudSimulator simulator = simulator(new SimulatorProfile(NO_LATENCY, 1, 500, null, 0, null));
+
+        assertThatThrownBy(() -> simulator.check("deposit", "acc-1", BigDecimal.TEN))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(ex.getStatusCode().value()).isEqualTo(500));
+        assertThat(meterRegistry.counter("fraudsim.requests", "operation", "deposit", "outcome", "error").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void stallsForConfiguredDuration() {
+        FraudSimulator simulator = simulator(new SimulatorProfile(NO_LATENCY, 0, 0,
+                new SimulatorProfile.Stall(1, Duration.ofMillis(100)), 0, null));
+
+        long start = System.nanoTime();
+        simulator.check("deposit", "acc-1", BigDecimal.TEN);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(100));
+        assertThat(meterRegistry.counter("fraudsim.stalls", "operation", "deposit").count()).isEqualTo(1);
+    }
+
+    @Test
+    void replacedProfileAppliesUntilReset() {
+        SimulatorProfile configured = new SimulatorProfile(NO_LATENCY, 0, 0, null, 0, null);
+        FraudSimulator simulator = simulator(configured);
+
+        simulator.replaceProfile(new SimulatorProfile(NO_LATENCY, 0, 0, null, 1, null));
+        assertThat(simulator.check("deposit", "acc-1", BigDecimal.TEN)).isFalse();
+
+        assertThat(simulator.resetProfile()).isSameAs(configured);
+        assertThat(simulator.check("deposit", "acc-1", BigDecimal.TEN)).isTrue();
+    }
+
+    private FraudSimulator simulator(SimulatorProfile profile) {
+        return new FraudSimulator(profile, meterRegistry);
+    }
+}
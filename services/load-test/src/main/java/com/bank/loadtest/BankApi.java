@@ -0,0 +1,178 @@
+package com.bank.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Builds the request for each {@link Operation} against the three services and
+ * creates the users and accounts a run needs.
+ * <p>
+ * Deposits and withdrawals go straight to account-service: the transaction-service
+ * versions call {@code /accounts/{id}/credit} and {@code /debit}, which account-service
+ * does not expose. Transfers go through transaction-service, with an
+ * {@code Idempotency-Key} per transfer.
+ */
+public final class BankApi {
+
+    private final LoadTestConfig config;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // unique per run, so repeated runs against the same database never collide
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong createdAccounts = new AtomicLong();
+    private final AtomicReference<HttpRequest> lastTransfer = new AtomicReference<>();
+
+    private volatile String bearer;
+    private volatile List<String> accountNumbers = List.of();
+
+    public BankApi(LoadTestConfig config) {
+        this.config = config;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(config.requestTimeout())
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    /**
+     * Registers the login users, logs the first one in for the bearer token used by
+     * every other request, and creates the accounts the operations pick from.
+     */
+    public void prepare() throws IOException, InterruptedException {
+        for (int i = 0; i < config.loginUsers(); i++) {
+            String username = username(i);
+            // fails for users left by an earlier run, which is fine: the login below tells whether they work
+            send(post(config.authUrl(), "/api/auth/register", Map.of(
+                    "username", username,
+                    "email", username + "@load.test",
+                    "password", config.password())));
+        }
+
+        HttpResponse<String> login = send(loginRequest(username(0)));
+        if (login.statusCode() != 200) {
+            throw new IllegalStateException("Cannot log in: " + login.statusCode() + " " + login.body());
+        }
+        bearer = "Bearer " + objectMapper.readTree(login.body()).path("token").asText();
+
+        String[] numbers = new String[config.accounts()];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = "lt-" + runId + "-" + i;
+            HttpResponse<String> response = send(createAccountRequest(numbers[i]));
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Cannot create account " + numbers[i] + ": "
+                        + response.statusCode() + " " + response.body());
+            }
+        }
+        accountNumbers = List.of(numbers);
+    }
+
+    public HttpRequest request(Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (operation) {
+            case LOGIN -> loginRequest(username(random.nextInt(config.loginUsers())));
+            case CREATE_ACCOUNT -> createAccountRequest("lt-" + runId + "-n" + createdAccounts.incrementAndGet());
+            case DEPOSIT -> post(config.accountUrl(), "/api/accounts/" + anyAccount(random) + "/deposit",
+                    Map.of("amount", amount(random)));
+            case WITHDRAW -> post(config.accountUrl(), "/api/accounts/" + anyAccount(random) + "/withdraw",
+                    Map.of("amount", amount(random)));
+            case TRANSFER -> transferRequest(random);
+            case HISTORY -> HttpRequest.newBuilder(config.transactionUrl()
+                            .resolve("/transactions?limit=50&accountId=" + anyAccount(random)))
+                    .timeout(config.requestTimeout())
+                    .header("Authorization", bearer)
+                    .GET()
+                    .build();
+        };
+    }
+
+    public int sendDiscardingBody(HttpRequest request) throws IOException, InterruptedException {
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * A new transfer, or with probability {@code replayRatio} a recent one resent
+     * unchanged, key included, as a client retrying after a timeout would.
+     */
+    private HttpRequest transferRequest(ThreadLocalRandom random) {
+        HttpRequest previous = lastTransfer.get();
+        if (previous != null && random.nextDouble() < config.replayRatio()) {
+            return previous;
+        }
+        List<String> accounts = accountNumbers;
+        int source = random.nextInt(accounts.size());
+        int target = (source + 1 + random.nextInt(accounts.size() - 1)) % accounts.size();
+        HttpRequest transfer = HttpRequest.newBuilder(config.transactionUrl().resolve("/transactions/transfer"))
+                .timeout(config.requestTimeout())
+                .header("Content-Type", "application/json")
+                .header("Authorization", bearer)
+                .header("Idempotency-Key", UUID.randomUUID().toString())
+                .POST(body(Map.of(
+                        "accountId", accounts.get(source),
+                        "targetAccountId", accounts.get(target),
+                        "amount", amount(random))))
+                .build();
+        lastTransfer.set(transfer);
+        return transfer;
+    }
+
+    private HttpRequest loginRequest(String username) {
+        return post(config.authUrl(), "/api/auth/login", Map.of("username", username, "password", config.password()));
+    }
+
+    private HttpRequest createAccountRequest(String accountNumber) {
+        // large enough that withdrawals and transfers of up to 50.00 never run out during a run
+        return post(config.accountUrl(), "/api/accounts", Map.of(
+                "accountNumber", accountNumber,
+                "ownerName", "Load Test " + accountNumber,
+                "initialBalance", new BigDecimal("1000000.00")));
+    }
+
+    private HttpRequest post(URI baseUrl, String path, Map<String, Object> body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(baseUrl.resolve(path))
+                .timeout(config.requestTimeout())
+                .header("Content-Type", "application/json")
+                .POST(body(body));
+        if (bearer != null) {
+            builder.header("Authorization", bearer);
+        }
+        return builder.build();
+    }
+
+    private HttpRequest.BodyPublisher body(Map<String, Object> body) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (IOException ex) {
+            throw new IllegalStateException("Cannot serialise request body", ex);
+        }
+    }
+
+    private String anyAccount(ThreadLocalRandom random) {
+        List<String> accounts = accountNumbers;
+        return accounts.get(random.nextInt(accounts.size()));
+    }
+
+    private String username(int index) {
+        return "load-test-" + index;
+    }
+
+    private static BigDecimal amount(ThreadLocalRandom random) {
+        return BigDecimal.valueOf(random.nextLong(1, 5_001), 2);
+    }
+}
@@ -0,0 +1,133 @@
+package com.bank.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency per {@link Operation}, in microseconds, recorded without locks from any
+ * number of threads.
+ * <p>
+ * {@link #flushInterval()} is called once a second: it appends each operation's
+ * interval histogram, tagged with {@link Operation#key()}, to {@code latency.hlog}
+ * and adds it to the run total. The log can be plotted per second with
+ * HistogramLogAnalyzer; {@link #writeReport} prints the totals and writes one
+ * {@code <operation>.hgrm} percentile distribution per operation.
+ */
+public final class LatencyStats {
+
+    // one hour, far beyond any request timeout
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    private final Map<Operation, Histogram> totals = new EnumMap<>(Operation.class);
+    private final Map<Operation, Map<Integer, LongAdder>> errors = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> dropped = new EnumMap<>(Operation.class);
+    private final HistogramLogWriter logWriter;
+
+    public LatencyStats(Path outputDir) throws FileNotFoundException {
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS));
+            totals.put(operation, new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS));
+            errors.put(operation, new ConcurrentHashMap<>());
+            dropped.put(operation, new LongAdder());
+        }
+        this.logWriter = new HistogramLogWriter(outputDir.resolve("latency.hlog").toFile());
+    }
+
+    /**
+     * @param status the HTTP status, or 0 when the request failed without a response
+     */
+    public void record(Operation operation, long latencyNanos, int status) {
+        recorders.get(operation).recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos),
+                HIGHEST_TRACKABLE_MICROS));
+        if (status < 200 || status >= 300) {
+            errors.get(operation).computeIfAbsent(status, key -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * A request that was due but not sent because too many were already outstanding.
+     */
+    public void recordDropped(Operation operation) {
+        dropped.get(operation).increment();
+    }
+
+    /**
+     * Throws away everything recorded so far, at the end of the warmup.
+     */
+    public synchronized void reset() {
+        for (Operation operation : Operation.values()) {
+            recorders.get(operation).reset();
+            totals.get(operation).reset();
+            errors.get(operation).clear();
+            dropped.get(operation).reset();
+        }
+    }
+
+    public synchronized void startLog(long startTimeMillis) {
+        logWriter.outputLogFormatVersion();
+        logWriter.outputStartTime(startTimeMillis);
+        logWriter.setBaseTime(startTimeMillis);
+        logWriter.outputLegend();
+    }
+
+    public synchronized void flushInterval() {
+        for (Operation operation : Operation.values()) {
+            Histogram interval = recorders.get(operation).getIntervalHistogram();
+            if (interval.getTotalCount() > 0) {
+                interval.setTag(operation.key());
+                logWriter.outputIntervalHistogram(interval);
+                totals.get(operation).add(interval);
+            }
+        }
+    }
+
+    public synchronized void writeReport(PrintStream out, Duration measured, Path outputDir)
+            throws FileNotFoundException {
+        flushInterval();
+        logWriter.close();
+
+        double seconds = measured.toNanos() / 1e9;
+        out.printf("%-32s %9s %8s %8s %10s %9s %9s %9s %9s %9s%n", "endpoint", "requests", "errors", "dropped",
+                "req/s", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Operation operation : Operation.values()) {
+            Histogram total = totals.get(operation);
+            long errorCount = errors.get(operation).values().stream().mapToLong(LongAdder::sum).sum();
+            if (total.getTotalCount() == 0 && dropped.get(operation).sum() == 0) {
+                continue;
+            }
+            out.printf("%-32s %9d %8d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    operation.endpoint(), total.getTotalCount(), errorCount, dropped.get(operation).sum(),
+                    total.getTotalCount() / seconds,
+                    millis(total.getValueAtPercentile(50)), millis(total.getValueAtPercentile(95)),
+                    millis(total.getValueAtPercentile(99)), millis(total.getValueAtPercentile(99.9)),
+                    millis(total.getMaxValue()));
+            if (errorCount > 0) {
+                Map<Integer, Long> byStatus = new TreeMap<>();
+                errors.get(operation).forEach((status, count) -> byStatus.put(status, count.sum()));
+                out.printf("%-32s errors by status (0 = no response): %s%n", "", byStatus);
+            }
+            try (PrintStream distribution = new PrintStream(outputDir.resolve(operation.key() + ".hgrm").toFile())) {
+                // values are recorded in microseconds; 1000.0 prints them in milliseconds
+                total.outputPercentileDistribution(distribution, 1000.0);
+            }
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
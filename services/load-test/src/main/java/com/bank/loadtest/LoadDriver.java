@@ -0,0 +1,115 @@
+package com.bank.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends the operation mix for {@code warmup + duration} and records every
+ * request in {@link LatencyStats}, which is reset when the warmup ends.
+ * <p>
+ * Each request runs on its own virtual thread, so thousands can be outstanding
+ * without a thread pool limiting the offered load.
+ */
+public final class LoadDriver {
+
+    private final LoadTestConfig config;
+    private final BankApi api;
+    private final LatencyStats stats;
+
+    public LoadDriver(LoadTestConfig config, BankApi api, LatencyStats stats) {
+        this.config = config;
+        this.api = api;
+        this.stats = stats;
+    }
+
+    /**
+     * Runs until {@code end} (a {@link System#nanoTime()} value).
+     */
+    public void run(long start, long end) throws InterruptedException {
+        if (config.mode() == LoadTestConfig.Mode.OPEN) {
+            runOpenLoop(start, end);
+        } else {
+            runClosedLoop(end);
+        }
+    }
+
+    /**
+     * Starts a request every {@code 1 / rate} seconds on schedule. Latency is measured
+     * from when the request was due rather than when it was sent, so time the
+     * generator spent behind schedule counts as latency instead of being omitted.
+     */
+    private void runOpenLoop(long start, long end) {
+        long intervalNanos = 1_000_000_000L / config.rate();
+        Semaphore inFlight = new Semaphore(config.maxInFlight());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long n = 0; ; n++) {
+                long due = start + n * intervalNanos;
+                if (due - end >= 0) {
+                    break;
+                }
+                parkUntil(due);
+                Operation operation = config.mix().next(ThreadLocalRandom.current());
+                if (!inFlight.tryAcquire()) {
+                    stats.recordDropped(operation);
+                    continue;
+                }
+                executor.execute(() -> {
+                    try {
+                        execute(operation, due);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * {@code users} clients, each sending its next request once the previous one has
+     * answered and {@code think-time} has passed.
+     */
+    private void runClosedLoop(long end) throws InterruptedException {
+        List<Thread> users = new ArrayList<>(config.users());
+        for (int i = 0; i < config.users(); i++) {
+            users.add(Thread.ofVirtual().name("load-test-user-", i).start(() -> {
+                while (System.nanoTime() - end < 0) {
+                    execute(config.mix().next(ThreadLocalRandom.current()), System.nanoTime());
+                    if (!config.thinkTime().isZero()) {
+                        LockSupport.parkNanos(config.thinkTime().toNanos());
+                    }
+                }
+            }));
+        }
+        for (Thread user : users) {
+            user.join();
+        }
+    }
+
+    private void execute(Operation operation, long startNanos) {
+        int status;
+        try {
+            HttpRequest request = api.request(operation);
+            status = api.sendDiscardingBody(request);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception ex) {
+            // connection refused, timeout: recorded as an error with no status
+            status = 0;
+        }
+        stats.record(operation, System.nanoTime() - startNanos, status);
+    }
+
+    private static void parkUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
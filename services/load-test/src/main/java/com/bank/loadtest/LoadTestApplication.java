@@ -0,0 +1,52 @@
+package com.bank.loadtest;
+
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entry point: {@code java -jar load-test.jar --mode=open --rate=500 --duration=5m}.
+ * See the README for every option.
+ */
+public final class LoadTestApplication {
+
+    private LoadTestApplication() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        Files.createDirectories(config.outputDir());
+
+        BankApi api = new BankApi(config);
+        System.out.printf("Preparing %d login users and %d accounts...%n", config.loginUsers(), config.accounts());
+        api.prepare();
+
+        System.out.printf("Mode %s, %s, mix %s, warmup %s, duration %s%n", config.mode(),
+                config.mode() == LoadTestConfig.Mode.OPEN ? config.rate() + " req/s" : config.users() + " users",
+                config.mix(), config.warmup(), config.duration());
+
+        LatencyStats stats = new LatencyStats(config.outputDir());
+        LoadDriver driver = new LoadDriver(config, api, stats);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+        long start = System.nanoTime();
+        long measureFrom = start + config.warmup().toNanos();
+        long end = measureFrom + config.duration().toNanos();
+        scheduler.schedule(() -> {
+            stats.reset();
+            stats.startLog(System.currentTimeMillis());
+            scheduler.scheduleAtFixedRate(stats::flushInterval, 1, 1, TimeUnit.SECONDS);
+        }, config.warmup().toNanos(), TimeUnit.NANOSECONDS);
+
+        driver.run(start, end);
+        // open loop returns once the last request has answered, so measure up to now
+        Duration measured = Duration.ofNanos(System.nanoTime() - measureFrom);
+        scheduler.shutdownNow();
+        scheduler.awaitTermination(5, TimeUnit.SECONDS);
+
+        stats.writeReport(System.out, measured, config.outputDir());
+        System.out.println("Histograms written to " + config.outputDir().toAbsolutePath());
+    }
+}
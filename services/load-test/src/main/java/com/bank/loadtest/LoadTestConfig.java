@@ -0,0 +1,138 @@
+package com.bank.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Command line options, given as {@code --name=value}. Every option has a default
+ * that targets {@code infra/docker-compose.yml} on localhost.
+ *
+ * @param mode         {@link Mode#OPEN}: requests start at {@code rate} per second
+ *                     whether or not earlier ones have answered, and latency counts
+ *                     from the moment a request was due, so a stalled service shows
+ *                     up as queueing time; {@link Mode#CLOSED}: {@code users} clients
+ *                     each send the next request when the previous one answers
+ * @param maxInFlight  open loop only: requests due while this many are outstanding
+ *                     are dropped and counted, so a dead service cannot exhaust the
+ *                     generator's memory
+ * @param replayRatio  share of transfers that resend a recent transfer unchanged,
+ *                     {@code Idempotency-Key} included, as a retrying client would
+ */
+public record LoadTestConfig(
+        URI authUrl,
+        URI accountUrl,
+        URI transactionUrl,
+        Mode mode,
+        int rate,
+        int users,
+        Duration thinkTime,
+        Duration warmup,
+        Duration duration,
+        OperationMix mix,
+        int accounts,
+        int loginUsers,
+        String password,
+        double replayRatio,
+        int maxInFlight,
+        Duration requestTimeout,
+        Path outputDir
+) {
+
+    public enum Mode {
+        OPEN, CLOSED
+    }
+
+    static final String DEFAULT_MIX = "login:5,create-account:2,deposit:30,withdraw:20,transfer:20,history:23";
+
+    // units largest first, each at most once: 1h2m3s4ms
+    private static final Pattern DURATION = Pattern.compile("(\\d+h)?(\\d+m(?!s))?(\\d+s)?(\\d+ms)?");
+    private static final Pattern DURATION_PART = Pattern.compile("(\\d+)(ms|h|m|s)");
+
+    private static final Set<String> OPTIONS = Set.of(
+            "auth-url", "account-url", "transaction-url", "mode", "rate", "users", "think-time",
+            "warmup", "duration", "mix", "accounts", "login-users", "password", "replay-ratio",
+            "max-in-flight", "request-timeout", "output");
+
+    public static LoadTestConfig parse(String... args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            String name = arg.substring(2, equals);
+            if (!OPTIONS.contains(name)) {
+                throw new IllegalArgumentException("Unknown option --" + name + "; known options: " + OPTIONS);
+            }
+            options.put(name, arg.substring(equals + 1));
+        }
+
+        LoadTestConfig config = new LoadTestConfig(
+                URI.create(options.getOrDefault("auth-url", "http://localhost:8081")),
+                URI.create(options.getOrDefault("account-url", "http://localhost:8080")),
+                URI.create(options.getOrDefault("transaction-url", "http://localhost:8082")),
+                Mode.valueOf(options.getOrDefault("mode", "open").toUpperCase()),
+                Integer.parseInt(options.getOrDefault("rate", "200")),
+                Integer.parseInt(options.getOrDefault("users", "50")),
+                duration("think-time", options.getOrDefault("think-time", "0s")),
+                duration("warmup", options.getOrDefault("warmup", "30s")),
+                duration("duration", options.getOrDefault("duration", "2m")),
+                OperationMix.parse(options.getOrDefault("mix", DEFAULT_MIX)),
+                Integer.parseInt(options.getOrDefault("accounts", "1000")),
+                Integer.parseInt(options.getOrDefault("login-users", "100")),
+                options.getOrDefault("password", "load-test-secret"),
+                Double.parseDouble(options.getOrDefault("replay-ratio", "0.02")),
+                Integer.parseInt(options.getOrDefault("max-in-flight", "10000")),
+                duration("request-timeout", options.getOrDefault("request-timeout", "10s")),
+                Path.of(options.getOrDefault("output", "target/load-test")));
+        config.validate();
+        return config;
+    }
+
+    /**
+     * Parses {@code 250ms}, {@code 30s}, {@code 2m}, {@code 1h} and combinations such
+     * as {@code 1m30s}.
+     */
+    private static Duration duration(String option, String value) {
+        if (value.isBlank() || !DURATION.matcher(value.trim()).matches()) {
+            throw new IllegalArgumentException("--" + option + " must be a duration like 250ms, 30s, 2m or 1m30s, got: "
+                    + value);
+        }
+        Duration duration = Duration.ZERO;
+        Matcher part = DURATION_PART.matcher(value.trim());
+        while (part.find()) {
+            long amount = Long.parseLong(part.group(1));
+            duration = duration.plus(switch (part.group(2)) {
+                case "h" -> Duration.ofHours(amount);
+                case "m" -> Duration.ofMinutes(amount);
+                case "s" -> Duration.ofSeconds(amount);
+                default -> Duration.ofMillis(amount);
+            });
+        }
+        return duration;
+    }
+
+    private void validate() {
+        if (mode == Mode.OPEN && rate <= 0) {
+            throw new IllegalArgumentException("--rate must be positive in open mode");
+        }
+        if (mode == Mode.CLOSED && users <= 0) {
+            throw new IllegalArgumentException("--users must be positive in closed mode");
+        }
+        if (accounts < 2) {
+            throw new IllegalArgumentException("--accounts must be at least 2, transfers need two accounts");
+        }
+        if (loginUsers < 1) {
+            throw new IllegalArgumentException("--login-users must be at least 1");
+        }
+        if (replayRatio < 0 || replayRatio > 1) {
+            throw new IllegalArgumentException("--replay-ratio must be between 0 and 1");
+        }
+    }
+}
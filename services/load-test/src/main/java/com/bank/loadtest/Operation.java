@@ -0,0 +1,41 @@
+package com.bank.loadtest;
+
+/**
+ * The requests a simulated client makes. {@link #key()} names the operation in
+ * {@code --mix} and tags its histograms in the result log.
+ */
+public enum Operation {
+
+    LOGIN("login", "POST /api/auth/login"),
+    CREATE_ACCOUNT("create-account", "POST /api/accounts"),
+    DEPOSIT("deposit", "POST /api/accounts/{n}/deposit"),
+    WITHDRAW("withdraw", "POST /api/accounts/{n}/withdraw"),
+    TRANSFER("transfer", "POST /transactions/transfer"),
+    HISTORY("history", "GET /transactions?accountId"),
+    ;
+
+    private final String key;
+    private final String endpoint;
+
+    Operation(String key, String endpoint) {
+        this.key = key;
+        this.endpoint = endpoint;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public String endpoint() {
+        return endpoint;
+    }
+
+    public static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation in --mix: " + key);
+    }
+}
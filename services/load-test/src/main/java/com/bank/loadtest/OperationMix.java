@@ -0,0 +1,80 @@
+package com.bank.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * Picks operations at random in proportion to their weights, e.g.
+ * {@code login:5,deposit:30} sends six deposits for every login.
+ */
+public final class OperationMix {
+
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final int totalWeight;
+    private final Map<Operation, Integer> weights;
+
+    public OperationMix(Map<Operation, Integer> weights) {
+        this.weights = new EnumMap<>(Operation.class);
+        this.operations = new Operation[weights.size()];
+        this.cumulativeWeights = new int[weights.size()];
+        int total = 0;
+        int i = 0;
+        for (Operation operation : Operation.values()) {
+            Integer weight = weights.get(operation);
+            if (weight == null || weight == 0) {
+                continue;
+            }
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight for " + operation.key() + ": " + weight);
+            }
+            total += weight;
+            this.weights.put(operation, weight);
+            operations[i] = operation;
+            cumulativeWeights[i] = total;
+            i++;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("--mix gives no operation a positive weight");
+        }
+        this.totalWeight = total;
+    }
+
+    /**
+     * Parses {@code key:weight,key:weight}, e.g. {@code deposit:30,withdraw:20}.
+     */
+    public static OperationMix parse(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected key:weight in --mix, got: " + entry);
+            }
+            weights.put(Operation.fromKey(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        }
+        return new OperationMix(weights);
+    }
+
+    public Operation next(RandomGenerator random) {
+        int roll = random.nextInt(totalWeight);
+        for (int i = 0; ; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+    }
+
+    public Map<Operation, Integer> weights() {
+        return weights;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder description = new StringBuilder();
+        weights.forEach((operation, weight) -> description
+                .append(description.isEmpty() ? "" : ",")
+                .append(operation.key()).append(':').append(weight));
+        return description.toString();
+    }
+}
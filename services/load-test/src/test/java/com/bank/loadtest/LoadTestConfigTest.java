@@ -0,0 +1,49 @@
+package com.bank.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoadTestConfigTest {
+
+    @Test
+    void defaultsTargetTheComposeStackInOpenLoop() {
+        LoadTestConfig config = LoadTestConfig.parse();
+
+        assertThat(config.authUrl()).isEqualTo(URI.create("http://localhost:8081"));
+        assertThat(config.accountUrl()).isEqualTo(URI.create("http://localhost:8080"));
+        assertThat(config.transactionUrl()).isEqualTo(URI.create("http://localhost:8082"));
+        assertThat(config.mode()).isEqualTo(LoadTestConfig.Mode.OPEN);
+        assertThat(config.warmup()).isEqualTo(Duration.ofSeconds(30));
+        assertThat(config.duration()).isEqualTo(Duration.ofMinutes(2));
+    }
+
+    @Test
+    void parsesOptions() {
+        LoadTestConfig config = LoadTestConfig.parse("--mode=closed", "--users=8", "--think-time=250ms",
+                "--duration=1m30s", "--mix=transfer:1");
+
+        assertThat(config.mode()).isEqualTo(LoadTestConfig.Mode.CLOSED);
+        assertThat(config.users()).isEqualTo(8);
+        assertThat(config.thinkTime()).isEqualTo(Duration.ofMillis(250));
+        assertThat(config.duration()).isEqualTo(Duration.ofSeconds(90));
+        assertThat(config.mix().weights()).containsOnlyKeys(Operation.TRANSFER);
+    }
+
+    @Test
+    void rejectsUnknownOrInvalidOptions() {
+        assertThatThrownBy(() -> LoadTestConfig.parse("--rps=10")).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("--rps");
+        assertThatThrownBy(() -> LoadTestConfig.parse("rate=10")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LoadTestConfig.parse("--rate=0")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LoadTestConfig.parse("--accounts=1")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LoadTestConfig.parse("--replay-ratio=1.5")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LoadTestConfig.parse("--warmup=10")).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("--warmup");
+        assertThatThrownBy(() -> LoadTestConfig.parse("--duration=30s1m")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
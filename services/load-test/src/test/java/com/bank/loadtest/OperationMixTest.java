@@ -0,0 +1,44 @@
+package com.bank.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class OperationMixTest {
+
+    @Test
+    void picksOperationsInProportionToTheirWeights() {
+        OperationMix mix = OperationMix.parse("deposit:3, withdraw:1, history:0");
+        SplittableRandom random = new SplittableRandom(42);
+        Map<Operation, Integer> counts = new EnumMap<>(Operation.class);
+
+        for (int i = 0; i < 100_000; i++) {
+            counts.merge(mix.next(random), 1, Integer::sum);
+        }
+
+        assertThat(counts).containsOnlyKeys(Operation.DEPOSIT, Operation.WITHDRAW);
+        assertThat(counts.get(Operation.DEPOSIT) / 100_000.0).isCloseTo(0.75, within(0.01));
+    }
+
+    @Test
+    void describesItselfInTheFormatItParses() {
+        OperationMix mix = OperationMix.parse(LoadTestConfig.DEFAULT_MIX);
+
+        assertThat(mix.toString()).isEqualTo(LoadTestConfig.DEFAULT_MIX);
+        assertThat(mix.weights()).containsEntry(Operation.TRANSFER, 20).hasSize(Operation.values().length);
+    }
+
+    @Test
+    void rejectsMalformedMixes() {
+        assertThatThrownBy(() -> OperationMix.parse("deposit")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> OperationMix.parse("refund:1")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> OperationMix.parse("deposit:-1")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> OperationMix.parse("deposit:0")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
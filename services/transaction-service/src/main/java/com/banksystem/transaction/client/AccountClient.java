@@ -1,11 +1,13 @@
 package com.banksystem.transaction.client;
 
+import com.banksystem.transaction.dto.AccountTransferRequest;
 import com.banksystem.transaction.dto.TransactionRequest;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 
 import java.math.BigDecimal;
 
@@ -18,15 +20,25 @@ public interface AccountClient {
     @GetMapping("/accounts/{accountId}/balance")
     BigDecimal getBalance(@PathVariable("accountId") String accountId);
 
+    // debit, credit and transfer carry the transaction's idempotency key, so account-service applies a retried call once
     @PostMapping("/accounts/{accountId}/debit")
     void debit(
             @PathVariable("accountId") String accountId,
+            @RequestHeader("Idempotency-Key") String idempotencyKey,
             @RequestBody TransactionRequest body
     );
 
     @PostMapping("/accounts/{accountId}/credit")
     void credit(
             @PathVariable("accountId") String accountId,
+            @RequestHeader("Idempotency-Key") String idempotencyKey,
             @RequestBody TransactionRequest body
     );
+
+    @PostMapping("/api/accounts/{accountId}/transfer")
+    void transfer(
+            @PathVariable("accountId") String accountId,
+            @RequestHeader("Idempotency-Key") String idempotencyKey,
+            @RequestBody AccountTransferRequest body
+    );
 }
\ No newline at end of file
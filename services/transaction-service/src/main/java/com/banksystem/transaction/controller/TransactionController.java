@@ -1,23 +1,37 @@
 package com.banksystem.transaction.controller;
 
+import com.banksystem.transaction.dto.BatchTransactionRequest;
+import com.banksystem.transaction.dto.BatchTransactionResponse;
 import com.banksystem.transaction.dto.DepositRequest;
+import com.banksystem.transaction.dto.ExportFormat;
+import com.banksystem.transaction.dto.TransactionPageResponse;
 import com.banksystem.transaction.dto.TransactionResponse;
 import com.banksystem.transaction.dto.TransferRequest;
 import com.banksystem.transaction.dto.WithdrawRequest;
 import com.banksystem.transaction.model.Transaction;
 import com.banksystem.transaction.model.TransactionStatus;
+import com.banksystem.transaction.service.BatchTransactionService;
+import com.banksystem.transaction.service.TransactionExportService;
 import com.banksystem.transaction.service.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @RestController
@@ -28,17 +42,27 @@ import java.util.stream.Collectors;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final TransactionExportService transactionExportService;
+    private final BatchTransactionService batchTransactionService;
+
+    @Value("${transactions.outbox.enabled:false}")
+    private boolean outboxEnabled;
 
     @Operation(summary = "Deposit", description = "Creates a deposit transaction. Requires Idempotency-Key header.")
     @PostMapping("/deposit")
     public ResponseEntity<TransactionResponse> deposit(
             @Parameter(description = "Idempotency key to prevent duplicate processing", required = true)
             @RequestHeader("Idempotency-Key") String idempotencyKey,
-            @Valid @RequestBody DepositRequest request
+            @Valid @RequestBody DepositRequest request,
+            @Parameter(description = "respond-async to return 202 and apply the transaction in the background")
+            @RequestHeader(value = "Prefer", required = false) String prefer
     ) {
-        TransactionResponse tx = transactionService.deposit(request, idempotencyKey);
-        return new ResponseEntity<>(tx,
-                tx.getStatus() == TransactionStatus.SUCCESS ? HttpStatus.CREATED : HttpStatus.OK);
+        if (respondAsync(prefer)) {
+            return toResponse(replayOnConflict(idempotencyKey,
+                    () -> transactionService.submitDeposit(request, idempotencyKey)));
+        }
+        return toResponse(replayOnConflict(idempotencyKey,
+                () -> transactionService.deposit(request, idempotencyKey)));
     }
 
     @Operation(summary = "Withdraw", description = "Creates a withdraw transaction. Requires Idempotency-Key header.")
@@ -46,11 +70,16 @@ public class TransactionController {
     public ResponseEntity<TransactionResponse> withdraw(
             @Parameter(description = "Idempotency key to prevent duplicate processing", required = true)
             @RequestHeader("Idempotency-Key") String idempotencyKey,
-            @Valid @RequestBody WithdrawRequest request
+            @Valid @RequestBody WithdrawRequest request,
+            @Parameter(description = "respond-async to return 202 and apply the transaction in the background")
+            @RequestHeader(value = "Prefer", required = false) String prefer
     ) {
-        TransactionResponse tx = transactionService.withdraw(request, idempotencyKey);
-        return new ResponseEntity<>(tx,
-                tx.getStatus() == TransactionStatus.SUCCESS ? HttpStatus.CREATED : HttpStatus.OK);
+        if (respondAsync(prefer)) {
+            return toResponse(replayOnConflict(idempotencyKey,
+                    () -> transactionService.submitWithdraw(request, idempotencyKey)));
+        }
+        return toResponse(replayOnConflict(idempotencyKey,
+                () -> transactionService.withdraw(request, idempotencyKey)));
     }
 
     @Operation(summary = "Transfer", description = "Creates a transfer transaction. Requires Idempotency-Key header.")
@@ -58,19 +87,90 @@ public class TransactionController {
     public ResponseEntity<TransactionResponse> transfer(
             @Parameter(description = "Idempotency key to prevent duplicate processing", required = true)
             @RequestHeader("Idempotency-Key") String idempotencyKey,
-            @Valid @RequestBody TransferRequest request
+            @Valid @RequestBody TransferRequest request,
+            @Parameter(description = "respond-async to return 202 and apply the transaction in the background")
+            @RequestHeader(value = "Prefer", required = false) String prefer
     ) {
-        TransactionResponse tx = transactionService.transfer(request, idempotencyKey);
-        return new ResponseEntity<>(tx,
-                tx.getStatus() == TransactionStatus.SUCCESS ? HttpStatus.CREATED : HttpStatus.OK);
+        if (respondAsync(prefer)) {
+            return toResponse(replayOnConflict(idempotencyKey,
+                    () -> transactionService.submitTransfer(request, idempotencyKey)));
+        }
+        return toResponse(replayOnConflict(idempotencyKey,
+                () -> transactionService.transfer(request, idempotencyKey)));
+    }
+
+    @Operation(summary = "Batch deposits and withdrawals",
+            description = "Processes many deposits and withdrawals, each with its own idempotency key, and returns one result per item in request order.")
+    @PostMapping("/batch")
+    public ResponseEntity<BatchTransactionResponse> batch(@Valid @RequestBody BatchTransactionRequest request) {
+        return ResponseEntity.ok(batchTransactionService.ingest(request.getItems()));
     }
 
-    @Operation(summary = "List transactions by account", description = "Returns transactions filtered by accountId.")
+    @Operation(summary = "List transactions by account",
+            description = "Returns a page of transactions for accountId, newest first. Pass nextCursor as 'after' to fetch the next page.")
     @GetMapping
-    public ResponseEntity<List<TransactionResponse>> listByAccount(
-            @RequestParam("accountId") String accountId
+    public ResponseEntity<TransactionPageResponse> listByAccount(
+            @RequestParam("accountId") String accountId,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page")
+            @RequestParam(value = "after", required = false) String after,
+            @Parameter(description = "Maximum number of transactions in the page")
+            @RequestParam(value = "limit", defaultValue = "50") @Min(1) @Max(200) int limit
+    ) {
+        try {
+            return ResponseEntity.ok(transactionService.listByAccount(accountId, after, limit));
+        } catch (IllegalArgumentException ex) {
+            // a malformed or tampered cursor is the client's error, not a 500
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage(), ex);
+        }
+    }
+
+    @Operation(summary = "Export transactions by account",
+            description = "Streams the full history of accountId, oldest first, as NDJSON or CSV.")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam("accountId") String accountId,
+            @Parameter(description = "Output format: ndjson or csv")
+            @RequestParam(value = "format", defaultValue = "ndjson") String format
     ) {
-        List<TransactionResponse> responses = transactionService.listByAccount(accountId);
-        return ResponseEntity.ok(responses);
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.from(format);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage(), ex);
+        }
+        StreamingResponseBody body = out -> transactionExportService.export(accountId, exportFormat, out);
+        ContentDisposition disposition = ContentDisposition.attachment()
+                .filename("transactions-" + accountId + "." + exportFormat.getExtension())
+                .build();
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(body);
+    }
+
+    private boolean respondAsync(String prefer) {
+        return outboxEnabled && prefer != null && prefer.toLowerCase().contains("respond-async");
+    }
+
+    private static ResponseEntity<TransactionResponse> toResponse(TransactionResponse tx) {
+        HttpStatus status = switch (tx.getStatus()) {
+            case SUCCESS -> HttpStatus.CREATED;
+            case PENDING -> HttpStatus.ACCEPTED;
+            default -> HttpStatus.OK;
+        };
+        return new ResponseEntity<>(tx, status);
+    }
+
+    /**
+     * A concurrent request (possibly on another instance) committed the same
+     * idempotency key first and the insert hit the unique constraint: answer with
+     * the transaction that won instead of failing.
+     */
+    private TransactionResponse replayOnConflict(String idempotencyKey, Supplier<TransactionResponse> operation) {
+        try {
+            return operation.get();
+        } catch (DataIntegrityViolationException ex) {
+            return transactionService.findByIdempotencyKey(idempotencyKey).orElseThrow(() -> ex);
+        }
     }
 }
\ No newline at end of file
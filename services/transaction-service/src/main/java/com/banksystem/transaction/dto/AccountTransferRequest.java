@@ -0,0 +1,19 @@
+package com.banksystem.transaction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Body of account-service's transfer endpoint, which moves the amount between
+ * both accounts in a single local database transaction.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountTransferRequest {
+    private String targetAccountNumber;
+    private BigDecimal amount;
+}
@@ -0,0 +1,18 @@
+package com.banksystem.transaction.dto;
+
+/**
+ * Result of a single batch item. CREATED items were applied to account-service,
+ * REPLAYED items had already been settled under the same idempotency key,
+ * FAILED items were recorded but rejected downstream, and REJECTED items were
+ * never persisted. PENDING items got no definitive answer (timeout, 5xx) and may
+ * have been applied; resubmitting the batch sends them again under the same key.
+ * An item left PENDING by an earlier submission is sent again and reported like
+ * a new one.
+ */
+public enum BatchItemOutcome {
+    CREATED,
+    REPLAYED,
+    FAILED,
+    PENDING,
+    REJECTED
+}
@@ -0,0 +1,33 @@
+package com.banksystem.transaction.dto;
+
+import com.banksystem.transaction.model.TransactionType;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One deposit or withdrawal inside a batch submission. Each item carries its own
+ * idempotency key, so a partially applied batch can be resubmitted as is.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchTransactionItem {
+    @NotBlank
+    private String idempotencyKey;
+
+    @NotNull
+    private TransactionType type;
+
+    @NotBlank
+    private String accountId;
+
+    @NotNull
+    @Positive
+    private BigDecimal amount;
+}
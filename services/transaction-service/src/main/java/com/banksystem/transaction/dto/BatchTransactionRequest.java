@@ -0,0 +1,18 @@
+package com.banksystem.transaction.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchTransactionRequest {
+    @NotEmpty
+    @Valid
+    private List<BatchTransactionItem> items;
+}
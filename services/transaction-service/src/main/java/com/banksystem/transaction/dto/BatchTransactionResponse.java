@@ -0,0 +1,17 @@
+package com.banksystem.transaction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Per-item results of a batch submission, in the same order as the request items.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchTransactionResponse {
+    private List<BatchTransactionResult> results;
+}
@@ -0,0 +1,15 @@
+package com.banksystem.transaction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchTransactionResult {
+    private String idempotencyKey;
+    private BatchItemOutcome outcome;
+    private TransactionResponse transaction;
+    private String error;
+}
@@ -0,0 +1,20 @@
+package com.banksystem.transaction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of an account's transaction history. {@code nextCursor} is an opaque
+ * token to pass as {@code after} to fetch the following page; it is null on the
+ * last page.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransactionPageResponse {
+    private List<TransactionResponse> items;
+    private String nextCursor;
+}
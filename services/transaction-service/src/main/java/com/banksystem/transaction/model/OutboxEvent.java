@@ -0,0 +1,60 @@
+package com.banksystem.transaction.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Pending account-service work for a transaction accepted in asynchronous mode.
+ * The row is written in the same database transaction as its {@link Transaction}
+ * and deleted once the transaction reaches SUCCESS or FAILED.
+ */
+@Entity
+@Table(name = "transaction_outbox", uniqueConstraints = {
+        @UniqueConstraint(columnNames = "transactionId")
+}, indexes = {
+        @Index(name = "idx_transaction_outbox_next_attempt", columnList = "nextAttemptAt"),
+        @Index(name = "idx_transaction_outbox_created", columnList = "createdAt")
+})
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class OutboxEvent {
+
+    @Id
+    @TimeOrderedUuid
+    private UUID id;
+
+    @NotNull
+    private UUID transactionId;
+
+    @NotNull
+    private LocalDateTime createdAt;
+
+    /**
+     * Earliest time a dispatcher may pick the row up; moved forward while a
+     * dispatcher holds the lease and after each failed attempt.
+     */
+    @NotNull
+    private LocalDateTime nextAttemptAt;
+
+    /**
+     * Set by each claim; completion, renewal and rescheduling only apply while the
+     * row still carries the token of the claim that leased it.
+     */
+    private UUID leaseToken;
+
+    private int attempts;
+
+    @Column(length = 500)
+    private String lastError;
+
+    public static OutboxEvent forTransaction(Transaction transaction) {
+        return new OutboxEvent(null, transaction.getId(), transaction.getCreatedAt(),
+                transaction.getCreatedAt(), null, 0, null);
+    }
+}
@@ -12,6 +12,9 @@ import java.util.UUID;
 @Entity
 @Table(name = "transactions", uniqueConstraints = {
         @UniqueConstraint(columnNames = "idempotencyKey")
+}, indexes = {
+        @Index(name = "idx_transactions_account_created", columnList = "accountId, createdAt"),
+        @Index(name = "idx_transactions_target_created", columnList = "targetAccountId, createdAt")
 })
 @AllArgsConstructor
 @NoArgsConstructor
@@ -20,8 +23,10 @@ import java.util.UUID;
 @EqualsAndHashCode
 public class Transaction {
 
+    // time-ordered and generated in-process at persist time, so inserts stay
+    // JDBC-batched and append to the right-hand edge of the primary key index
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @TimeOrderedUuid
     private UUID id;
 
     @NotNull
@@ -0,0 +1,49 @@
+package com.banksystem.transaction.model;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered UUIDs following the RFC 9562 version 7 layout: a 48-bit Unix
+ * millisecond timestamp, a 12-bit counter for ordering within a millisecond and 62
+ * random bits. Values generated by one process are strictly increasing, so primary
+ * key inserts land at the right-hand edge of the B-tree instead of on random pages.
+ * <p>
+ * The random bits come from {@link ThreadLocalRandom}: the ids are unique and
+ * ordered but are not meant to be unguessable.
+ */
+public final class UuidV7 {
+
+    // (unix millis << 12) | counter of the last generated value
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private UuidV7() {
+    }
+
+    public static UUID next() {
+        long now = System.currentTimeMillis() << 12;
+        long state;
+        long previous;
+        do {
+            previous = LAST.get();
+            // counter overflow carries into the timestamp, and a clock step back
+            // reuses the last timestamp, so ordering is never broken
+            state = Math.max(now, previous + 1);
+        } while (!LAST.compareAndSet(previous, state));
+
+        long mostSigBits = ((state >>> 12) << 16) | 0x7000L | (state & 0xFFFL);
+        long leastSigBits = (ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    /**
+     * Unix epoch milliseconds encoded in a version 7 UUID.
+     */
+    public static long timestamp(UUID uuid) {
+        if (uuid.version() != 7) {
+            throw new IllegalArgumentException("Not a version 7 UUID: " + uuid);
+        }
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+}
@@ -0,0 +1,55 @@
+package com.banksystem.transaction.repository;
+
+import com.banksystem.transaction.model.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface OutboxRepository extends JpaRepository<OutboxEvent, UUID> {
+
+    /**
+     * Locks up to a page of due events, skipping rows locked by other dispatchers
+     * (lock timeout -2 is Hibernate's SKIP LOCKED), so several instances can drain
+     * the outbox concurrently.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select e from OutboxEvent e where e.nextAttemptAt <= :now order by e.createdAt")
+    List<OutboxEvent> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    Optional<OutboxEvent> findFirstByOrderByCreatedAtAsc();
+
+    /**
+     * Extends the lease, unless another claim has taken the row since {@code leaseToken} was issued.
+     */
+    @Modifying
+    @Query("update OutboxEvent e set e.nextAttemptAt = :leasedUntil where e.id = :id and e.leaseToken = :leaseToken")
+    int renewLease(@Param("id") UUID id,
+                   @Param("leaseToken") UUID leaseToken,
+                   @Param("leasedUntil") LocalDateTime leasedUntil);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.nextAttemptAt = :nextAttemptAt, e.lastError = :error"
+            + " where e.id = :id and e.leaseToken = :leaseToken")
+    int reschedule(@Param("id") UUID id,
+                   @Param("leaseToken") UUID leaseToken,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("error") String error);
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.id = :id and e.leaseToken = :leaseToken")
+    int deleteLeased(@Param("id") UUID id, @Param("leaseToken") UUID leaseToken);
+}
@@ -1,14 +1,95 @@
 package com.banksystem.transaction.repository;
 
 import com.banksystem.transaction.model.Transaction;
+import com.banksystem.transaction.model.TransactionStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, UUID> {
 
+    /**
+     * Rows fetched per round trip by {@link #streamByAccount(String)}.
+     */
+    String EXPORT_FETCH_SIZE = "500";
+
     Optional<Transaction> findByIdempotencyKey(String idempotencyKey);
-}
\ No newline at end of file
+
+    List<Transaction> findByIdempotencyKeyIn(Collection<String> idempotencyKeys);
+
+    /**
+     * Moves a PENDING transaction to its final status; returns 0 if it was already settled.
+     */
+    @Modifying
+    @Query("update Transaction t set t.status = :status where t.id = :id"
+            + " and t.status = com.banksystem.transaction.model.TransactionStatus.PENDING")
+    int settle(@Param("id") UUID id, @Param("status") TransactionStatus status);
+
+    List<Transaction> findByAccountIdOrderByCreatedAtDescIdDesc(String accountId, Pageable pageable);
+
+    List<Transaction> findByTargetAccountIdOrderByCreatedAtDescIdDesc(String targetAccountId, Pageable pageable);
+
+    /**
+     * Keyset page of transactions originated by the account, strictly older than the
+     * given (createdAt, id) cursor. Served by the (account_id, created_at) index.
+     */
+    @Query("""
+            select t from Transaction t
+            where t.accountId = :accountId
+              and (t.createdAt < :createdAt or (t.createdAt = :createdAt and t.id < :id))
+            order by t.createdAt desc, t.id desc
+            """)
+    List<Transaction> findByAccountIdBefore(
+            @Param("accountId") String accountId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") UUID id,
+            Pageable pageable
+    );
+
+    /**
+     * Keyset page of transfers received by the account, strictly older than the
+     * given (createdAt, id) cursor. Served by the (target_account_id, created_at) index.
+     */
+    @Query("""
+            select t from Transaction t
+            where t.targetAccountId = :accountId
+              and (t.createdAt < :createdAt or (t.createdAt = :createdAt and t.id < :id))
+            order by t.createdAt desc, t.id desc
+            """)
+    List<Transaction> findByTargetAccountIdBefore(
+            @Param("accountId") String accountId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") UUID id,
+            Pageable pageable
+    );
+
+    /**
+     * Full history of the account, oldest first, read through a server-side cursor.
+     * Must be consumed inside a transaction (the Postgres driver only honours the
+     * fetch size with autocommit off) and closed by the caller.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select t from Transaction t
+            where t.accountId = :accountId or t.targetAccountId = :accountId
+            order by t.createdAt asc, t.id asc
+            """)
+    Stream<Transaction> streamByAccount(@Param("accountId") String accountId);
+}
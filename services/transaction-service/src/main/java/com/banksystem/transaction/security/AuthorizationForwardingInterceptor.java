@@ -0,0 +1,42 @@
+package com.banksystem.transaction.security;
+
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Optional;
+
+/**
+ * Passes the caller's {@code Authorization} header on to account-service, so a
+ * request that reached us with a token still carries it when account-service
+ * verifies tokens too. Calls made outside a request, such as those of the
+ * outbox dispatcher, carry this service's own token instead when
+ * {@code security.service-token.enabled} is set, and go out without one otherwise.
+ */
+@Component
+public class AuthorizationForwardingInterceptor implements RequestInterceptor {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final Optional<ServiceTokenProvider> serviceTokenProvider;
+
+    public AuthorizationForwardingInterceptor(Optional<ServiceTokenProvider> serviceTokenProvider) {
+        this.serviceTokenProvider = serviceTokenProvider;
+    }
+
+    @Override
+    public void apply(RequestTemplate template) {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            String authorization = attributes.getRequest().getHeader(HttpHeaders.AUTHORIZATION);
+            if (authorization != null) {
+                template.header(HttpHeaders.AUTHORIZATION, authorization);
+            }
+            return;
+        }
+        serviceTokenProvider.ifPresent(provider ->
+                template.header(HttpHeaders.AUTHORIZATION, BEARER_PREFIX + provider.token()));
+    }
+}
@@ -0,0 +1,40 @@
+package com.banksystem.transaction.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Verifies auth-service tokens locally on {@code url-patterns}, with the keys
+ * published at auth-service's {@code /.well-known/jwks.json}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "security.jwt.verification.enabled", havingValue = "true")
+public class JwtVerificationConfig {
+
+    @Bean
+    public JwksKeySet jwksKeySet(RestTemplateBuilder restTemplateBuilder,
+                                 @Value("${security.jwt.verification.jwks-uri}") String jwksUri,
+                                 @Value("${security.jwt.verification.min-refresh-interval:30s}") Duration minRefreshInterval) {
+        return new JwksKeySet(restTemplateBuilder
+                .connectTimeout(Duration.ofSeconds(2))
+                .readTimeout(Duration.ofSeconds(3))
+                .build(), jwksUri, minRefreshInterval);
+    }
+
+    @Bean
+    public FilterRegistrationBean<JwtVerificationFilter> jwtVerificationFilter(
+            JwksKeySet jwksKeySet,
+            @Value("${security.jwt.verification.clock-skew:30s}") Duration clockSkew,
+            @Value("${security.jwt.verification.url-patterns:/transactions/*}") String[] urlPatterns) {
+        FilterRegistrationBean<JwtVerificationFilter> registration =
+                new FilterRegistrationBean<>(new JwtVerificationFilter(jwksKeySet, clockSkew, "transaction-service"));
+        registration.addUrlPatterns(urlPatterns);
+        return registration;
+    }
+}
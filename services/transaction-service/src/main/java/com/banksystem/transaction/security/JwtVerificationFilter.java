@@ -0,0 +1,87 @@
+package com.banksystem.transaction.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.security.Key;
+import java.time.Duration;
+
+/**
+ * Rejects requests without a valid RS256 token issued by auth-service, checking
+ * the signature against the in-memory {@link JwksKeySet}. The verified claims are
+ * exposed to controllers as the {@link #CLAIMS_ATTRIBUTE} request attribute.
+ * <p>
+ * account-service and transaction-service carry the same copy of this class, apart
+ * from the package; a change to one must be made to the other.
+ */
+public class JwtVerificationFilter extends OncePerRequestFilter {
+
+    public static final String CLAIMS_ATTRIBUTE = JwtVerificationFilter.class.getName() + ".CLAIMS";
+
+    private static final Logger log = LoggerFactory.getLogger(JwtVerificationFilter.class);
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    // immutable and thread-safe, so one instance serves every request
+    private final JwtParser parser;
+    private final String missingTokenChallenge;
+
+    /**
+     * @param realm the service name announced to clients that sent no token
+     */
+    public JwtVerificationFilter(JwksKeySet keySet, Duration allowedClockSkew, String realm) {
+        this.missingTokenChallenge = "Bearer realm=\"" + realm + "\"";
+        this.parser = Jwts.parserBuilder()
+                .setAllowedClockSkewSeconds(allowedClockSkew.toSeconds())
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        // only RSA keys are ever returned, so HS256 or unsigned tokens cannot pass
+                        Key key = keySet.find(header.getKeyId());
+                        if (key == null) {
+                            throw new SignatureException("Unknown signing key: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith(BEARER_PREFIX)) {
+            reject(response, missingTokenChallenge);
+            return;
+        }
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(header.substring(BEARER_PREFIX.length())).getBody();
+        } catch (JwtException | IllegalArgumentException ex) {
+            log.debug("Rejected token for {}: {}", request.getRequestURI(), ex.getMessage());
+            reject(response, "Bearer error=\"invalid_token\"");
+            return;
+        }
+        request.setAttribute(CLAIMS_ATTRIBUTE, claims);
+        chain.doFilter(request, response);
+    }
+
+    private static void reject(HttpServletResponse response, String challenge) throws IOException {
+        response.setHeader(HttpHeaders.WWW_AUTHENTICATE, challenge);
+        response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+    }
+}
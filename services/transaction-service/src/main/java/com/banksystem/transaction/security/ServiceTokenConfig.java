@@ -0,0 +1,30 @@
+package com.banksystem.transaction.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Gives calls made outside a user request a token of their own, for when
+ * account-service verifies tokens; see {@link AuthorizationForwardingInterceptor}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "security.service-token.enabled", havingValue = "true")
+public class ServiceTokenConfig {
+
+    @Bean
+    public ServiceTokenProvider serviceTokenProvider(RestTemplateBuilder restTemplateBuilder,
+                                                     @Value("${security.service-token.uri}") String tokenUri,
+                                                     @Value("${security.service-token.client-id}") String clientId,
+                                                     @Value("${security.service-token.client-secret}") String clientSecret,
+                                                     @Value("${security.service-token.refresh-before:1m}") Duration refreshBefore) {
+        return new ServiceTokenProvider(restTemplateBuilder
+                .connectTimeout(Duration.ofSeconds(2))
+                .readTimeout(Duration.ofSeconds(3))
+                .build(), tokenUri, clientId, clientSecret, refreshBefore);
+    }
+}
@@ -0,0 +1,82 @@
+package com.banksystem.transaction.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This service's own token, obtained from auth-service's
+ * {@code /api/auth/service-token} with its client credentials, for calls made
+ * outside any user request (the outbox dispatcher's).
+ * <p>
+ * The token is cached and fetched again {@code refresh-before} its expiry. If that
+ * fetch fails the cached token is used until it actually expires; after that, or
+ * when no token was ever obtained, {@link #token()} throws
+ * {@link ServiceTokenUnavailableException}.
+ */
+public class ServiceTokenProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(ServiceTokenProvider.class);
+
+    private final RestTemplate restTemplate;
+    private final String tokenUri;
+    private final Map<String, String> credentials;
+    private final long refreshBeforeNanos;
+    private final ReentrantLock fetchLock = new ReentrantLock();
+    private volatile CachedToken cached;
+
+    public ServiceTokenProvider(RestTemplate restTemplate, String tokenUri, String clientId, String clientSecret,
+                                Duration refreshBefore) {
+        this.restTemplate = restTemplate;
+        this.tokenUri = tokenUri;
+        this.credentials = Map.of("clientId", clientId, "clientSecret", clientSecret);
+        this.refreshBeforeNanos = refreshBefore.toNanos();
+    }
+
+    public String token() {
+        CachedToken current = cached;
+        if (current != null && System.nanoTime() - current.refreshAt() < 0) {
+            return current.value();
+        }
+        fetchLock.lock();
+        try {
+            current = cached;
+            if (current != null && System.nanoTime() - current.refreshAt() < 0) {
+                return current.value();
+            }
+            try {
+                cached = fetch();
+                return cached.value();
+            } catch (RestClientException | IllegalArgumentException ex) {
+                if (current != null && System.nanoTime() - current.expiresAt() < 0) {
+                    log.warn("Could not renew the service token from {}, using the current one: {}",
+                            tokenUri, ex.getMessage());
+                    return current.value();
+                }
+                throw new ServiceTokenUnavailableException("Could not obtain a service token from " + tokenUri, ex);
+            }
+        } finally {
+            fetchLock.unlock();
+        }
+    }
+
+    private CachedToken fetch() {
+        JsonNode response = restTemplate.postForObject(tokenUri, credentials, JsonNode.class);
+        if (response == null || !response.hasNonNull("token")) {
+            throw new IllegalArgumentException("response has no token field");
+        }
+        long now = System.nanoTime();
+        long expiresIn = Duration.ofSeconds(response.path("expiresInSeconds").asLong()).toNanos();
+        return new CachedToken(response.get("token").asText(),
+                now + Math.max(expiresIn - refreshBeforeNanos, 0), now + expiresIn);
+    }
+
+    private record CachedToken(String value, long refreshAt, long expiresAt) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.banksystem.transaction.security;
+
+/**
+ * auth-service could not be asked for a service token; the call that needed it
+ * can be retried later.
+ */
+public class ServiceTokenUnavailableException extends RuntimeException {
+
+    public ServiceTokenUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,242 @@
+package com.banksystem.transaction.service;
+
+import com.banksystem.transaction.client.AccountClient;
+import com.banksystem.transaction.dto.BatchItemOutcome;
+import com.banksystem.transaction.dto.BatchTransactionItem;
+import com.banksystem.transaction.dto.BatchTransactionResponse;
+import com.banksystem.transaction.dto.BatchTransactionResult;
+import com.banksystem.transaction.dto.TransactionRequest;
+import com.banksystem.transaction.dto.TransactionResponse;
+import com.banksystem.transaction.model.Transaction;
+import com.banksystem.transaction.model.TransactionStatus;
+import com.banksystem.transaction.model.TransactionType;
+import com.banksystem.transaction.repository.TransactionRepository;
+import feign.FeignException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ingests many deposits and withdrawals in one call.
+ * <p>
+ * Existing idempotency keys are resolved with one set-based query per chunk and
+ * all new items are inserted as PENDING in a single short transaction using JDBC
+ * batching. Account-service is then called item by item, outside any database
+ * transaction, each call carrying the item's idempotency key, and each outcome is
+ * written as soon as its call returns. If the batch is interrupted, resubmitting it
+ * sends the items still PENDING again under the same keys; account-service applies
+ * a key at most once, so items that were applied before the interruption are only
+ * settled. Only a definitive rejection (a 4xx other than 429) is recorded as a
+ * FAILED transaction, which must be resubmitted under a new key. After a timeout,
+ * a dropped connection, a 429 or a 5xx the item may or may not have been applied,
+ * so it is left PENDING and reported as such; resubmitting the batch sends it again
+ * under the same key.
+ */
+@Service
+public class BatchTransactionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchTransactionService.class);
+
+    private static final int SQL_CHUNK_SIZE = 1000;
+
+    private final TransactionRepository transactionRepository;
+    private final AccountClient accountClient;
+    private final TransactionService transactionService;
+    private final IdempotencyCache idempotencyCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxItems;
+
+    public BatchTransactionService(
+            TransactionRepository transactionRepository,
+            AccountClient accountClient,
+            TransactionService transactionService,
+            IdempotencyCache idempotencyCache,
+            PlatformTransactionManager transactionManager,
+            @Value("${transactions.batch.max-items:10000}") int maxItems
+    ) {
+        this.transactionRepository = transactionRepository;
+        this.accountClient = accountClient;
+        this.transactionService = transactionService;
+        this.idempotencyCache = idempotencyCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxItems = maxItems;
+    }
+
+    public BatchTransactionResponse ingest(List<BatchTransactionItem> items) {
+        if (items.size() > maxItems) {
+            throw new IllegalArgumentException("Batch exceeds the maximum of " + maxItems + " items");
+        }
+        BatchTransactionResult[] results = new BatchTransactionResult[items.size()];
+        Map<String, Integer> accepted = validate(items, results);
+
+        Map<Integer, Transaction> claimed = claim(items, accepted, results);
+
+        int succeeded = 0;
+        int unknown = 0;
+        for (Map.Entry<Integer, Transaction> entry : claimed.entrySet()) {
+            Transaction transaction = entry.getValue();
+            Exception failure = apply(transaction);
+            String error = failure != null ? failure.getMessage() : null;
+            if (failure != null && !isRejection(failure)) {
+                // may have been applied: kept PENDING so a resubmission resends it under the same key
+                unknown++;
+                results[entry.getKey()] = new BatchTransactionResult(transaction.getIdempotencyKey(),
+                        BatchItemOutcome.PENDING, transactionService.buildTransactionResponse(transaction), error);
+                continue;
+            }
+            TransactionStatus outcome = failure == null ? TransactionStatus.SUCCESS : TransactionStatus.FAILED;
+            // the entity is left untouched: the status is written by settle below
+            TransactionResponse response = transactionService.buildTransactionResponse(transaction);
+            response.setStatus(outcome);
+            settle(transaction, response);
+            if (failure == null) {
+                succeeded++;
+            }
+            results[entry.getKey()] = new BatchTransactionResult(
+                    transaction.getIdempotencyKey(),
+                    failure == null ? BatchItemOutcome.CREATED : BatchItemOutcome.FAILED,
+                    response,
+                    error
+            );
+        }
+        logger.info("Batch of {} items processed: {} succeeded, {} failed, {} left pending, {} replayed or rejected",
+                items.size(), succeeded, claimed.size() - succeeded - unknown, unknown, items.size() - claimed.size());
+        return new BatchTransactionResponse(Arrays.asList(results));
+    }
+
+    /**
+     * Rejects items that cannot be processed and returns the remaining ones by
+     * idempotency key. A key repeated inside the batch is only processed once.
+     */
+    private Map<String, Integer> validate(List<BatchTransactionItem> items, BatchTransactionResult[] results) {
+        Map<String, Integer> accepted = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            BatchTransactionItem item = items.get(i);
+            String error = null;
+            if (item.getType() != TransactionType.DEPOSIT && item.getType() != TransactionType.WITHDRAW) {
+                error = "Only DEPOSIT and WITHDRAW are supported in batches";
+            } else if (item.getAmount() == null || item.getAmount().signum() <= 0) {
+                error = "Amount must be positive";
+            } else if (accepted.putIfAbsent(item.getIdempotencyKey(), i) != null) {
+                error = "Duplicate idempotency key in batch";
+            }
+            if (error != null) {
+                results[i] = new BatchTransactionResult(item.getIdempotencyKey(), BatchItemOutcome.REJECTED, null, error);
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * Replays keys that were already settled, picks up the ones an interrupted
+     * submission left PENDING and inserts the rest as PENDING in one batched
+     * transaction. If another request claims one of the keys
+     * concurrently, the unique constraint fails the insert and the claim is
+     * retried once against the refreshed set of existing keys.
+     */
+    private Map<Integer, Transaction> claim(List<BatchTransactionItem> items, Map<String, Integer> accepted,
+                                            BatchTransactionResult[] results) {
+        try {
+            return transactionTemplate.execute(status -> insertPending(items, accepted, results));
+        } catch (DataIntegrityViolationException ex) {
+            logger.warn("Idempotency key conflict while claiming batch, retrying once");
+            return transactionTemplate.execute(status -> insertPending(items, accepted, results));
+        }
+    }
+
+    private Map<Integer, Transaction> insertPending(List<BatchTransactionItem> items, Map<String, Integer> accepted,
+                                                    BatchTransactionResult[] results) {
+        Set<String> existingKeys = new HashSet<>();
+        Map<Integer, Transaction> resumed = new LinkedHashMap<>();
+        List<String> keys = new ArrayList<>(accepted.keySet());
+        for (int from = 0; from < keys.size(); from += SQL_CHUNK_SIZE) {
+            List<String> chunk = keys.subList(from, Math.min(from + SQL_CHUNK_SIZE, keys.size()));
+            for (Transaction existing : transactionRepository.findByIdempotencyKeyIn(chunk)) {
+                int index = accepted.get(existing.getIdempotencyKey());
+                existingKeys.add(existing.getIdempotencyKey());
+                if (existing.getStatus() == TransactionStatus.PENDING && existing.getType() != TransactionType.TRANSFER) {
+                    // its outcome was never recorded: sent again, account-service skips it if already applied
+                    resumed.put(index, existing);
+                    continue;
+                }
+                TransactionResponse response = transactionService.buildTransactionResponse(existing);
+                results[index] = new BatchTransactionResult(existing.getIdempotencyKey(), BatchItemOutcome.REPLAYED, response, null);
+            }
+        }
+
+        Map<Integer, Transaction> pending = new LinkedHashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<String, Integer> entry : accepted.entrySet()) {
+            if (existingKeys.contains(entry.getKey())) {
+                continue;
+            }
+            BatchTransactionItem item = items.get(entry.getValue());
+            pending.put(entry.getValue(), new Transaction(null, item.getAccountId(), null, item.getAmount(),
+                    item.getType(), TransactionStatus.PENDING, now, item.getIdempotencyKey()));
+        }
+        transactionRepository.saveAll(List.copyOf(pending.values()));
+        transactionRepository.flush();
+
+        Map<Integer, Transaction> claimed = new LinkedHashMap<>(pending);
+        claimed.putAll(resumed);
+        return claimed;
+    }
+
+    /**
+     * Applies one item to account-service and returns the failure, or null on success.
+     */
+    private Exception apply(Transaction transaction) {
+        try {
+            TransactionRequest request = new TransactionRequest(transaction.getAmount());
+            if (transaction.getType() == TransactionType.DEPOSIT) {
+                accountClient.credit(transaction.getAccountId(), transaction.getIdempotencyKey(), request);
+            } else {
+                accountClient.debit(transaction.getAccountId(), transaction.getIdempotencyKey(), request);
+            }
+            return null;
+        } catch (Exception ex) {
+            logger.error("Failed to process batch item {}: {}", transaction.getIdempotencyKey(), ex.getMessage());
+            return ex;
+        }
+    }
+
+    /**
+     * Whether account-service definitively refused the item, as opposed to a failure
+     * after which it may still have applied it.
+     */
+    private static boolean isRejection(Exception ex) {
+        if (!(ex instanceof FeignException feignException)) {
+            return false;
+        }
+        int status = feignException.status();
+        return status >= 400 && status < 500 && status != 429;
+    }
+
+    /**
+     * Records one item's outcome before the next item is sent, so an interruption
+     * leaves at most the items still in flight PENDING.
+     */
+    private void settle(Transaction transaction, TransactionResponse response) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (transactionRepository.settle(transaction.getId(), response.getStatus()) == 0) {
+                logger.warn("Batch item {} was already settled by another submission",
+                        transaction.getIdempotencyKey());
+                return;
+            }
+            idempotencyCache.recordAfterCommit(transaction.getIdempotencyKey(), response);
+        });
+    }
+}
@@ -0,0 +1,159 @@
+package com.banksystem.transaction.service;
+
+import com.banksystem.transaction.dto.TransactionResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Local fast path in front of {@code findByIdempotencyKey}.
+ * <p>
+ * Keys committed by this instance are answered from a bounded, TTL-evicting
+ * cache. Keys the Bloom filter has never seen are treated as new and skip the
+ * database lookup. The filter only knows keys committed here since startup, so a
+ * key first used on another instance (or before a restart) is still caught by the
+ * unique constraint on {@code idempotencyKey}, which stays the final backstop.
+ * The filter is rotated every {@code expected-keys} insertions, keeping the
+ * previous generation, so its false-positive rate does not degrade over time.
+ */
+@Component
+public class IdempotencyCache {
+
+    private final boolean enabled;
+    private final long expectedKeys;
+    private final double falsePositiveRate;
+    private final Cache<String, TransactionResponse> results;
+    private final AtomicLong generationInsertions = new AtomicLong();
+    private volatile BloomFilter current;
+    private volatile BloomFilter previous;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter newKeys;
+    private final Counter falsePositives;
+
+    public IdempotencyCache(
+            MeterRegistry meterRegistry,
+            @Value("${transactions.idempotency.cache.enabled:true}") boolean enabled,
+            @Value("${transactions.idempotency.cache.max-size:100000}") long maxSize,
+            @Value("${transactions.idempotency.cache.ttl:24h}") Duration ttl,
+            @Value("${transactions.idempotency.bloom.expected-keys:1000000}") long expectedKeys,
+            @Value("${transactions.idempotency.bloom.false-positive-rate:0.01}") double falsePositiveRate
+    ) {
+        this.enabled = enabled;
+        this.expectedKeys = expectedKeys;
+        this.falsePositiveRate = falsePositiveRate;
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.current = new BloomFilter(expectedKeys, falsePositiveRate);
+        this.previous = null;
+
+        CaffeineCacheMetrics.monitor(meterRegistry, results, "transaction.idempotency");
+        this.hits = lookupCounter(meterRegistry, "hit");
+        this.misses = lookupCounter(meterRegistry, "miss");
+        this.newKeys = lookupCounter(meterRegistry, "new");
+        this.falsePositives = lookupCounter(meterRegistry, "false_positive");
+    }
+
+    /**
+     * Resolves a previously processed transaction for the key. {@code loader} is only
+     * invoked when the key is not cached and the Bloom filter cannot rule it out.
+     */
+    public Optional<TransactionResponse> find(String key, Function<String, Optional<TransactionResponse>> loader) {
+        if (!enabled) {
+            return loader.apply(key);
+        }
+        TransactionResponse cached = results.getIfPresent(key);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+        if (!mightContain(key)) {
+            newKeys.increment();
+            return Optional.empty();
+        }
+        Optional<TransactionResponse> loaded = loader.apply(key);
+        if (loaded.isPresent()) {
+            misses.increment();
+            results.put(key, loaded.get());
+        } else {
+            falsePositives.increment();
+        }
+        return loaded;
+    }
+
+    /**
+     * Re-checks the database for a key whose lookup was skipped by {@link #find}.
+     * Used before rejecting a request on business rules, so a retry of an already
+     * completed operation is replayed instead of re-validated.
+     */
+    public Optional<TransactionResponse> confirmNew(String key, Function<String, Optional<TransactionResponse>> loader) {
+        if (!enabled || mightContain(key)) {
+            return Optional.empty();
+        }
+        return loader.apply(key);
+    }
+
+    /**
+     * Remembers the outcome for the key once the surrounding transaction commits;
+     * a rolled back transaction leaves no trace in the cache or the filter.
+     */
+    public void recordAfterCommit(String key, TransactionResponse response) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(key, response);
+                }
+            });
+        } else {
+            record(key, response);
+        }
+    }
+
+    void record(String key, TransactionResponse response) {
+        results.put(key, response);
+        current.put(key);
+        if (generationInsertions.incrementAndGet() >= expectedKeys) {
+            rotate();
+        }
+    }
+
+    private boolean mightContain(String key) {
+        BloomFilter older = previous;
+        return current.mightContain(key) || (older != null && older.mightContain(key));
+    }
+
+    private synchronized void rotate() {
+        if (generationInsertions.get() < expectedKeys) {
+            return;
+        }
+        previous = current;
+        current = new BloomFilter(expectedKeys, falsePositiveRate);
+        generationInsertions.set(0);
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("transaction.idempotency.lookups")
+                .description("Idempotency key lookups by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
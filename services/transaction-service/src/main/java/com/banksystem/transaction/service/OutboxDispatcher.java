@@ -0,0 +1,246 @@
+package com.banksystem.transaction.service;
+
+import com.banksystem.transaction.client.AccountClient;
+import com.banksystem.transaction.dto.AccountTransferRequest;
+import com.banksystem.transaction.dto.TransactionRequest;
+import com.banksystem.transaction.dto.TransactionResponse;
+import com.banksystem.transaction.model.OutboxEvent;
+import com.banksystem.transaction.model.Transaction;
+import com.banksystem.transaction.model.TransactionStatus;
+import com.banksystem.transaction.model.TransactionType;
+import com.banksystem.transaction.repository.OutboxRepository;
+import com.banksystem.transaction.repository.TransactionRepository;
+import com.banksystem.transaction.security.ServiceTokenUnavailableException;
+import feign.FeignException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the transaction outbox: applies each accepted transaction to
+ * account-service and moves it to SUCCESS or FAILED.
+ * <p>
+ * Due rows are claimed in a short transaction that pushes their
+ * {@code nextAttemptAt} forward by the lease and stamps them with a fresh lease
+ * token, so other instances skip them while the remote calls run outside any
+ * database transaction. Events of a batch are sent one after another, so the lease
+ * is renewed right before each send; an event whose row has since been claimed by
+ * another dispatcher is skipped. Completion, retries and the final status write
+ * only apply while the row still carries this claim's token and the transaction is
+ * still PENDING. If an instance dies mid-dispatch the lease expires and the row is
+ * picked up again, so delivery to account-service is at-least-once. Every call,
+ * transfers included, carries the transaction's idempotency key, and account-service
+ * applies each key once, so a redelivery never moves the money twice.
+ */
+@Component
+@ConditionalOnProperty(prefix = "transactions.outbox", name = "enabled", havingValue = "true")
+public class OutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private final OutboxRepository outboxRepository;
+    private final TransactionRepository transactionRepository;
+    private final AccountClient accountClient;
+    private final TransactionService transactionService;
+    private final IdempotencyCache idempotencyCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Timer dispatchTimer;
+
+    public OutboxDispatcher(
+            OutboxRepository outboxRepository,
+            TransactionRepository transactionRepository,
+            AccountClient accountClient,
+            TransactionService transactionService,
+            IdempotencyCache idempotencyCache,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${transactions.outbox.batch-size:100}") int batchSize,
+            @Value("${transactions.outbox.lease:30s}") Duration lease,
+            @Value("${transactions.outbox.max-attempts:10}") int maxAttempts,
+            @Value("${transactions.outbox.backoff.initial:1s}") Duration initialBackoff,
+            @Value("${transactions.outbox.backoff.max:5m}") Duration maxBackoff
+    ) {
+        this.outboxRepository = outboxRepository;
+        this.transactionRepository = transactionRepository;
+        this.accountClient = accountClient;
+        this.transactionService = transactionService;
+        this.idempotencyCache = idempotencyCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.lease = lease;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+
+        this.dispatchTimer = Timer.builder("transaction.outbox.dispatch")
+                .description("Time to apply one outbox event to account-service")
+                .register(meterRegistry);
+        Gauge.builder("transaction.outbox.depth", outboxRepository, OutboxRepository::count)
+                .description("Transactions accepted but not yet applied to account-service")
+                .register(meterRegistry);
+        Gauge.builder("transaction.outbox.lag.seconds", this, OutboxDispatcher::oldestAgeSeconds)
+                .description("Age of the oldest pending outbox event")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${transactions.outbox.poll-interval-ms:500}")
+    public void poll() {
+        List<OutboxEvent> events;
+        do {
+            events = claim();
+            if (events.isEmpty()) {
+                return;
+            }
+            Map<UUID, Transaction> transactions = transactionRepository
+                    .findAllById(events.stream().map(OutboxEvent::getTransactionId).toList())
+                    .stream()
+                    .collect(Collectors.toMap(Transaction::getId, Function.identity()));
+            for (OutboxEvent event : events) {
+                dispatchTimer.record(() -> dispatch(event, transactions.get(event.getTransactionId())));
+            }
+        } while (events.size() == batchSize);
+    }
+
+    /**
+     * Locks due rows and leases them to this instance; the lock is only held for
+     * the duration of this short transaction.
+     */
+    List<OutboxEvent> claim() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            UUID leaseToken = UUID.randomUUID();
+            List<OutboxEvent> due = outboxRepository.findDue(now, PageRequest.ofSize(batchSize));
+            for (OutboxEvent event : due) {
+                event.setNextAttemptAt(now.plus(lease));
+                event.setLeaseToken(leaseToken);
+                event.setAttempts(event.getAttempts() + 1);
+            }
+            return due;
+        });
+    }
+
+    void dispatch(OutboxEvent event, Transaction transaction) {
+        if (transaction == null || transaction.getStatus() != TransactionStatus.PENDING) {
+            // already settled, e.g. by a dispatcher whose lease expired mid-call
+            transactionTemplate.executeWithoutResult(status ->
+                    outboxRepository.deleteLeased(event.getId(), event.getLeaseToken()));
+            return;
+        }
+        if (!renewLease(event)) {
+            logger.info("Outbox event {} of transaction {} was claimed by another dispatcher, skipping",
+                    event.getId(), transaction.getId());
+            return;
+        }
+        try {
+            apply(transaction);
+            complete(event, transaction, TransactionStatus.SUCCESS);
+        } catch (Exception ex) {
+            if (isRetryable(ex) && event.getAttempts() < maxAttempts) {
+                LocalDateTime next = LocalDateTime.now().plus(backoff(event.getAttempts()));
+                logger.warn("Outbox dispatch of transaction {} failed (attempt {}), retrying at {}: {}",
+                        transaction.getId(), event.getAttempts(), next, ex.getMessage());
+                transactionTemplate.executeWithoutResult(status -> outboxRepository.reschedule(
+                        event.getId(), event.getLeaseToken(), next, truncate(ex.getMessage())));
+            } else {
+                logger.error("Outbox dispatch of transaction {} failed permanently after {} attempts: {}",
+                        transaction.getId(), event.getAttempts(), ex.getMessage());
+                complete(event, transaction, TransactionStatus.FAILED);
+            }
+        }
+    }
+
+    /**
+     * Gives the coming send a full lease, however long earlier events of the batch took.
+     */
+    private boolean renewLease(OutboxEvent event) {
+        Integer renewed = transactionTemplate.execute(status -> outboxRepository.renewLease(
+                event.getId(), event.getLeaseToken(), LocalDateTime.now().plus(lease)));
+        return renewed != null && renewed > 0;
+    }
+
+    private void apply(Transaction transaction) {
+        TransactionRequest request = new TransactionRequest(transaction.getAmount());
+        if (transaction.getType() == TransactionType.DEPOSIT) {
+            accountClient.credit(transaction.getAccountId(), transaction.getIdempotencyKey(), request);
+        } else if (transaction.getType() == TransactionType.WITHDRAW) {
+            accountClient.debit(transaction.getAccountId(), transaction.getIdempotencyKey(), request);
+        } else {
+            accountClient.transfer(transaction.getAccountId(), transaction.getIdempotencyKey(),
+                    new AccountTransferRequest(transaction.getTargetAccountId(), transaction.getAmount()));
+        }
+    }
+
+    private void complete(OutboxEvent event, Transaction transaction, TransactionStatus outcome) {
+        TransactionResponse response = transactionService.buildTransactionResponse(transaction);
+        response.setStatus(outcome);
+        transactionTemplate.executeWithoutResult(status -> {
+            if (outboxRepository.deleteLeased(event.getId(), event.getLeaseToken()) == 0) {
+                logger.warn("Outbox event {} of transaction {} lost its lease before completing as {}",
+                        event.getId(), transaction.getId(), outcome);
+                return;
+            }
+            if (transactionRepository.settle(transaction.getId(), outcome) == 0) {
+                logger.warn("Transaction {} was already settled, not overwriting with {}",
+                        transaction.getId(), outcome);
+                return;
+            }
+            idempotencyCache.recordAfterCommit(transaction.getIdempotencyKey(), response);
+        });
+    }
+
+    /**
+     * Transport errors, 5xx, 429 and a failure to get this service's token may
+     * succeed later; any other client error (insufficient funds, unknown account)
+     * will not.
+     */
+    private static boolean isRetryable(Exception ex) {
+        if (ex instanceof ServiceTokenUnavailableException) {
+            return true;
+        }
+        if (!(ex instanceof FeignException feignException)) {
+            return false;
+        }
+        int status = feignException.status();
+        return status < 0 || status >= 500 || status == 429;
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private double oldestAgeSeconds() {
+        return outboxRepository.findFirstByOrderByCreatedAtAsc()
+                .map(e -> (double) Duration.between(e.getCreatedAt(), LocalDateTime.now()).toMillis() / 1000)
+                .orElse(0.0);
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= 500) {
+            return message;
+        }
+        return message.substring(0, 500);
+    }
+}
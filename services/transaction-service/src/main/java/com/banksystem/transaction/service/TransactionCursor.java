@@ -0,0 +1,62 @@
+package com.banksystem.transaction.service;
+
+import com.banksystem.transaction.model.Transaction;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Keyset position in an account's history: the (createdAt, id) of the last
+ * transaction already returned. Encoded as an opaque URL-safe string so clients
+ * never depend on its layout.
+ */
+record TransactionCursor(LocalDateTime createdAt, UUID id) {
+
+    /**
+     * Newest first, ties broken by id in the same unsigned byte order Postgres
+     * uses for {@code uuid}, so merged pages agree with the repository predicates.
+     */
+    static final Comparator<Transaction> NEWEST_FIRST = Comparator
+            .comparing(Transaction::getCreatedAt)
+            .thenComparing(Transaction::getId, TransactionCursor::compareUnsigned)
+            .reversed();
+
+    static TransactionCursor of(Transaction tx) {
+        return new TransactionCursor(tx.getCreatedAt(), tx.getId());
+    }
+
+    /**
+     * @throws IllegalArgumentException with the same message for any malformed or
+     *                                  tampered value, without echoing what was wrong with it
+     */
+    static TransactionCursor decode(String value) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            if (sep < 0) {
+                throw new IllegalArgumentException("Cursor has no separator");
+            }
+            return new TransactionCursor(
+                    LocalDateTime.parse(raw.substring(0, sep)),
+                    UUID.fromString(raw.substring(sep + 1))
+            );
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            // Base64 and UUID errors are IllegalArgumentExceptions too
+            throw new IllegalArgumentException("Invalid pagination cursor", ex);
+        }
+    }
+
+    String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int compareUnsigned(UUID a, UUID b) {
+        int cmp = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return cmp != 0 ? cmp : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
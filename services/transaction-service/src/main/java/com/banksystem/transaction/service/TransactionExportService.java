@@ -0,0 +1,101 @@
+package com.banksystem.transaction.service;
+
+import com.banksystem.transaction.dto.ExportFormat;
+import com.banksystem.transaction.dto.TransactionResponse;
+import com.banksystem.transaction.model.Transaction;
+import com.banksystem.transaction.repository.TransactionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams an account's full transaction history straight from a JDBC cursor to
+ * the response. Each row is written and detached from the persistence context as
+ * soon as it is read, so heap use does not grow with the size of the history.
+ */
+@Service
+@RequiredArgsConstructor
+public class TransactionExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionExportService.class);
+
+    static final String CSV_HEADER = "id,accountId,targetAccountId,type,status,amount,createdAt";
+
+    private static final int FLUSH_EVERY_ROWS = Integer.parseInt(TransactionRepository.EXPORT_FETCH_SIZE);
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionService transactionService;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public long export(String accountId, ExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        ObjectWriter jsonWriter = objectMapper.writerFor(TransactionResponse.class);
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        long rows = 0;
+        try (Stream<Transaction> transactions = transactionRepository.streamByAccount(accountId)) {
+            Iterator<Transaction> iterator = transactions.iterator();
+            while (iterator.hasNext()) {
+                Transaction tx = iterator.next();
+                TransactionResponse response = transactionService.buildTransactionResponse(tx);
+                if (format == ExportFormat.CSV) {
+                    writeCsvRow(writer, response);
+                } else {
+                    writer.write(jsonWriter.writeValueAsString(response));
+                }
+                writer.write('\n');
+                entityManager.detach(tx);
+                if (++rows % FLUSH_EVERY_ROWS == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+        logger.info("Exported {} transactions for account {} as {}", rows, accountId, format);
+        return rows;
+    }
+
+    private void writeCsvRow(Writer writer, TransactionResponse tx) throws IOException {
+        writer.write(String.valueOf(tx.getId()));
+        writer.write(',');
+        writer.write(csvField(tx.getAccountId()));
+        writer.write(',');
+        writer.write(csvField(tx.getTargetAccountId()));
+        writer.write(',');
+        writer.write(tx.getType().name());
+        writer.write(',');
+        writer.write(tx.getStatus().name());
+        writer.write(',');
+        writer.write(tx.getAmount().toPlainString());
+        writer.write(',');
+        writer.write(tx.getCreatedAt().toString());
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
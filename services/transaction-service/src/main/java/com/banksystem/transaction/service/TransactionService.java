@@ -2,13 +2,18 @@ package com.banksystem.transaction.service;
 
 import com.banksystem.transaction.client.AccountClient;
 import com.banksystem.transaction.dto.*;
+import com.banksystem.transaction.model.OutboxEvent;
 import com.banksystem.transaction.model.Transaction;
 import com.banksystem.transaction.model.TransactionStatus;
 import com.banksystem.transaction.model.TransactionType;
+import com.banksystem.transaction.repository.OutboxRepository;
 import com.banksystem.transaction.repository.TransactionRepository;
+import feign.FeignException;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,6 +21,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -25,12 +31,14 @@ public class TransactionService {
 
     private final TransactionRepository transactionRepository;
     private final AccountClient accountClient;
+    private final IdempotencyCache idempotencyCache;
+    private final OutboxRepository outboxRepository;
 
     @Transactional
     public TransactionResponse deposit(DepositRequest request, String idempotencyKey) {
-        Optional<Transaction> existing = transactionRepository.findByIdempotencyKey(idempotencyKey);
+        Optional<TransactionResponse> existing = idempotencyCache.find(idempotencyKey, this::loadByIdempotencyKey);
         if (existing.isPresent()) {
-            return buildTransactionResponse(existing.get());
+            return existing.get();
         }
         BigDecimal amount = request.getAmount();
         if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
@@ -46,23 +54,27 @@ public class TransactionService {
                 idempotencyKey
         );
         transactionRepository.save(transaction);
+        // insert now so a key already used elsewhere hits the unique constraint before account-service is called
+        transactionRepository.flush();
         try {
             TransactionRequest transactionRequest = new TransactionRequest(amount);
-            accountClient.credit(request.getAccountId(), transactionRequest);
+            accountClient.credit(request.getAccountId(), idempotencyKey, transactionRequest);
             transaction.setStatus(TransactionStatus.SUCCESS);
         } catch (Exception ex) {
             logger.error("Failed to process deposit: {}", ex.getMessage());
             transaction.setStatus(TransactionStatus.FAILED);
             throw ex;
         }
-        return buildTransactionResponse(transactionRepository.save(transaction));
+        TransactionResponse response = buildTransactionResponse(transactionRepository.save(transaction));
+        idempotencyCache.recordAfterCommit(idempotencyKey, response);
+        return response;
     }
 
     @Transactional
     public TransactionResponse withdraw(WithdrawRequest request, String idempotencyKey) {
-        Optional<Transaction> existing = transactionRepository.findByIdempotencyKey(idempotencyKey);
+        Optional<TransactionResponse> existing = idempotencyCache.find(idempotencyKey, this::loadByIdempotencyKey);
         if (existing.isPresent()) {
-            return buildTransactionResponse(existing.get());
+            return existing.get();
         }
         BigDecimal amount = request.getAmount();
         if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
@@ -71,6 +83,10 @@ public class TransactionService {
         // validate sufficient funds
         BigDecimal balance = accountClient.getBalance(request.getAccountId());
         if (balance.compareTo(amount) < 0) {
+            Optional<TransactionResponse> replay = idempotencyCache.confirmNew(idempotencyKey, this::loadByIdempotencyKey);
+            if (replay.isPresent()) {
+                return replay.get();
+            }
             throw new IllegalArgumentException("Insufficient funds for withdrawal");
         }
         Transaction transaction = new Transaction(null,
@@ -83,23 +99,27 @@ public class TransactionService {
                 idempotencyKey
         );
         transactionRepository.save(transaction);
+        // insert now so a key already used elsewhere hits the unique constraint before account-service is called
+        transactionRepository.flush();
         try {
             TransactionRequest transactionRequest = new TransactionRequest(amount);
-            accountClient.debit(request.getAccountId(), transactionRequest);
+            accountClient.debit(request.getAccountId(), idempotencyKey, transactionRequest);
             transaction.setStatus(TransactionStatus.SUCCESS);
         } catch (Exception ex) {
             logger.error("Failed to process withdrawal: {}", ex.getMessage());
             transaction.setStatus(TransactionStatus.FAILED);
             throw ex;
         }
-        return buildTransactionResponse(transactionRepository.save(transaction));
+        TransactionResponse response = buildTransactionResponse(transactionRepository.save(transaction));
+        idempotencyCache.recordAfterCommit(idempotencyKey, response);
+        return response;
     }
 
     @Transactional
     public TransactionResponse transfer(TransferRequest request, String idempotencyKey) {
-        Optional<Transaction> existing = transactionRepository.findByIdempotencyKey(idempotencyKey);
+        Optional<TransactionResponse> existing = idempotencyCache.find(idempotencyKey, this::loadByIdempotencyKey);
         if (existing.isPresent()) {
-            return buildTransactionResponse(existing.get());
+            return existing.get();
         }
         BigDecimal amount = request.getAmount();
         if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
@@ -108,35 +128,142 @@ public class TransactionService {
         if (request.getAccountId().equals(request.getTargetAccountId())) {
             throw new IllegalArgumentException("Source and target accounts must be different");
         }
-        BigDecimal balance = accountClient.getBalance(request.getAccountId());
-        if (balance.compareTo(amount) < 0) {
-            throw new IllegalArgumentException("Insufficient funds for transfer");
-        }
         Transaction transaction = new Transaction(null, request.getAccountId(), request.getTargetAccountId(),
                 amount, TransactionType.TRANSFER, TransactionStatus.PENDING, LocalDateTime.now(), idempotencyKey
         );
         transactionRepository.save(transaction);
+        // insert now so a key already used elsewhere hits the unique constraint before account-service is called
+        transactionRepository.flush();
         try {
-            TransactionRequest transactionRequest = new TransactionRequest(amount);
-            accountClient.debit(request.getAccountId(), transactionRequest);
-            accountClient.credit(request.getTargetAccountId(), transactionRequest);
+            // one call: account-service checks funds and moves both balances in a single local transaction
+            accountClient.transfer(request.getAccountId(), idempotencyKey,
+                    new AccountTransferRequest(request.getTargetAccountId(), amount));
             transaction.setStatus(TransactionStatus.SUCCESS);
+        } catch (FeignException.BadRequest ex) {
+            logger.warn("Transfer rejected by account-service: {}", ex.getMessage());
+            transaction.setStatus(TransactionStatus.FAILED);
+            throw new IllegalArgumentException("Transfer rejected by account-service", ex);
         } catch (Exception ex) {
             logger.error("Failed to process transfer: {}", ex.getMessage());
             transaction.setStatus(TransactionStatus.FAILED);
             throw ex;
         }
-        return buildTransactionResponse(transactionRepository.save(transaction));
+        TransactionResponse response = buildTransactionResponse(transactionRepository.save(transaction));
+        idempotencyCache.recordAfterCommit(idempotencyKey, response);
+        return response;
+    }
+
+    /**
+     * Accepts a deposit without calling account-service: the PENDING transaction and
+     * its outbox row commit together and {@link OutboxDispatcher} completes it later.
+     */
+    @Transactional
+    public TransactionResponse submitDeposit(DepositRequest request, String idempotencyKey) {
+        Optional<TransactionResponse> existing = idempotencyCache.find(idempotencyKey, this::loadByIdempotencyKey);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        BigDecimal amount = request.getAmount();
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Deposit amount must be positive");
+        }
+        return enqueue(new Transaction(null, request.getAccountId(), null, amount,
+                TransactionType.DEPOSIT, TransactionStatus.PENDING, LocalDateTime.now(), idempotencyKey));
+    }
+
+    /**
+     * Asynchronous counterpart of {@link #withdraw}. Funds are checked by
+     * account-service when the outbox is drained; a shortfall ends in FAILED.
+     */
+    @Transactional
+    public TransactionResponse submitWithdraw(WithdrawRequest request, String idempotencyKey) {
+        Optional<TransactionResponse> existing = idempotencyCache.find(idempotencyKey, this::loadByIdempotencyKey);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        BigDecimal amount = request.getAmount();
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Withdrawal amount must be positive");
+        }
+        return enqueue(new Transaction(null, request.getAccountId(), null, amount,
+                TransactionType.WITHDRAW, TransactionStatus.PENDING, LocalDateTime.now(), idempotencyKey));
     }
 
+    /**
+     * Asynchronous counterpart of {@link #transfer}.
+     */
+    @Transactional
+    public TransactionResponse submitTransfer(TransferRequest request, String idempotencyKey) {
+        Optional<TransactionResponse> existing = idempotencyCache.find(idempotencyKey, this::loadByIdempotencyKey);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        BigDecimal amount = request.getAmount();
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Transfer amount must be positive");
+        }
+        if (request.getAccountId().equals(request.getTargetAccountId())) {
+            throw new IllegalArgumentException("Source and target accounts must be different");
+        }
+        return enqueue(new Transaction(null, request.getAccountId(), request.getTargetAccountId(), amount,
+                TransactionType.TRANSFER, TransactionStatus.PENDING, LocalDateTime.now(), idempotencyKey));
+    }
+
+    private TransactionResponse enqueue(Transaction transaction) {
+        transactionRepository.save(transaction);
+        transactionRepository.flush();
+        outboxRepository.save(OutboxEvent.forTransaction(transaction));
+        // not cached: the status is still going to change
+        return buildTransactionResponse(transaction);
+    }
+
+    /**
+     * Returns one page of the account's history, newest first. Outgoing and incoming
+     * transactions are read with two index-backed keyset queries of {@code limit + 1}
+     * rows each and merged, so the cost depends on the page size, not the table size.
+     */
     @Transactional(readOnly = true)
-    public List<TransactionResponse> listByAccount(String accountId) {
-        return transactionRepository.findAll()
-                .stream()
-                .filter(t -> t.getAccountId().equals(accountId) || accountId.equals(t.getTargetAccountId()))
-                .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
-                .map(this::buildTransactionResponse)
+    public TransactionPageResponse listByAccount(String accountId, String after, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page limit must be positive");
+        }
+        Pageable page = PageRequest.ofSize(limit + 1);
+        List<Transaction> outgoing;
+        List<Transaction> incoming;
+        if (after == null || after.isBlank()) {
+            outgoing = transactionRepository.findByAccountIdOrderByCreatedAtDescIdDesc(accountId, page);
+            incoming = transactionRepository.findByTargetAccountIdOrderByCreatedAtDescIdDesc(accountId, page);
+        } else {
+            TransactionCursor cursor = TransactionCursor.decode(after);
+            outgoing = transactionRepository.findByAccountIdBefore(accountId, cursor.createdAt(), cursor.id(), page);
+            incoming = transactionRepository.findByTargetAccountIdBefore(accountId, cursor.createdAt(), cursor.id(), page);
+        }
+        List<Transaction> merged = Stream.concat(outgoing.stream(), incoming.stream())
+                .sorted(TransactionCursor.NEWEST_FIRST)
+                .limit(limit + 1L)
                 .toList();
+        boolean hasMore = merged.size() > limit;
+        List<Transaction> items = hasMore ? merged.subList(0, limit) : merged;
+        String nextCursor = hasMore ? TransactionCursor.of(items.get(limit - 1)).encode() : null;
+        return new TransactionPageResponse(
+                items.stream().map(this::buildTransactionResponse).toList(),
+                nextCursor
+        );
+    }
+
+    /**
+     * Loads the outcome of an already processed request, bypassing the local fast
+     * path. Used to answer a request that lost the race on the idempotency key.
+     */
+    @Transactional(readOnly = true)
+    public Optional<TransactionResponse> findByIdempotencyKey(String idempotencyKey) {
+        Optional<TransactionResponse> found = loadByIdempotencyKey(idempotencyKey);
+        found.ifPresent(response -> idempotencyCache.recordAfterCommit(idempotencyKey, response));
+        return found;
+    }
+
+    private Optional<TransactionResponse> loadByIdempotencyKey(String idempotencyKey) {
+        return transactionRepository.findByIdempotencyKey(idempotencyKey).map(this::buildTransactionResponse);
     }
 
     public TransactionResponse buildTransactionResponse(Transaction tx) {
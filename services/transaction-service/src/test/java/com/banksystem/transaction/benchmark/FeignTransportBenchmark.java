@@ -0,0 +1,202 @@
+package com.banksystem.transaction.benchmark;
+
+import com.banksystem.transaction.client.AccountClient;
+import com.banksystem.transaction.client.FeignHttpClientConfig;
+import com.banksystem.transaction.dto.AccountTransferRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import feign.Client;
+import feign.Feign;
+import feign.Request;
+import feign.Retryer;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the Feign transports {@link FeignHttpClientConfig} can build against
+ * Feign's default {@code HttpURLConnection} client, for bursts of concurrent
+ * {@link AccountClient#transfer} calls.
+ * <p>
+ * account-service is stood in for by a JDK {@link HttpServer} that sleeps briefly
+ * and records the client address of every request, so the report shows how many
+ * connections each transport opened: every connection beyond the concurrency is one
+ * that was closed and left in TIME_WAIT. The stand-in speaks HTTP/1.1 only, so the
+ * JDK client row measures its HTTP/1.1 pool; HTTP/2 multiplexing needs a real
+ * account-service started with {@code SERVER_HTTP2_ENABLED=true}.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test}; tune with {@code -Dbenchmark.requests},
+ * {@code -Dbenchmark.concurrency} and {@code -Dbenchmark.delayMs}.
+ */
+@Tag("benchmark")
+class FeignTransportBenchmark {
+
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 20000);
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 64);
+    private static final int DELAY_MS = Integer.getInteger("benchmark.delayMs", 2);
+
+    private static final Set<InetSocketAddress> connections = ConcurrentHashMap.newKeySet();
+    private static HttpServer accountService;
+
+    private final FeignHttpClientConfig config = new FeignHttpClientConfig();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeAll
+    static void startAccountService() throws IOException {
+        accountService = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 8192);
+        accountService.createContext("/api/accounts", exchange -> {
+            try (exchange) {
+                connections.add(exchange.getRemoteAddress());
+                exchange.getRequestBody().readAllBytes();
+                Thread.sleep(DELAY_MS);
+                exchange.sendResponseHeaders(200, -1);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        // the stand-in itself must never be the bottleneck
+        accountService.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        accountService.start();
+    }
+
+    @AfterAll
+    static void stopAccountService() {
+        accountService.stop(0);
+    }
+
+    @Test
+    void compareTransports() throws Exception {
+        PoolingHttpClientConnectionManager connectionManager = config.feignConnectionManager(
+                meterRegistry, 200, CONCURRENCY, Duration.ofMinutes(5));
+        try (CloseableHttpClient httpClient = config.feignHttpClient(
+                connectionManager, Duration.ofSeconds(1), Duration.ofSeconds(15))) {
+            List<Transport> transports = List.of(
+                    new Transport("default (HttpURLConnection)", new Client.Default(null, null)),
+                    new Transport("pooled (HttpClient 5)", config.feignClient(httpClient)),
+                    new Transport("http2 (JDK HttpClient)", config.http2FeignClient(2000)));
+
+            // warm up the clients, JIT and the stand-in
+            for (Transport transport : transports) {
+                run(transport, Math.min(REQUESTS, 2000));
+            }
+            List<Result> results = new ArrayList<>();
+            for (Transport transport : transports) {
+                results.add(run(transport, REQUESTS));
+            }
+
+            System.out.printf("%n%d transfers, %d concurrent, account-service latency %d ms%n",
+                    REQUESTS, CONCURRENCY, DELAY_MS);
+            System.out.printf("%-28s %12s %10s %10s %10s %12s%n",
+                    "transport", "throughput/s", "p50 ms", "p99 ms", "max ms", "connections");
+            results.forEach(Result::print);
+            Timer lease = meterRegistry.get("feign.http.pool.lease").tag("outcome", "acquired").timer();
+            System.out.printf("pooled lease wait: mean %.3f ms, max %.3f ms%n",
+                    lease.mean(TimeUnit.MILLISECONDS), lease.max(TimeUnit.MILLISECONDS));
+
+            for (Result result : results) {
+                assertEquals(REQUESTS, result.succeeded(), result.transport());
+            }
+        }
+    }
+
+    private Result run(Transport transport, int requests) throws Exception {
+        AccountClient accountClient = accountClient(transport.client());
+        connections.clear();
+        long[] latencies = new long[requests];
+        List<Future<?>> futures = new ArrayList<>(requests);
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < requests; i++) {
+                int index = i;
+                String source = "acc-" + (index % 1000);
+                inFlight.acquire();
+                futures.add(executor.submit(() -> {
+                    long sent = System.nanoTime();
+                    try {
+                        accountClient.transfer(source, UUID.randomUUID().toString(),
+                                new AccountTransferRequest("acc-target", BigDecimal.ONE));
+                        latencies[index] = System.nanoTime() - sent;
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+            int succeeded = 0;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                    succeeded++;
+                } catch (Exception ex) {
+                    // counted as a failure; the assertion reports it
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            return new Result(transport.name(), requests, succeeded, elapsed, latencies, connections.size());
+        }
+    }
+
+    private static AccountClient accountClient(Client client) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        return Feign.builder()
+                .client(client)
+                .contract(new SpringMvcContract())
+                .encoder((object, bodyType, template) -> {
+                    try {
+                        template.body(objectMapper.writeValueAsBytes(object), null);
+                        template.header("Content-Type", "application/json");
+                    } catch (IOException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                })
+                .retryer(Retryer.NEVER_RETRY)
+                .options(new Request.Options(2, TimeUnit.SECONDS, 30, TimeUnit.SECONDS, true))
+                .target(AccountClient.class, "http://127.0.0.1:" + accountService.getAddress().getPort());
+    }
+
+    private record Transport(String name, Client client) {
+    }
+
+    private record Result(String transport, int requests, int succeeded, long elapsedNanos, long[] latencies,
+                          int connectionsOpened) {
+
+        void print() {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            System.out.printf("%-28s %12.0f %10.2f %10.2f %10.2f %12d%n", transport,
+                    requests / (elapsedNanos / 1e9),
+                    millis(sorted[sorted.length / 2]),
+                    millis(sorted[(int) Math.ceil(sorted.length * 0.99) - 1]),
+                    millis(sorted[sorted.length - 1]),
+                    connectionsOpened);
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1e6;
+        }
+    }
+}
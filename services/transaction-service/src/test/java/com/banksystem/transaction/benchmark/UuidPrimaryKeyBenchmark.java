@@ -0,0 +1,128 @@
+package com.banksystem.transaction.benchmark;
+
+import com.banksystem.transaction.model.UuidV7;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compares random (version 4) and time-ordered (version 7) UUID primary keys on a
+ * large Postgres table shaped like {@code transactions}: insert throughput as the
+ * table grows, final primary key index size and index leaf density.
+ * <p>
+ * Needs a disposable Postgres database:
+ * <pre>
+ * mvn -Pbenchmark test -Dtest=UuidPrimaryKeyBenchmark \
+ *     -Dbenchmark.jdbcUrl=jdbc:postgresql://localhost:5432/bench?reWriteBatchedInserts=true \
+ *     -Dbenchmark.rows=5000000
+ * </pre>
+ * The effect grows once the index no longer fits in {@code shared_buffers}, so size
+ * {@code benchmark.rows} accordingly. Skipped when no URL is given.
+ */
+@Tag("benchmark")
+class UuidPrimaryKeyBenchmark {
+
+    private static final String JDBC_URL = System.getProperty("benchmark.jdbcUrl");
+    private static final String USER = System.getProperty("benchmark.user", "postgres");
+    private static final String PASSWORD = System.getProperty("benchmark.password", "postgres");
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 2_000_000);
+    private static final int BATCH_SIZE = 500;
+    private static final int REPORT_EVERY = Math.max(ROWS / 10, BATCH_SIZE);
+
+    @Test
+    void compareRandomAndTimeOrderedKeys() throws Exception {
+        assumeTrue(JDBC_URL != null, "set -Dbenchmark.jdbcUrl to run");
+        try (Connection connection = DriverManager.getConnection(JDBC_URL, USER, PASSWORD)) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("create extension if not exists pgstattuple");
+            } catch (Exception ex) {
+                connection.rollback();
+                System.out.println("pgstattuple unavailable, leaf density will not be reported");
+            }
+            connection.commit();
+
+            Result random = run(connection, "bench_uuid_v4", UUID::randomUUID);
+            Result ordered = run(connection, "bench_uuid_v7", UuidV7::next);
+
+            System.out.printf("%n%,d rows, batches of %d%n", ROWS, BATCH_SIZE);
+            System.out.printf("%-10s %14s %14s %14s %14s%n",
+                    "key", "rows/s total", "rows/s last", "pkey MB", "leaf density");
+            random.print("uuid v4");
+            ordered.print("uuid v7");
+        }
+    }
+
+    private Result run(Connection connection, String table, Supplier<UUID> ids) throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists " + table);
+            statement.execute("create table " + table + " (id uuid primary key, account_id varchar(255) not null, "
+                    + "amount numeric(38, 2) not null, status varchar(16) not null, created_at timestamp not null)");
+        }
+        connection.commit();
+
+        String sql = "insert into " + table + " (id, account_id, amount, status, created_at) values (?, ?, ?, ?, ?)";
+        long start = System.nanoTime();
+        long windowStart = start;
+        double lastWindowRate = 0;
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            for (int i = 1; i <= ROWS; i++) {
+                insert.setObject(1, ids.get());
+                insert.setString(2, "acc-" + (i % 10_000));
+                insert.setBigDecimal(3, BigDecimal.valueOf(i % 100_000, 2));
+                insert.setString(4, "SUCCESS");
+                insert.setTimestamp(5, new Timestamp(System.currentTimeMillis()));
+                insert.addBatch();
+                if (i % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+                if (i % REPORT_EVERY == 0) {
+                    long now = System.nanoTime();
+                    lastWindowRate = REPORT_EVERY / ((now - windowStart) / 1e9);
+                    windowStart = now;
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+        double totalRate = ROWS / ((System.nanoTime() - start) / 1e9);
+
+        long indexBytes;
+        double leafDensity = Double.NaN;
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet rs = statement.executeQuery("select pg_relation_size('" + table + "_pkey')")) {
+                rs.next();
+                indexBytes = rs.getLong(1);
+            }
+            try (ResultSet rs = statement.executeQuery("select avg_leaf_density from pgstatindex('" + table + "_pkey')")) {
+                rs.next();
+                leafDensity = rs.getDouble(1);
+            } catch (Exception ex) {
+                connection.rollback();
+            }
+        }
+        connection.commit();
+        return new Result(totalRate, lastWindowRate, indexBytes, leafDensity);
+    }
+
+    private record Result(double totalRowsPerSecond, double lastWindowRowsPerSecond, long indexBytes,
+                          double leafDensity) {
+
+        void print(String key) {
+            System.out.printf("%-10s %14.0f %14.0f %14.1f %13.1f%%%n", key, totalRowsPerSecond,
+                    lastWindowRowsPerSecond, indexBytes / (1024.0 * 1024.0), leafDensity);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.banksystem.transaction.benchmark;
+
+import com.banksystem.transaction.client.AccountClient;
+import com.banksystem.transaction.dto.AccountTransferRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import feign.Feign;
+import feign.Request;
+import feign.Retryer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares request handling on a Tomcat-sized platform thread pool against one
+ * virtual thread per request, for concurrent transfers whose time is dominated by
+ * a slow account-service.
+ * <p>
+ * account-service is stood in for by a JDK {@link HttpServer} that sleeps before
+ * answering; each simulated request makes the same single {@link AccountClient#transfer}
+ * call {@code TransactionService.transfer} makes, through a real Feign client. Requests
+ * are submitted as one burst and latency is measured from submission, so time spent
+ * queued for a free platform thread is included.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test}; tune with {@code -Dbenchmark.requests},
+ * {@code -Dbenchmark.delayMs} and {@code -Dbenchmark.platformThreads}.
+ */
+@Tag("benchmark")
+class VirtualThreadTransferBenchmark {
+
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 4000);
+    private static final int DELAY_MS = Integer.getInteger("benchmark.delayMs", 50);
+    // Tomcat's default server.tomcat.threads.max
+    private static final int PLATFORM_THREADS = Integer.getInteger("benchmark.platformThreads", 200);
+
+    private static HttpServer accountService;
+    private static AccountClient accountClient;
+
+    @BeforeAll
+    static void startSlowAccountService() throws IOException {
+        accountService = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 8192);
+        accountService.createContext("/api/accounts", exchange -> {
+            try (exchange) {
+                exchange.getRequestBody().readAllBytes();
+                Thread.sleep(DELAY_MS);
+                exchange.sendResponseHeaders(200, -1);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        // the stand-in itself must never be the bottleneck
+        accountService.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        accountService.start();
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        accountClient = Feign.builder()
+                .contract(new SpringMvcContract())
+                .encoder((object, bodyType, template) -> {
+                    try {
+                        template.body(objectMapper.writeValueAsBytes(object), null);
+                        template.header("Content-Type", "application/json");
+                    } catch (IOException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                })
+                .retryer(Retryer.NEVER_RETRY)
+                .options(new Request.Options(2, TimeUnit.SECONDS, 30, TimeUnit.SECONDS, true))
+                .target(AccountClient.class, "http://127.0.0.1:" + accountService.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void stopSlowAccountService() {
+        accountService.stop(0);
+    }
+
+    @Test
+    void compareThreadModels() throws Exception {
+        // warm up the client, JIT and connection handling on both models
+        run(Executors.newFixedThreadPool(PLATFORM_THREADS), Math.min(REQUESTS, 500));
+        run(Executors.newVirtualThreadPerTaskExecutor(), Math.min(REQUESTS, 500));
+
+        Result platform = run(Executors.newFixedThreadPool(PLATFORM_THREADS), REQUESTS);
+        Result virtual = run(Executors.newVirtualThreadPerTaskExecutor(), REQUESTS);
+
+        System.out.printf("%n%d concurrent transfers, account-service latency %d ms%n", REQUESTS, DELAY_MS);
+        System.out.printf("%-22s %12s %10s %10s %10s%n", "model", "throughput/s", "p50 ms", "p99 ms", "max ms");
+        platform.print("platform (" + PLATFORM_THREADS + " threads)");
+        virtual.print("virtual");
+
+        assertEquals(REQUESTS, platform.succeeded());
+        assertEquals(REQUESTS, virtual.succeeded());
+    }
+
+    private Result run(ExecutorService executor, int requests) throws Exception {
+        long[] latencies = new long[requests];
+        List<Future<?>> futures = new ArrayList<>(requests);
+        long start = System.nanoTime();
+        try (executor) {
+            for (int i = 0; i < requests; i++) {
+                int index = i;
+                long submitted = System.nanoTime();
+                String source = "acc-" + (index % 1000);
+                futures.add(executor.submit(() -> {
+                    accountClient.transfer(source, UUID.randomUUID().toString(),
+                            new AccountTransferRequest("acc-target", BigDecimal.ONE));
+                    latencies[index] = System.nanoTime() - submitted;
+                }));
+            }
+            int succeeded = 0;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                    succeeded++;
+                } catch (Exception ex) {
+                    // counted as a failure; the assertion reports it
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            return new Result(requests, succeeded, elapsed, latencies);
+        }
+    }
+
+    private record Result(int requests, int succeeded, long elapsedNanos, long[] latencies) {
+
+        void print(String model) {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            System.out.printf("%-22s %12.0f %10.1f %10.1f %10.1f%n", model,
+                    requests / (elapsedNanos / 1e9),
+                    millis(sorted[sorted.length / 2]),
+                    millis(sorted[(int) Math.ceil(sorted.length * 0.99) - 1]),
+                    millis(sorted[sorted.length - 1]));
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1e6;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.banksystem.transaction.controller;
+
+import com.banksystem.transaction.service.BatchTransactionService;
+import com.banksystem.transaction.service.TransactionExportService;
+import com.banksystem.transaction.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionControllerTest {
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private TransactionExportService transactionExportService;
+
+    @Mock
+    private BatchTransactionService batchTransactionService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(
+                new TransactionController(transactionService, transactionExportService, batchTransactionService)
+        ).build();
+    }
+
+    @Test
+    void listByAccount_shouldAnswer400_whenCursorIsInvalid() throws Exception {
+        when(transactionService.listByAccount(eq("acc-1"), eq("tampered"), anyInt()))
+                .thenThrow(new IllegalArgumentException("Invalid pagination cursor"));
+
+        mockMvc.perform(get("/transactions").param("accountId", "acc-1").param("after", "tampered"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void export_shouldAnswer400_whenFormatIsUnsupported() throws Exception {
+        mockMvc.perform(get("/transactions/export").param("accountId", "acc-1").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(transactionExportService);
+    }
+}
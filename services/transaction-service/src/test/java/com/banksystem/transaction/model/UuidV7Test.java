@@ -0,0 +1,64 @@
+package com.banksystem.transaction.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidV7Test {
+
+    @Test
+    void next_shouldSetVersionVariantAndCurrentTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID uuid = UuidV7.next();
+        long after = System.currentTimeMillis();
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        long timestamp = UuidV7.timestamp(uuid);
+        // bursts of more than 4096 ids per millisecond (e.g. the other tests) run the clock slightly ahead
+        assertTrue(timestamp >= before && timestamp <= after + 1000, "timestamp " + timestamp);
+    }
+
+    @Test
+    void next_shouldBeStrictlyIncreasingAsUnsignedBytes() {
+        UUID previous = UuidV7.next();
+        for (int i = 0; i < 100_000; i++) {
+            UUID current = UuidV7.next();
+            // Postgres orders uuid columns by unsigned byte comparison
+            int cmp = Long.compareUnsigned(current.getMostSignificantBits(), previous.getMostSignificantBits());
+            assertTrue(cmp > 0, previous + " >= " + current);
+            previous = current;
+        }
+    }
+
+    @Test
+    void next_shouldBeUniqueAcrossThreads() throws Exception {
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                Set<UUID> local = new HashSet<>();
+                for (int i = 0; i < 20_000; i++) {
+                    local.add(UuidV7.next());
+                }
+                ids.addAll(local);
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(160_000, ids.size());
+    }
+
+    @Test
+    void timestamp_shouldRejectOtherVersions() {
+        assertThrows(IllegalArgumentException.class, () -> UuidV7.timestamp(UUID.randomUUID()));
+    }
+}
@@ -0,0 +1,58 @@
+package com.banksystem.transaction.security;
+
+import feign.RequestTemplate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class AuthorizationForwardingInterceptorTest {
+
+    private final ServiceTokenProvider serviceTokenProvider = mock(ServiceTokenProvider.class);
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void forwardsBearerToken_ofCurrentRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/transactions/deposit");
+        request.addHeader("Authorization", "Bearer abc.def.ghi");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        RequestTemplate template = new RequestTemplate();
+
+        new AuthorizationForwardingInterceptor(Optional.of(serviceTokenProvider)).apply(template);
+
+        assertThat(template.headers().get("Authorization")).containsExactly("Bearer abc.def.ghi");
+        verifyNoInteractions(serviceTokenProvider);
+    }
+
+    @Test
+    void sendsServiceToken_outsideARequest() {
+        // the outbox dispatcher's calls run on a scheduler thread with no request bound
+        when(serviceTokenProvider.token()).thenReturn("service.token.jwt");
+        RequestTemplate template = new RequestTemplate();
+
+        new AuthorizationForwardingInterceptor(Optional.of(serviceTokenProvider)).apply(template);
+
+        assertThat(template.headers().get("Authorization")).containsExactly("Bearer service.token.jwt");
+    }
+
+    @Test
+    void addsNothing_outsideARequest_withoutServiceToken() {
+        RequestTemplate template = new RequestTemplate();
+
+        new AuthorizationForwardingInterceptor(Optional.empty()).apply(template);
+
+        assertThat(template.headers()).doesNotContainKey("Authorization");
+    }
+}
@@ -0,0 +1,71 @@
+package com.banksystem.transaction.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.ResponseCreator;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.jsonPath;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class ServiceTokenProviderTest {
+
+    private static final String TOKEN_URI = "http://auth/api/auth/service-token";
+
+    private final RestTemplate restTemplate = new RestTemplate();
+    private final MockRestServiceServer authService = MockRestServiceServer.bindTo(restTemplate).build();
+
+    @Test
+    void fetchesTokenWithClientCredentials_andCachesIt() {
+        authService.expect(once(), requestTo(TOKEN_URI))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(jsonPath("$.clientId").value("transaction-service"))
+                .andExpect(jsonPath("$.clientSecret").value("s3cret"))
+                .andRespond(tokenResponse("first", 300));
+        ServiceTokenProvider provider = provider(Duration.ofMinutes(1));
+
+        assertThat(provider.token()).isEqualTo("first");
+        assertThat(provider.token()).isEqualTo("first");
+        authService.verify();
+    }
+
+    @Test
+    void keepsCurrentToken_whenRenewalFailsBeforeItExpires() {
+        authService.expect(requestTo(TOKEN_URI)).andRespond(tokenResponse("first", 300));
+        authService.expect(requestTo(TOKEN_URI)).andRespond(withServerError());
+        // renewed on every call, since the whole lifetime is inside the refresh window
+        ServiceTokenProvider provider = provider(Duration.ofMinutes(5));
+
+        assertThat(provider.token()).isEqualTo("first");
+        assertThat(provider.token()).isEqualTo("first");
+        authService.verify();
+    }
+
+    @Test
+    void throwsRetryableError_whenNoTokenCanBeObtained() {
+        authService.expect(requestTo(TOKEN_URI)).andRespond(withServerError());
+
+        assertThatThrownBy(() -> provider(Duration.ofMinutes(1)).token())
+                .isInstanceOf(ServiceTokenUnavailableException.class)
+                .hasMessageContaining(TOKEN_URI);
+    }
+
+    private ServiceTokenProvider provider(Duration refreshBefore) {
+        return new ServiceTokenProvider(restTemplate, TOKEN_URI, "transaction-service", "s3cret", refreshBefore);
+    }
+
+    private static ResponseCreator tokenResponse(String token, long expiresIn) {
+        return withSuccess("{\"token\":\"" + token + "\",\"expiresInSeconds\":" + expiresIn + "}",
+                MediaType.APPLICATION_JSON);
+    }
+}
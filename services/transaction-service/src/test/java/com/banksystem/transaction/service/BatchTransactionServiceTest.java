@@ -0,0 +1,179 @@
+package com.banksystem.transaction.service;
+
+import com.banksystem.transaction.client.AccountClient;
+import com.banksystem.transaction.dto.BatchItemOutcome;
+import com.banksystem.transaction.dto.BatchTransactionItem;
+import com.banksystem.transaction.dto.BatchTransactionResponse;
+import com.banksystem.transaction.dto.TransactionRequest;
+import com.banksystem.transaction.model.Transaction;
+import com.banksystem.transaction.model.TransactionStatus;
+import com.banksystem.transaction.model.TransactionType;
+import com.banksystem.transaction.repository.TransactionRepository;
+import feign.FeignException;
+import feign.Request;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchTransactionServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private AccountClient accountClient;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BatchTransactionService batchService;
+
+    @BeforeEach
+    void setUp() {
+        IdempotencyCache idempotencyCache =
+                new IdempotencyCache(new SimpleMeterRegistry(), true, 100, Duration.ofMinutes(1), 100, 0.01);
+        batchService = new BatchTransactionService(transactionRepository, accountClient, transactionService,
+                idempotencyCache, transactionManager, 3);
+        lenient().when(transactionService.buildTransactionResponse(any())).thenCallRealMethod();
+        lenient().when(transactionRepository.settle(any(), any())).thenReturn(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ingest_shouldInsertNewItemsInOneBatchAndReplayKnownKeys() {
+        Transaction existing = new Transaction(UUID.randomUUID(), "acc-1", null, BigDecimal.TEN,
+                TransactionType.DEPOSIT, TransactionStatus.SUCCESS, LocalDateTime.now(), "k1");
+        when(transactionRepository.findByIdempotencyKeyIn(anyCollection())).thenReturn(List.of(existing));
+        List<Transaction> inserted = new ArrayList<>();
+        when(transactionRepository.saveAll(any())).thenAnswer(inv -> {
+            for (Transaction t : (Collection<Transaction>) inv.getArgument(0)) {
+                t.setId(UUID.randomUUID());
+                inserted.add(t);
+            }
+            return inserted;
+        });
+        doThrow(feignError(422))
+                .when(accountClient).debit(eq("acc-3"), eq("k3"), any(TransactionRequest.class));
+
+        BatchTransactionResponse response = batchService.ingest(List.of(
+                new BatchTransactionItem("k1", TransactionType.DEPOSIT, "acc-1", BigDecimal.TEN),
+                new BatchTransactionItem("k2", TransactionType.DEPOSIT, "acc-2", BigDecimal.ONE),
+                new BatchTransactionItem("k3", TransactionType.WITHDRAW, "acc-3", BigDecimal.ONE)
+        ));
+
+        assertEquals(BatchItemOutcome.REPLAYED, response.getResults().get(0).getOutcome());
+        assertEquals(BatchItemOutcome.CREATED, response.getResults().get(1).getOutcome());
+        assertEquals(TransactionStatus.SUCCESS, response.getResults().get(1).getTransaction().getStatus());
+        assertEquals(BatchItemOutcome.FAILED, response.getResults().get(2).getOutcome());
+        assertEquals(TransactionStatus.FAILED, response.getResults().get(2).getTransaction().getStatus());
+
+        assertEquals(2, inserted.size());
+        verify(transactionRepository, times(1)).saveAll(any());
+        verify(accountClient, never()).credit(eq("acc-1"), any(), any());
+        // each outcome is written before the next item is sent
+        InOrder inOrder = inOrder(accountClient, transactionRepository);
+        inOrder.verify(accountClient).credit(eq("acc-2"), eq("k2"), any(TransactionRequest.class));
+        inOrder.verify(transactionRepository).settle(inserted.get(0).getId(), TransactionStatus.SUCCESS);
+        inOrder.verify(accountClient).debit(eq("acc-3"), eq("k3"), any(TransactionRequest.class));
+        inOrder.verify(transactionRepository).settle(inserted.get(1).getId(), TransactionStatus.FAILED);
+    }
+
+    @Test
+    void ingest_shouldSendPendingItemAgainUnderItsKey_whenResubmittedAfterInterruption() {
+        Transaction interrupted = new Transaction(UUID.randomUUID(), "acc-1", null, BigDecimal.TEN,
+                TransactionType.DEPOSIT, TransactionStatus.PENDING, LocalDateTime.now(), "k1");
+        when(transactionRepository.findByIdempotencyKeyIn(anyCollection())).thenReturn(List.of(interrupted));
+
+        BatchTransactionResponse response = batchService.ingest(List.of(
+                new BatchTransactionItem("k1", TransactionType.DEPOSIT, "acc-1", BigDecimal.TEN)
+        ));
+
+        assertEquals(BatchItemOutcome.CREATED, response.getResults().get(0).getOutcome());
+        assertEquals(TransactionStatus.SUCCESS, response.getResults().get(0).getTransaction().getStatus());
+        // account-service skips the key if the first submission already applied it
+        verify(accountClient).credit(eq("acc-1"), eq("k1"), any(TransactionRequest.class));
+        verify(transactionRepository).settle(interrupted.getId(), TransactionStatus.SUCCESS);
+        verify(transactionRepository).saveAll(argThat(pending -> !pending.iterator().hasNext()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ingest_shouldLeaveItemPending_whenAccountServiceGivesNoDefinitiveAnswer() {
+        when(transactionRepository.findByIdempotencyKeyIn(anyCollection())).thenReturn(List.of());
+        when(transactionRepository.saveAll(any())).thenAnswer(inv -> {
+            ((Collection<Transaction>) inv.getArgument(0)).forEach(t -> t.setId(UUID.randomUUID()));
+            return List.of();
+        });
+        doThrow(feignError(503)).when(accountClient).credit(eq("acc-1"), eq("k1"), any(TransactionRequest.class));
+
+        BatchTransactionResponse response = batchService.ingest(List.of(
+                new BatchTransactionItem("k1", TransactionType.DEPOSIT, "acc-1", BigDecimal.TEN)
+        ));
+
+        assertEquals(BatchItemOutcome.PENDING, response.getResults().get(0).getOutcome());
+        assertEquals(TransactionStatus.PENDING, response.getResults().get(0).getTransaction().getStatus());
+        // never settled, so a resubmission resends it under the same key
+        verify(transactionRepository, never()).settle(any(), any());
+    }
+
+    @Test
+    void ingest_shouldRejectTransfersAndDuplicateKeysWithoutPersistingThem() {
+        when(transactionRepository.findByIdempotencyKeyIn(anyCollection())).thenReturn(List.of());
+
+        BatchTransactionResponse response = batchService.ingest(List.of(
+                new BatchTransactionItem("k1", TransactionType.TRANSFER, "acc-1", BigDecimal.TEN),
+                new BatchTransactionItem("k2", TransactionType.DEPOSIT, "acc-2", BigDecimal.ONE),
+                new BatchTransactionItem("k2", TransactionType.DEPOSIT, "acc-2", BigDecimal.ONE)
+        ));
+
+        assertEquals(BatchItemOutcome.REJECTED, response.getResults().get(0).getOutcome());
+        assertEquals(BatchItemOutcome.CREATED, response.getResults().get(1).getOutcome());
+        assertEquals(BatchItemOutcome.REJECTED, response.getResults().get(2).getOutcome());
+        verify(accountClient, times(1)).credit(eq("acc-2"), eq("k2"), any(TransactionRequest.class));
+    }
+
+    @Test
+    void ingest_shouldRejectOversizedBatch() {
+        List<BatchTransactionItem> items = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            items.add(new BatchTransactionItem("k" + i, TransactionType.DEPOSIT, "acc-1", BigDecimal.ONE));
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> batchService.ingest(items));
+        verifyNoInteractions(transactionRepository, accountClient);
+    }
+
+    private static FeignException feignError(int status) {
+        Request request = Request.create(Request.HttpMethod.POST, "http://account-service/api/accounts/acc-1/debit",
+                Map.of(), new byte[0], StandardCharsets.UTF_8, null);
+        return FeignException.errorStatus("AccountClient#debit", feign.Response.builder()
+                .status(status)
+                .reason("error")
+                .request(request)
+                .headers(Map.of())
+                .build());
+    }
+}
@@ -0,0 +1,100 @@
+package com.banksystem.transaction.service;
+
+import com.banksystem.transaction.dto.TransactionResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private IdempotencyCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new IdempotencyCache(meterRegistry, true, 100, Duration.ofMinutes(5), 1000, 0.01);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void find_shouldSkipLookup_whenKeyWasNeverSeen() {
+        Optional<TransactionResponse> result = cache.find("new-key", loader(Optional.empty()));
+
+        assertTrue(result.isEmpty());
+        assertEquals(0, loads.get());
+        assertEquals(1.0, lookups("new"));
+    }
+
+    @Test
+    void find_shouldAnswerFromMemory_afterRecord() {
+        TransactionResponse response = response();
+        cache.recordAfterCommit("known", response);
+
+        Optional<TransactionResponse> result = cache.find("known", loader(Optional.empty()));
+
+        assertSame(response, result.orElseThrow());
+        assertEquals(0, loads.get());
+        assertEquals(1.0, lookups("hit"));
+    }
+
+    @Test
+    void confirmNew_shouldQueryOnlyKeysThatSkippedTheLookup() {
+        cache.record("known", response());
+
+        assertTrue(cache.confirmNew("known", loader(Optional.of(response()))).isEmpty());
+        assertEquals(0, loads.get());
+
+        assertTrue(cache.confirmNew("unknown", loader(Optional.of(response()))).isPresent());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void disabledCache_shouldAlwaysDelegateToLoader() {
+        IdempotencyCache disabled = new IdempotencyCache(meterRegistry, false, 100, Duration.ofMinutes(5), 1000, 0.01);
+        disabled.recordAfterCommit("known", response());
+
+        disabled.find("known", loader(Optional.empty()));
+        disabled.find("new-key", loader(Optional.empty()));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void bloomFilter_shouldNeverForgetInsertedKeys_acrossRotation() {
+        IdempotencyCache rotating = new IdempotencyCache(meterRegistry, true, 10, Duration.ofMinutes(5), 50, 0.01);
+        for (int i = 0; i < 60; i++) {
+            rotating.record("key-" + i, response());
+        }
+
+        // keys from the previous generation are still considered possibly known
+        assertTrue(rotating.confirmNew("key-0", loader(Optional.empty())).isEmpty());
+        assertEquals(0, loads.get());
+    }
+
+    private Function<String, Optional<TransactionResponse>> loader(Optional<TransactionResponse> result) {
+        return key -> {
+            loads.incrementAndGet();
+            return result;
+        };
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.get("transaction.idempotency.lookups").tag("result", result).counter().count();
+    }
+
+    private static TransactionResponse response() {
+        TransactionResponse response = new TransactionResponse();
+        response.setId(UUID.randomUUID());
+        return response;
+    }
+}
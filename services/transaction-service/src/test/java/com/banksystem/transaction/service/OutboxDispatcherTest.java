@@ -0,0 +1,203 @@
+package com.banksystem.transaction.service;
+
+import com.banksystem.transaction.client.AccountClient;
+import com.banksystem.transaction.dto.AccountTransferRequest;
+import com.banksystem.transaction.model.OutboxEvent;
+import com.banksystem.transaction.model.Transaction;
+import com.banksystem.transaction.model.TransactionStatus;
+import com.banksystem.transaction.model.TransactionType;
+import com.banksystem.transaction.repository.OutboxRepository;
+import com.banksystem.transaction.repository.TransactionRepository;
+import com.banksystem.transaction.security.ServiceTokenUnavailableException;
+import feign.FeignException;
+import feign.Request;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxDispatcherTest {
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private AccountClient accountClient;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OutboxDispatcher dispatcher;
+
+    private Transaction transfer;
+    private OutboxEvent event;
+
+    @BeforeEach
+    void setUp() {
+        IdempotencyCache idempotencyCache =
+                new IdempotencyCache(new SimpleMeterRegistry(), false, 10, Duration.ofMinutes(1), 10, 0.01);
+        dispatcher = new OutboxDispatcher(outboxRepository, transactionRepository, accountClient, transactionService,
+                idempotencyCache, transactionManager, new SimpleMeterRegistry(),
+                10, Duration.ofSeconds(30), 3, Duration.ofSeconds(1), Duration.ofMinutes(1));
+        lenient().when(transactionService.buildTransactionResponse(any())).thenCallRealMethod();
+
+        transfer = new Transaction(UUID.randomUUID(), "acc-1", "acc-2", BigDecimal.TEN,
+                TransactionType.TRANSFER, TransactionStatus.PENDING, LocalDateTime.now(), "k1");
+        event = OutboxEvent.forTransaction(transfer);
+        event.setId(UUID.randomUUID());
+        event.setLeaseToken(UUID.randomUUID());
+        event.setAttempts(1);
+        lenient().when(outboxRepository.renewLease(eq(event.getId()), eq(event.getLeaseToken()), any()))
+                .thenReturn(1);
+        lenient().when(outboxRepository.deleteLeased(event.getId(), event.getLeaseToken())).thenReturn(1);
+        lenient().when(transactionRepository.settle(eq(transfer.getId()), any())).thenReturn(1);
+    }
+
+    @Test
+    void dispatch_shouldApplyTransferInOneCallAndCompleteEvent() {
+        dispatcher.dispatch(event, transfer);
+
+        verify(accountClient).transfer(eq("acc-1"), eq("k1"), eq(new AccountTransferRequest("acc-2", BigDecimal.TEN)));
+        verify(accountClient, never()).debit(any(), any(), any());
+        verify(accountClient, never()).credit(any(), any(), any());
+        verify(transactionRepository).settle(transfer.getId(), TransactionStatus.SUCCESS);
+        verify(outboxRepository).deleteLeased(event.getId(), event.getLeaseToken());
+    }
+
+    @Test
+    void dispatch_shouldRescheduleOnServerError() {
+        doThrow(feignError(503)).when(accountClient).transfer(eq("acc-1"), any(), any(AccountTransferRequest.class));
+
+        dispatcher.dispatch(event, transfer);
+
+        verify(outboxRepository).reschedule(eq(event.getId()), eq(event.getLeaseToken()), any(LocalDateTime.class),
+                anyString());
+        verify(transactionRepository, never()).settle(any(), any());
+        verify(outboxRepository, never()).deleteLeased(any(), any());
+    }
+
+    @Test
+    void dispatch_shouldResendTransferUnderTheSameKey_whenRedelivered() {
+        // the first answer is lost after account-service may have committed
+        doThrow(feignError(503)).doNothing()
+                .when(accountClient).transfer(eq("acc-1"), any(), any(AccountTransferRequest.class));
+
+        dispatcher.dispatch(event, transfer);
+        dispatcher.dispatch(event, transfer);
+
+        verify(accountClient, times(2)).transfer(eq("acc-1"), eq("k1"), any(AccountTransferRequest.class));
+        verify(transactionRepository).settle(transfer.getId(), TransactionStatus.SUCCESS);
+    }
+
+    @Test
+    void dispatch_shouldRescheduleWhenServiceTokenIsUnavailable() {
+        doThrow(new ServiceTokenUnavailableException("auth-service down", new RuntimeException()))
+                .when(accountClient).transfer(eq("acc-1"), any(), any(AccountTransferRequest.class));
+
+        dispatcher.dispatch(event, transfer);
+
+        verify(outboxRepository).reschedule(eq(event.getId()), eq(event.getLeaseToken()), any(LocalDateTime.class),
+                anyString());
+        verify(transactionRepository, never()).settle(any(), any());
+    }
+
+    @Test
+    void dispatch_shouldFailTransactionOnClientError() {
+        doThrow(feignError(400)).when(accountClient).transfer(eq("acc-1"), any(), any(AccountTransferRequest.class));
+
+        dispatcher.dispatch(event, transfer);
+
+        verify(transactionRepository).settle(transfer.getId(), TransactionStatus.FAILED);
+        verify(outboxRepository).deleteLeased(event.getId(), event.getLeaseToken());
+        verify(outboxRepository, never()).reschedule(any(), any(), any(), any());
+    }
+
+    @Test
+    void dispatch_shouldFailTransactionWhenAttemptsAreExhausted() {
+        event.setAttempts(3);
+        doThrow(feignError(503)).when(accountClient).transfer(eq("acc-1"), any(), any(AccountTransferRequest.class));
+
+        dispatcher.dispatch(event, transfer);
+
+        verify(transactionRepository).settle(transfer.getId(), TransactionStatus.FAILED);
+        verify(outboxRepository).deleteLeased(event.getId(), event.getLeaseToken());
+    }
+
+    @Test
+    void dispatch_shouldDropEventOfSettledTransaction() {
+        transfer.setStatus(TransactionStatus.SUCCESS);
+
+        dispatcher.dispatch(event, transfer);
+
+        verifyNoInteractions(accountClient);
+        verify(outboxRepository).deleteLeased(event.getId(), event.getLeaseToken());
+    }
+
+    @Test
+    void dispatch_shouldSkipEventClaimedByAnotherDispatcher() {
+        when(outboxRepository.renewLease(eq(event.getId()), eq(event.getLeaseToken()), any())).thenReturn(0);
+
+        dispatcher.dispatch(event, transfer);
+
+        verifyNoInteractions(accountClient);
+        verify(transactionRepository, never()).settle(any(), any());
+        verify(outboxRepository, never()).deleteLeased(any(), any());
+    }
+
+    @Test
+    void dispatch_shouldNotSettleTransactionWhenLeaseWasLostDuringSend() {
+        when(outboxRepository.deleteLeased(event.getId(), event.getLeaseToken())).thenReturn(0);
+
+        dispatcher.dispatch(event, transfer);
+
+        verify(accountClient).transfer(eq("acc-1"), any(), any(AccountTransferRequest.class));
+        verify(transactionRepository, never()).settle(any(), any());
+    }
+
+    @Test
+    void claim_shouldStampLeaseTokenOnClaimedEvents() {
+        OutboxEvent other = OutboxEvent.forTransaction(transfer);
+        when(outboxRepository.findDue(any(), any())).thenReturn(List.of(other));
+
+        List<OutboxEvent> claimed = dispatcher.claim();
+
+        assertThat(claimed).singleElement().satisfies(e -> {
+            assertThat(e.getLeaseToken()).isNotNull();
+            assertThat(e.getNextAttemptAt()).isAfter(LocalDateTime.now().plusSeconds(20));
+            assertThat(e.getAttempts()).isEqualTo(1);
+        });
+    }
+
+    private static FeignException feignError(int status) {
+        Request request = Request.create(Request.HttpMethod.POST, "http://account-service/api/accounts/acc-1/transfer",
+                Map.of(), new byte[0], StandardCharsets.UTF_8, null);
+        return FeignException.errorStatus("AccountClient#transfer", feign.Response.builder()
+                .status(status)
+                .reason("error")
+                .request(request)
+                .headers(Map.of())
+                .build());
+    }
+}
@@ -0,0 +1,90 @@
+package com.banksystem.transaction.service;
+
+import com.banksystem.transaction.dto.ExportFormat;
+import com.banksystem.transaction.model.Transaction;
+import com.banksystem.transaction.model.TransactionStatus;
+import com.banksystem.transaction.model.TransactionType;
+import com.banksystem.transaction.repository.TransactionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionExportServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private TransactionExportService exportService;
+
+    private Transaction deposit;
+    private Transaction transfer;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        when(transactionService.buildTransactionResponse(any())).thenCallRealMethod();
+        exportService = new TransactionExportService(transactionRepository, transactionService, objectMapper, entityManager);
+
+        deposit = new Transaction(UUID.randomUUID(), "acc-1", null, new BigDecimal("10.00"),
+                TransactionType.DEPOSIT, TransactionStatus.SUCCESS,
+                LocalDateTime.of(2024, 1, 1, 10, 0), "k1");
+        transfer = new Transaction(UUID.randomUUID(), "acc,2", "acc-1", new BigDecimal("2.50"),
+                TransactionType.TRANSFER, TransactionStatus.SUCCESS,
+                LocalDateTime.of(2024, 1, 2, 10, 0), "k2");
+    }
+
+    @Test
+    void export_shouldWriteOneJsonObjectPerLine() throws Exception {
+        when(transactionRepository.streamByAccount("acc-1")).thenReturn(Stream.of(deposit, transfer));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.export("acc-1", ExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, rows);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains(deposit.getId().toString()));
+        assertTrue(lines[1].contains("\"type\":\"TRANSFER\""));
+        verify(entityManager).detach(deposit);
+        verify(entityManager).detach(transfer);
+    }
+
+    @Test
+    void export_shouldWriteCsvWithHeaderAndQuotedFields() throws Exception {
+        when(transactionRepository.streamByAccount("acc-1")).thenReturn(Stream.of(deposit, transfer));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export("acc-1", ExportFormat.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals(TransactionExportService.CSV_HEADER, lines[0]);
+        assertEquals(deposit.getId() + ",acc-1,,DEPOSIT,SUCCESS,10.00,2024-01-01T10:00", lines[1]);
+        assertEquals(transfer.getId() + ",\"acc,2\",acc-1,TRANSFER,SUCCESS,2.50,2024-01-02T10:00", lines[2]);
+    }
+}
@@ -3,9 +3,14 @@ package com.banksystem.transaction.service;
 import com.banksystem.transaction.dto.*;
 import com.banksystem.transaction.model.Transaction;
 import com.banksystem.transaction.model.TransactionStatus;
+import com.banksystem.transaction.model.OutboxEvent;
+import com.banksystem.transaction.repository.OutboxRepository;
 import com.banksystem.transaction.repository.TransactionRepository;
 import com.banksystem.transaction.client.AccountClient;
 import com.banksystem.transaction.model.TransactionType;
+import feign.FeignException;
+import feign.Request;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,8 +18,12 @@ import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -33,6 +42,14 @@ class TransactionServiceTest {
     @Mock
     private AccountClient accountClient;
 
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    // fast path disabled: every lookup goes to the repository, as without the cache
+    @Spy
+    private IdempotencyCache idempotencyCache =
+            new IdempotencyCache(new SimpleMeterRegistry(), false, 10, Duration.ofMinutes(1), 10, 0.01);
+
     @InjectMocks
     private TransactionService transactionService;
 
@@ -119,7 +136,7 @@ class TransactionServiceTest {
         assertEquals(TransactionStatus.SUCCESS, result.getStatus());
         assertNotNull(result.getCreatedAt());
 
-        verify(accountClient).credit(eq("acc-1"), argThat(tr ->
+        verify(accountClient).credit(eq("acc-1"), eq(IDEMPOTENCY_KEY), argThat(tr ->
                 tr != null && new BigDecimal("100.00").compareTo(tr.getAmount()) == 0
         ));
 
@@ -135,7 +152,7 @@ class TransactionServiceTest {
                 .thenAnswer(inv -> inv.getArgument(0));
 
         doThrow(new RuntimeException("downstream error"))
-                .when(accountClient).credit(eq("acc-1"), any(TransactionRequest.class));
+                .when(accountClient).credit(eq("acc-1"), eq(IDEMPOTENCY_KEY), any(TransactionRequest.class));
 
         DepositRequest request = new DepositRequest();
         request.setAccountId("acc-1");
@@ -152,7 +169,7 @@ class TransactionServiceTest {
 
         assertEquals(TransactionStatus.FAILED, lastSaved.getStatus());
 
-        verify(accountClient, times(1)).credit(eq("acc-1"), any(TransactionRequest.class));
+        verify(accountClient, times(1)).credit(eq("acc-1"), eq(IDEMPOTENCY_KEY), any(TransactionRequest.class));
     }
 
     @Test
@@ -214,7 +231,7 @@ class TransactionServiceTest {
         assertTrue(ex.getMessage().toLowerCase().contains("insufficient"));
         verify(transactionRepository, never()).save(any());
         verify(accountClient, times(1)).getBalance("acc-1");
-        verify(accountClient, never()).debit(anyString(), any());
+        verify(accountClient, never()).debit(anyString(), any(), any());
     }
 
     @Test
@@ -237,7 +254,7 @@ class TransactionServiceTest {
         assertEquals(TransactionType.WITHDRAW, result.getType());
         assertEquals(TransactionStatus.SUCCESS, result.getStatus());
 
-        verify(accountClient).debit(eq("acc-1"), argThat(tr ->
+        verify(accountClient).debit(eq("acc-1"), eq(IDEMPOTENCY_KEY), argThat(tr ->
                 tr != null && new BigDecimal("50.00").compareTo(tr.getAmount()) == 0
         ));
         verify(transactionRepository, times(2)).save(any(Transaction.class));
@@ -255,7 +272,7 @@ class TransactionServiceTest {
                 .thenAnswer(inv -> inv.getArgument(0));
 
         doThrow(new RuntimeException("debit error"))
-                .when(accountClient).debit(eq("acc-1"), any(TransactionRequest.class));
+                .when(accountClient).debit(eq("acc-1"), eq(IDEMPOTENCY_KEY), any(TransactionRequest.class));
 
         WithdrawRequest request = new WithdrawRequest();
         request.setAccountId("acc-1");
@@ -331,11 +348,15 @@ class TransactionServiceTest {
     }
 
     @Test
-    void transfer_shouldThrow_whenInsufficientFunds() {
+    void transfer_shouldThrowAndSetFailed_whenAccountServiceRejectsIt() {
         when(transactionRepository.findByIdempotencyKey(IDEMPOTENCY_KEY))
                 .thenReturn(Optional.empty());
 
-        when(accountClient.getBalance("acc-1")).thenReturn(new BigDecimal("10.00"));
+        when(transactionRepository.save(any(Transaction.class)))
+                .thenAnswer(inv -> inv.getArgument(0));
+
+        doThrow(feignError(400))
+                .when(accountClient).transfer(eq("acc-1"), eq(IDEMPOTENCY_KEY), any(AccountTransferRequest.class));
 
         TransferRequest request = new TransferRequest();
         request.setAccountId("acc-1");
@@ -344,19 +365,19 @@ class TransactionServiceTest {
 
         assertThrows(IllegalArgumentException.class, () -> transactionService.transfer(request, IDEMPOTENCY_KEY));
 
-        verify(accountClient, times(1)).getBalance("acc-1");
-        verify(accountClient, never()).debit(anyString(), any());
-        verify(accountClient, never()).credit(anyString(), any());
-        verify(transactionRepository, never()).save(any());
+        verify(accountClient, never()).getBalance(anyString());
+        verify(accountClient, never()).debit(anyString(), any(), any());
+        verify(accountClient, never()).credit(anyString(), any(), any());
+        verify(transactionRepository, atLeastOnce()).save(transactionCaptor.capture());
+        Transaction last = transactionCaptor.getAllValues().get(transactionCaptor.getAllValues().size() - 1);
+        assertEquals(TransactionStatus.FAILED, last.getStatus());
     }
 
     @Test
-    void transfer_shouldDebitThenCreditAndSetSuccess_whenValid() {
+    void transfer_shouldCallAccountServiceOnceAndSetSuccess_whenValid() {
         when(transactionRepository.findByIdempotencyKey(IDEMPOTENCY_KEY))
                 .thenReturn(Optional.empty());
 
-        when(accountClient.getBalance("acc-1")).thenReturn(new BigDecimal("1000.00"));
-
         when(transactionRepository.save(any(Transaction.class)))
                 .thenAnswer(inv -> inv.getArgument(0));
 
@@ -372,54 +393,22 @@ class TransactionServiceTest {
         assertEquals(TransactionStatus.SUCCESS, response.getStatus());
         assertEquals(new BigDecimal("250.00"), response.getAmount());
 
-        InOrder inOrder = inOrder(accountClient);
-        inOrder.verify(accountClient).debit(eq("acc-1"), any(TransactionRequest.class));
-        inOrder.verify(accountClient).credit(eq("acc-2"), any(TransactionRequest.class));
+        verify(accountClient).transfer("acc-1", IDEMPOTENCY_KEY, new AccountTransferRequest("acc-2", new BigDecimal("250.00")));
+        verifyNoMoreInteractions(accountClient);
 
         verify(transactionRepository, times(2)).save(any(Transaction.class));
     }
 
     @Test
-    void transfer_shouldSetFailedAndRethrow_whenDebitFails_andNotCallCredit() {
-        when(transactionRepository.findByIdempotencyKey(IDEMPOTENCY_KEY))
-                .thenReturn(Optional.empty());
-
-        when(accountClient.getBalance("acc-1")).thenReturn(new BigDecimal("1000.00"));
-
-        when(transactionRepository.save(any(Transaction.class)))
-                .thenAnswer(inv -> inv.getArgument(0));
-
-        doThrow(new RuntimeException("debit failed"))
-                .when(accountClient).debit(eq("acc-1"), any(TransactionRequest.class));
-
-        TransferRequest request = new TransferRequest();
-        request.setAccountId("acc-1");
-        request.setTargetAccountId("acc-2");
-        request.setAmount(new BigDecimal("250.00"));
-
-        assertThrows(RuntimeException.class, () -> transactionService.transfer(request, IDEMPOTENCY_KEY));
-
-        verify(accountClient, times(1)).debit(eq("acc-1"), any(TransactionRequest.class));
-        verify(accountClient, never()).credit(anyString(), any());
-
-        verify(transactionRepository, atLeastOnce()).save(transactionCaptor.capture());
-        Transaction last = transactionCaptor.getAllValues().get(transactionCaptor.getAllValues().size() - 1);
-        assertEquals(TransactionStatus.FAILED, last.getStatus());
-    }
-
-    @Test
-    void transfer_shouldSetFailedAndRethrow_whenCreditFails_afterDebit() {
+    void transfer_shouldSetFailedAndRethrow_whenAccountServiceCallFails() {
         when(transactionRepository.findByIdempotencyKey(IDEMPOTENCY_KEY))
                 .thenReturn(Optional.empty());
 
-        when(accountClient.getBalance("acc-1")).thenReturn(new BigDecimal("1000.00"));
-
         when(transactionRepository.save(any(Transaction.class)))
                 .thenAnswer(inv -> inv.getArgument(0));
 
-        doNothing().when(accountClient).debit(eq("acc-1"), any(TransactionRequest.class));
-        doThrow(new RuntimeException("credit failed"))
-                .when(accountClient).credit(eq("acc-2"), any(TransactionRequest.class));
+        doThrow(new RuntimeException("transfer failed"))
+                .when(accountClient).transfer(eq("acc-1"), eq(IDEMPOTENCY_KEY), any(AccountTransferRequest.class));
 
         TransferRequest request = new TransferRequest();
         request.setAccountId("acc-1");
@@ -428,16 +417,13 @@ class TransactionServiceTest {
 
         assertThrows(RuntimeException.class, () -> transactionService.transfer(request, IDEMPOTENCY_KEY));
 
-        verify(accountClient).debit(eq("acc-1"), any(TransactionRequest.class));
-        verify(accountClient).credit(eq("acc-2"), any(TransactionRequest.class));
-
         verify(transactionRepository, atLeastOnce()).save(transactionCaptor.capture());
         Transaction last = transactionCaptor.getAllValues().get(transactionCaptor.getAllValues().size() - 1);
         assertEquals(TransactionStatus.FAILED, last.getStatus());
     }
 
     @Test
-    void listByAccount_shouldFilterAndSortByCreatedAtDesc() {
+    void listByAccount_shouldMergeOutgoingAndIncomingNewestFirst() {
         UUID id1 = UUID.randomUUID();
         Transaction t1 = new Transaction(id1, "acc-1", null, BigDecimal.ONE,
                 TransactionType.DEPOSIT, TransactionStatus.SUCCESS,
@@ -448,18 +434,69 @@ class TransactionServiceTest {
                 TransactionType.TRANSFER, TransactionStatus.SUCCESS,
                 LocalDateTime.now().minusMinutes(5), "k2");
 
-        UUID id3 = UUID.randomUUID();
-        Transaction t3 = new Transaction(id3, "acc-3", null, BigDecimal.ONE,
-                TransactionType.DEPOSIT, TransactionStatus.SUCCESS,
-                LocalDateTime.now().minusMinutes(1), "k3");
+        when(transactionRepository.findByAccountIdOrderByCreatedAtDescIdDesc(eq("acc-1"), any()))
+                .thenReturn(List.of(t1));
+        when(transactionRepository.findByTargetAccountIdOrderByCreatedAtDescIdDesc(eq("acc-1"), any()))
+                .thenReturn(List.of(t2));
 
-        when(transactionRepository.findAll()).thenReturn(List.of(t1, t2, t3));
+        TransactionPageResponse result = transactionService.listByAccount("acc-1", null, 50);
 
-        List<TransactionResponse> result = transactionService.listByAccount("acc-1");
+        assertEquals(2, result.getItems().size());
+        assertEquals(id2, result.getItems().get(0).getId());
+        assertEquals(id1, result.getItems().get(1).getId());
+        assertNull(result.getNextCursor());
+        verify(transactionRepository, never()).findAll();
+    }
 
-        assertEquals(2, result.size());
-        assertEquals(id2, result.get(0).getId());
-        assertEquals(id1, result.get(1).getId());
+    @Test
+    void listByAccount_shouldReturnCursorThatResumesAfterLastItem() {
+        LocalDateTime now = LocalDateTime.now();
+        Transaction newest = new Transaction(UUID.randomUUID(), "acc-1", null, BigDecimal.ONE,
+                TransactionType.DEPOSIT, TransactionStatus.SUCCESS, now, "k1");
+        Transaction middle = new Transaction(UUID.randomUUID(), "acc-1", null, BigDecimal.ONE,
+                TransactionType.WITHDRAW, TransactionStatus.SUCCESS, now.minusMinutes(1), "k2");
+        Transaction oldest = new Transaction(UUID.randomUUID(), "acc-2", "acc-1", BigDecimal.ONE,
+                TransactionType.TRANSFER, TransactionStatus.SUCCESS, now.minusMinutes(2), "k3");
+
+        when(transactionRepository.findByAccountIdOrderByCreatedAtDescIdDesc(eq("acc-1"), any()))
+                .thenReturn(List.of(newest, middle));
+        when(transactionRepository.findByTargetAccountIdOrderByCreatedAtDescIdDesc(eq("acc-1"), any()))
+                .thenReturn(List.of(oldest));
+
+        TransactionPageResponse first = transactionService.listByAccount("acc-1", null, 2);
+
+        assertEquals(2, first.getItems().size());
+        assertNotNull(first.getNextCursor());
+
+        when(transactionRepository.findByAccountIdBefore(eq("acc-1"), eq(middle.getCreatedAt()), eq(middle.getId()), any()))
+                .thenReturn(List.of());
+        when(transactionRepository.findByTargetAccountIdBefore(eq("acc-1"), eq(middle.getCreatedAt()), eq(middle.getId()), any()))
+                .thenReturn(List.of(oldest));
+
+        TransactionPageResponse second = transactionService.listByAccount("acc-1", first.getNextCursor(), 2);
+
+        assertEquals(1, second.getItems().size());
+        assertEquals(oldest.getId(), second.getItems().get(0).getId());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void listByAccount_shouldRejectMalformedCursor() {
+        assertThrows(IllegalArgumentException.class,
+                () -> transactionService.listByAccount("acc-1", "not-a-cursor", 10));
+    }
+
+    @Test
+    void listByAccount_shouldRejectTamperedCursorWithTheSameMessage() {
+        String badId = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("2024-01-01T10:00|not-a-uuid".getBytes(StandardCharsets.UTF_8));
+
+        for (String cursor : List.of(badId, "%%%", "bm90LWEtY3Vyc29y")) {
+            IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                    () -> transactionService.listByAccount("acc-1", cursor, 10));
+            assertEquals("Invalid pagination cursor", ex.getMessage());
+        }
+        verifyNoInteractions(transactionRepository);
     }
 
     @Test
@@ -478,4 +515,36 @@ class TransactionServiceTest {
         assertEquals(tx.getAmount(), response.getAmount());
         assertEquals(tx.getCreatedAt(), response.getCreatedAt());
     }
-}
\ No newline at end of file
+
+    @Test
+    void submitWithdraw_shouldStorePendingTransactionAndOutboxEventWithoutCallingAccountService() {
+        WithdrawRequest request = new WithdrawRequest();
+        request.setAccountId("acc-1");
+        request.setAmount(BigDecimal.TEN);
+        when(transactionRepository.findByIdempotencyKey(IDEMPOTENCY_KEY)).thenReturn(Optional.empty());
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(inv -> {
+            Transaction tx = inv.getArgument(0);
+            tx.setId(UUID.randomUUID());
+            return tx;
+        });
+
+        TransactionResponse response = transactionService.submitWithdraw(request, IDEMPOTENCY_KEY);
+
+        assertEquals(TransactionStatus.PENDING, response.getStatus());
+        ArgumentCaptor<OutboxEvent> eventCaptor = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxRepository).save(eventCaptor.capture());
+        assertEquals(response.getId(), eventCaptor.getValue().getTransactionId());
+        verifyNoInteractions(accountClient);
+    }
+
+    private static FeignException feignError(int status) {
+        Request request = Request.create(Request.HttpMethod.POST, "http://account-service/api/accounts/acc-1/transfer",
+                Map.of(), new byte[0], StandardCharsets.UTF_8, null);
+        return FeignException.errorStatus("AccountClient#transfer", feign.Response.builder()
+                .status(status)
+                .reason("error")
+                .request(request)
+                .headers(Map.of())
+                .build());
+    }
+}